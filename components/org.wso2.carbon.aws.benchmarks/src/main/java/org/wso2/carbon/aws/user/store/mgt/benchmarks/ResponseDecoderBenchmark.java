@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSResponseDecoder;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSResponseDecoders;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming decoders of the ListObjectChildren and ListObjectAttributes responses with parsing the
+ * whole json tree and reading the fields from it, as the responses were handled before the decoders.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseDecoderBenchmark {
+
+    private static final String SCHEMA_ARN = "arn:aws:clouddirectory:us-west-2:123456789012:directory/" +
+            "AXQXDXvdgkOWktRXV4HnRa8/schema/UserStoreSchema/1.0";
+    private static final String FACET_NAME = "User";
+    private static final String PASSWORD_ATTRIBUTE = "Password";
+
+    /**
+     * A page of a ListObjectChildren response.
+     */
+    @State(Scope.Benchmark)
+    public static class ObjectChildrenResponse {
+
+        @Param({"10", "30"})
+        public int childCount;
+
+        private String body;
+
+        @Setup
+        public void setUp() {
+
+            JSONObject children = new JSONObject();
+            for (int i = 0; i < childCount; i++) {
+                children.put("user" + i, "AQF0Hq-KCLdHvS5cnSeSuMJ9Bf1" + i);
+            }
+            JSONObject response = new JSONObject();
+            response.put(AWSConstants.CHILDREN, children);
+            response.put(AWSConstants.NEXT_TOKEN, "AAMA-EFRSURBSGd1Ok5YcEhQRVRUc2tTa2JOQ2Y2TDc4");
+            body = response.toJSONString();
+        }
+    }
+
+    /**
+     * A ListObjectAttributes response of a user.
+     */
+    @State(Scope.Benchmark)
+    public static class ObjectAttributesResponse {
+
+        @Param({"10", "40"})
+        public int attributeCount;
+
+        private String body;
+        private final AWSResponseDecoder<Map<String, String>> passwordDecoder =
+                AWSResponseDecoders.objectAttributes(PASSWORD_ATTRIBUTE);
+        private final AWSResponseDecoder<Map<String, String>> attributesDecoder =
+                AWSResponseDecoders.objectAttributes();
+
+        @Setup
+        public void setUp() {
+
+            JSONArray attributes = new JSONArray();
+            for (int i = 0; i < attributeCount; i++) {
+                attributes.add(buildAttribute(i == 0 ? PASSWORD_ATTRIBUTE : "attribute" + i,
+                        "value of attribute " + i));
+            }
+            JSONObject response = new JSONObject();
+            response.put(AWSConstants.ATTRIBUTES, attributes);
+            body = response.toJSONString();
+        }
+    }
+
+    @Benchmark
+    public AWSResponseDecoders.ObjectChildren decodeObjectChildren(ObjectChildrenResponse response)
+            throws ParseException, IOException {
+
+        return AWSResponseDecoders.OBJECT_CHILDREN.decode(new StringReader(response.body));
+    }
+
+    @Benchmark
+    public List<String> parseObjectChildren(ObjectChildrenResponse response, Blackhole blackhole)
+            throws ParseException, IOException {
+
+        JSONObject parsed = parse(response.body);
+        List<String> names = new ArrayList<>();
+        Object children = parsed.get(AWSConstants.CHILDREN);
+        if (children != null) {
+            for (Object name : ((JSONObject) children).keySet()) {
+                names.add(name.toString());
+            }
+        }
+        Object nextToken = parsed.get(AWSConstants.NEXT_TOKEN);
+        blackhole.consume(nextToken != null ? nextToken.toString() : null);
+        return names;
+    }
+
+    @Benchmark
+    public Map<String, String> decodeObjectAttribute(ObjectAttributesResponse response)
+            throws ParseException, IOException {
+
+        return response.passwordDecoder.decode(new StringReader(response.body));
+    }
+
+    @Benchmark
+    public String parseObjectAttribute(ObjectAttributesResponse response) throws ParseException, IOException {
+
+        return getAttributeValues(parse(response.body)).get(PASSWORD_ATTRIBUTE);
+    }
+
+    @Benchmark
+    public Map<String, String> decodeObjectAttributes(ObjectAttributesResponse response)
+            throws ParseException, IOException {
+
+        return response.attributesDecoder.decode(new StringReader(response.body));
+    }
+
+    @Benchmark
+    public Map<String, String> parseObjectAttributes(ObjectAttributesResponse response)
+            throws ParseException, IOException {
+
+        return getAttributeValues(parse(response.body));
+    }
+
+    private static JSONObject parse(String response) throws ParseException, IOException {
+
+        return (JSONObject) new JSONParser().parse(new StringReader(response));
+    }
+
+    private static Map<String, String> getAttributeValues(JSONObject response) {
+
+        Map<String, String> values = new HashMap<>();
+        for (Object attribute : (JSONArray) response.get(AWSConstants.ATTRIBUTES)) {
+            JSONObject key = (JSONObject) ((JSONObject) attribute).get(AWSConstants.KEY);
+            JSONObject value = (JSONObject) ((JSONObject) attribute).get(AWSConstants.VALUE);
+            values.put((String) key.get(AWSConstants.NAME), (String) value.get(AWSConstants.STRING_VALUE));
+        }
+        return values;
+    }
+
+    private static JSONObject buildAttribute(String name, String value) {
+
+        JSONObject key = new JSONObject();
+        key.put(AWSConstants.FACET_NAME, FACET_NAME);
+        key.put(AWSConstants.NAME, name);
+        key.put(AWSConstants.SCHEMA_ARN, SCHEMA_ARN);
+        JSONObject attributeValue = new JSONObject();
+        attributeValue.put(AWSConstants.STRING_VALUE, value);
+        JSONObject attribute = new JSONObject();
+        attribute.put(AWSConstants.KEY, key);
+        attribute.put(AWSConstants.VALUE, attributeValue);
+        return attribute;
+    }
+}
@@ -34,11 +34,44 @@ public class AWSConstants {
     public static final String USER_NAME_ATTRIBUTE = "UserNameAttribute";
     public static final String PASS_ATTRIBUTE = "PasswordAttribute";
     public static final String ROLE_NAME_ATTRIBUTE = "RoleNameAttribute";
+    public static final String MAX_TOTAL_CONNECTIONS = "MaxTotalConnections";
+    public static final String MAX_CONNECTIONS_PER_ROUTE = "MaxConnectionsPerRoute";
+    public static final String IDLE_CONNECTION_TIMEOUT = "IdleConnectionTimeout";
+    public static final String IO_THREAD_COUNT = "IOThreadCount";
+    public static final String MAX_RETRIES = "MaxRetries";
+    public static final String RETRY_BASE_DELAY = "RetryBaseDelay";
+    public static final String RETRY_MAX_DELAY = "RetryMaxDelay";
+    public static final String MAX_CONCURRENT_REQUESTS = "MaxConcurrentRequests";
+    public static final String CONNECT_TIMEOUT = "ConnectTimeout";
+    public static final String SOCKET_TIMEOUT = "SocketTimeout";
+    public static final String REQUEST_TIMEOUT = "RequestTimeout";
+    public static final String HEDGE_PERCENTILE = "HedgePercentile";
+    public static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD = "CircuitBreakerFailureThreshold";
+    public static final String CIRCUIT_BREAKER_OPEN_DURATION = "CircuitBreakerOpenDuration";
+    public static final String EXISTENCE_CACHE_SIZE = "ExistenceCacheSize";
+    public static final String EXISTENCE_CACHE_TIMEOUT = "ExistenceCacheTimeout";
+    public static final String ATTRIBUTE_CACHE_SIZE = "AttributeCacheSize";
+    public static final String ATTRIBUTE_CACHE_TIMEOUT = "AttributeCacheTimeout";
+    public static final String MEMBERSHIP_CACHE_SIZE = "MembershipCacheSize";
+    public static final String MEMBERSHIP_CACHE_TIMEOUT = "MembershipCacheTimeout";
+    public static final String UNKNOWN_USER_CACHE_SIZE = "UnknownUserCacheSize";
+    public static final String UNKNOWN_USER_CACHE_TIMEOUT = "UnknownUserCacheTimeout";
+    public static final String KNOWN_USER_FILTER_SIZE = "KnownUserFilterSize";
+    public static final String KNOWN_USER_FILTER_REFRESH_INTERVAL = "KnownUserFilterRefreshInterval";
+    public static final String SEARCHABLE_ATTRIBUTES = "SearchableAttributes";
+    public static final String INDEX_NAMES = "IndexNames";
+    public static final String MAX_PARALLEL_BATCHES = "MaxParallelBatches";
+    public static final String PAGE_PREFETCH_DEPTH = "PagePrefetchDepth";
     public static final String HOST_HEADER = "host";
     public static final String DATE_HEADER = "x-amz-date";
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String PARTITION_HEADER = "x-amz-data-partition";
     public static final String CONSISTENCY_LEVEL_HEADER = "x-amz-consistency-level";
+    public static final String ERROR_TYPE_HEADER = "x-amzn-ErrorType";
+    public static final String LIMIT_EXCEEDED_EXCEPTION = "LimitExceededException";
+    public static final String RETRYABLE_CONFLICT_EXCEPTION = "RetryableConflictException";
+    public static final String INTERNAL_SERVICE_EXCEPTION = "InternalServiceException";
+    public static final String RESOURCE_NOT_FOUND_EXCEPTION = "ResourceNotFoundException";
     public static final String SERIALIZABLE = "SERIALIZABLE";
     public static final String HTTP_POST = "POST";
     public static final String HTTP_PUT = "PUT";
@@ -57,6 +90,7 @@ public class AWSConstants {
     public static final String FACET = "/facet";
     public static final String DETACH_TYPEDLINK = "/typedlink/detach";
     public static final String BATCH_WRITE = "/batchwrite";
+    public static final String BATCH_READ = "/batchread";
     public static final String UPDATE_OBJECT = "/object/update";
     public static final String DELETE_OBJECT = "/object/delete";
     public static final String LIST_OBJECT_CHILDREN = "/object/children";
@@ -64,6 +98,8 @@ public class AWSConstants {
     public static final String GET_TYPED_LINK_FACET = "/typedlink/facet/get";
     public static final String LIST_OUTGOING_TYPEDLINK = "/typedlink/outgoing";
     public static final String LIST_DIRECTORIES = "/directory/list";
+    public static final String CREATE_INDEX = "/index";
+    public static final String LIST_INDEX = "/index/targets";
     public static final String NAME = "Name";
     public static final String CHILDREN = "Children";
     public static final String NEXT_TOKEN = "NextToken";
@@ -87,6 +123,16 @@ public class AWSConstants {
     public static final String DIRECTORY_ARN = "DirectoryArn";
     public static final String SCHEMA_ARN = "SchemaArn";
     public static final String DETACH_TYPED_LINK = "DetachTypedLink";
+    public static final String ATTACH_TYPED_LINK = "AttachTypedLink";
+    public static final String CREATE_OBJECT_OPERATION = "CreateObject";
+    public static final String BATCH_REFERENCE_NAME = "BatchReferenceName";
+    public static final String NEW_USER_REFERENCE_NAME = "user";
+    public static final String NEW_ROLE_REFERENCE_NAME = "role";
+    public static final String DETACH_OBJECT_OPERATION = "DetachObject";
+    public static final String DELETE_OBJECT_OPERATION = "DeleteObject";
+    public static final String DETACHED_OBJECT_REFERENCE_NAME = "detached";
+    public static final String INDEX = "Index";
+    public static final String LINK_NAME_ALREADY_IN_USE_EXCEPTION = "LinkNameAlreadyInUseException";
     public static final String TYPED_LINK_NAME = "TypedLinkName";
     public static final String MAX_RESULTS = "MaxResults";
     public static final String STATE = "state";
@@ -95,6 +141,34 @@ public class AWSConstants {
     public static final String TARGET_REFERENCE = "TargetObjectReference";
     public static final String TYPEDLINK_FACET = "TypedLinkFacet";
     public static final String FILTER_TYPEDLINK = "FilterTypedLink";
+    public static final String FILTER_ATTRIBUTE_RANGES = "FilterAttributeRanges";
+    public static final String RANGE = "Range";
+    public static final String START_MODE = "StartMode";
+    public static final String START_VALUE = "StartValue";
+    public static final String END_MODE = "EndMode";
+    public static final String END_VALUE = "EndValue";
+    public static final String INCLUSIVE = "INCLUSIVE";
+    public static final String EXCLUSIVE = "EXCLUSIVE";
+    public static final String LAST_BEFORE_MISSING_VALUES = "LAST_BEFORE_MISSING_VALUES";
+    public static final String IS_UNIQUE = "IsUnique";
+    public static final String ORDERED_INDEXED_ATTRIBUTE_LIST = "OrderedIndexedAttributeList";
+    public static final String INDEX_REFERENCE = "IndexReference";
+    public static final String INDEX_TARGET_REFERENCE = "TargetReference";
+    public static final String RANGES_ON_INDEXED_VALUES = "RangesOnIndexedValues";
+    public static final String INDEXED_ATTRIBUTE_KEY = "AttributeKey";
+    public static final String INDEX_ATTACHMENTS = "IndexAttachments";
+    public static final String INDEXED_ATTRIBUTES = "IndexedAttributes";
+    public static final String ATTACH_TO_INDEX = "AttachToIndex";
+    public static final String DETACH_FROM_INDEX = "DetachFromIndex";
+    public static final String INDEX_LINK_NAME_PREFIX = "index";
+    public static final String RESPONSES = "Responses";
+    public static final String SUCCESSFUL_RESPONSE = "SuccessfulResponse";
+    public static final String EXCEPTION_RESPONSE = "ExceptionResponse";
+    public static final String MESSAGE = "Message";
+    public static final String GET_OBJECT_ATTRIBUTES = "GetObjectAttributes";
+    public static final String LIST_OBJECT_ATTRIBUTES_OPERATION = "ListObjectAttributes";
+    public static final String ATTRIBUTE_NAMES = "AttributeNames";
+    public static final String SCHEMA_FACET_SINGLE = "SchemaFacet";
     public static final String NODE = "NODE";
     public static final String OBJECT_TYPE = "ObjectType";
     public static final String LINK_NAME = "LinkName";
@@ -124,7 +198,7 @@ public class AWSConstants {
     public static final String SELECTOR = "Selector";
     public static final String FACET_FILTER = "FacetFilter";
     public static final String REFERENCE = "ObjectReference";
-    public static final String HEX_ARRAY_STRING = "0123456789ABCDEF";
+    public static final String HEX_ARRAY_STRING = "0123456789abcdef";
     public static final String HMAC_ALGORITHM = "AWS4-HMAC-SHA256";
     public static final String AWS4_REQUEST = "aws4_request";
     public static final String AWS4 = "AWS4";
@@ -133,9 +207,78 @@ public class AWSConstants {
     public static final String SHA_ALGORITHM = "SHA-256";
     public static final String DATE_TIME_FORMAT = "yyyyMMdd'T'HHmmss'Z'";
     public static final String DATE_FORMAT = "yyyyMMdd";
+    public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 50;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 50;
+    public static final int DEFAULT_IDLE_CONNECTION_TIMEOUT = 60000;
+    public static final long IDLE_CONNECTION_EVICTOR_INTERVAL = 5000;
+    public static final int BYTE_BUFFER_POOL_SIZE = 64;
+    public static final int INITIAL_BUFFER_SIZE = 4096;
+    public static final int MAX_POOLED_BUFFER_SIZE = 65536;
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final int DEFAULT_RETRY_BASE_DELAY = 100;
+    public static final int DEFAULT_RETRY_MAX_DELAY = 5000;
+    public static final double MIN_REQUEST_RATE = 1.0;
+    public static final double REQUEST_RATE_DECREASE_FACTOR = 0.7;
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 50;
+    public static final int INTERACTIVE_REQUEST_QUEUE_SIZE = 1000;
+    public static final int DEFAULT_REQUEST_QUEUE_SIZE = 500;
+    public static final int BULK_REQUEST_QUEUE_SIZE = 100;
+    public static final int DEFAULT_CONNECT_TIMEOUT = 5000;
+    public static final int DEFAULT_SOCKET_TIMEOUT = 10000;
+    public static final int DEFAULT_REQUEST_TIMEOUT = 30000;
+    public static final int DEFAULT_HEDGE_PERCENTILE = 95;
+    public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    public static final int DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION = 30000;
+    public static final int LATENCY_SAMPLE_SIZE = 128;
+    public static final int MIN_LATENCY_SAMPLES = 32;
+    public static final int LATENCY_PERCENTILE_REFRESH_INTERVAL = 16;
+    public static final long MIN_HEDGE_DELAY = 10;
+    public static final int DEFAULT_EXISTENCE_CACHE_SIZE = 10000;
+    public static final int DEFAULT_EXISTENCE_CACHE_TIMEOUT = 30000;
+    // Size of the attribute cache in kilobytes.
+    public static final int DEFAULT_ATTRIBUTE_CACHE_SIZE = 10240;
+    public static final int DEFAULT_ATTRIBUTE_CACHE_TIMEOUT = 30000;
+    public static final int ATTRIBUTE_CACHE_ENTRY_OVERHEAD = 128;
+    public static final int ATTRIBUTE_OVERHEAD = 96;
+    public static final int DEFAULT_MEMBERSHIP_CACHE_SIZE = 10000;
+    public static final int DEFAULT_MEMBERSHIP_CACHE_TIMEOUT = 30000;
+    public static final int DEFAULT_UNKNOWN_USER_CACHE_SIZE = 10000;
+    public static final int DEFAULT_UNKNOWN_USER_CACHE_TIMEOUT = 5000;
+    public static final int DEFAULT_KNOWN_USER_FILTER_SIZE = 0;
+    public static final int DEFAULT_KNOWN_USER_FILTER_REFRESH_INTERVAL = 300000;
+    public static final double KNOWN_USER_FILTER_FALSE_POSITIVE_PROBABILITY = 0.01;
+    // Maximum number of operations Cloud Directory accepts in a batch write.
+    public static final int MAX_BATCH_WRITE_OPERATIONS = 20;
+    // Maximum number of operations Cloud Directory accepts in a batch read.
+    public static final int MAX_BATCH_READ_OPERATIONS = 20;
+    public static final int DEFAULT_MAX_PARALLEL_BATCHES = 4;
+    public static final int DEFAULT_PAGE_PREFETCH_DEPTH = 1;
+    public static final int COMPILED_FILTER_CACHE_SIZE = 128;
+    // Names of the statistics of this user store.
+    public static final String HIT_COUNT = "HitCount";
+    public static final String MISS_COUNT = "MissCount";
+    public static final String EVICTION_COUNT = "EvictionCount";
+    public static final String WEIGHT = "Weight";
+    public static final String QUEUE_DEPTH = "QueueDepth";
+    public static final String AVERAGE_WAIT_TIME = "AverageWaitTime";
+    public static final String MAX_WAIT_TIME = "MaxWaitTime";
+    public static final String REJECTED_COUNT = "RejectedCount";
+    public static final String CIRCUIT_STATE = "CircuitState";
+    public static final String CIRCUIT_OPEN_COUNT = "CircuitOpenCount";
+    public static final String TIMED_OUT_REQUEST_COUNT = "TimedOutRequestCount";
+    public static final String HEDGED_REQUEST_COUNT = "HedgedRequestCount";
+    public static final String HEDGE_WIN_COUNT = "HedgeWinCount";
+    public static final String COALESCED_REQUEST_COUNT = "CoalescedRequestCount";
     public static final String ERROR_WHILE_PARSING_RESPONSE = "Error while parsing response json";
     public static final String ERROR_WHILE_CHARACTOR_ENCODING = "Character encoding is not supported";
     public static final String ERROR_WHILE_READING_RESPONSE = "Error while reading response body";
+    public static final String ERROR_WHILE_WAITING_FOR_RESPONSE = "Interrupted while waiting for the response";
+    public static final String ERROR_REQUEST_QUEUE_FULL = "Too many pending Cloud Directory requests. Request " +
+            "queue of %s priority is full.";
+    public static final String ERROR_REQUEST_TIMED_OUT = "Request to %s did not complete within %s ms.";
+    public static final String ERROR_CIRCUIT_OPEN = "Requests to %s are failing fast, since Cloud Directory is " +
+            "degraded.";
     public static final String ERROR_WHILE_DETACH_TYPED_LINK = "Could not detach typed link from object. Link: ";
     public static final String ERROR_WHILE_GETTING_CLAIM_ATTRIBUTE = "Error occurred while getting claim attribute" +
             " for user: ";
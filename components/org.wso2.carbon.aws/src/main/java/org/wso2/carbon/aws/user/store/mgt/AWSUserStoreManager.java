@@ -25,7 +25,18 @@ import org.apache.commons.logging.LogFactory;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.wso2.carbon.CarbonConstants;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSBatchWriteException;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSBloomFilter;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSCircuitBreaker;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSEndpoint;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSHttpClientProvider;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSLocalCache;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSPageIterator;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSPaginatedResult;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSRequestScheduler;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSResponseDecoders;
 import org.wso2.carbon.aws.user.store.mgt.util.AWSRestApiActions;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSWildcardFilter;
 import org.wso2.carbon.user.api.Properties;
 import org.wso2.carbon.user.api.Property;
 import org.wso2.carbon.user.api.RealmConfiguration;
@@ -42,16 +53,22 @@ import org.wso2.carbon.user.core.tenant.Tenant;
 import org.wso2.carbon.user.core.util.DatabaseUtil;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
 
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.StringTokenizer;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.sql.DataSource;
 
 public class AWSUserStoreManager extends AbstractUserStoreManager {
@@ -60,6 +77,36 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     // Unique name to identify the user store.
     private String domain;
     private AWSRestApiActions awsActions;
+    // Whether the user and role objects exist, against their paths.
+    private AWSLocalCache<String, Boolean> existenceCache;
+    // Attributes of the user and role objects, against their facet and path.
+    private AWSLocalCache<String, Map<String, String>> attributeCache;
+    // Unfiltered role names of the users, against the user names.
+    private AWSLocalCache<String, List<String>> membershipCache;
+    // User names which recently failed to authenticate since the user does not exist.
+    private AWSLocalCache<String, Boolean> unknownUserCache;
+    // Compiled filters of the recent listings, against the filters.
+    private final AWSLocalCache<String, AWSWildcardFilter> filterCache = new AWSLocalCache<>(
+            AWSConstants.COMPILED_FILTER_CACHE_SIZE, Long.MAX_VALUE);
+    // Bloom filter of the existing user names, once loaded. Null if disabled or not loaded yet.
+    private volatile AWSBloomFilter knownUsers;
+    // Time the loading of the bloom filter started, in nanoseconds.
+    private volatile long knownUsersLoadTime;
+    // Bloom filter being loaded in the background. Null if none.
+    private final AtomicReference<AWSBloomFilter> loadingKnownUsers = new AtomicReference<>();
+    private int knownUserFilterSize;
+    // Age in nanoseconds after which the bloom filter is loaded again. Zero if never.
+    private long knownUserFilterRefreshInterval;
+    // Paths of the indexes over the searchable attributes of the users, against the attribute names.
+    private Map<String, String> userIndexes = new LinkedHashMap<>();
+    // Path of the index over the role names. Null if the names are not indexed.
+    private String roleNameIndexPath;
+    // Whether the listing filters match whole names, which is the case once the names are indexed.
+    private boolean anchoredFilters;
+    // Maximum number of batch writes of a single operation sent in parallel.
+    private int maxParallelBatches;
+    // Number of pages of a listing requested ahead of the page being processed.
+    private int pagePrefetchDepth;
     // This is a path to identify the Users object in the tree structure.
     private String pathToUsers;
     // This is a path to identify the Roles object in the tree structure.
@@ -93,7 +140,27 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
 
         this.realmConfig = realmConfig;
         this.tenantId = tenantId;
-        awsActions = new AWSRestApiActions(realmConfig);
+        awsActions = new AWSRestApiActions(realmConfig, tenantId);
+        existenceCache = new AWSLocalCache<>(AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.EXISTENCE_CACHE_SIZE, AWSConstants.DEFAULT_EXISTENCE_CACHE_SIZE),
+                AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.EXISTENCE_CACHE_TIMEOUT,
+                        AWSConstants.DEFAULT_EXISTENCE_CACHE_TIMEOUT));
+        attributeCache = new AWSLocalCache<>(AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.ATTRIBUTE_CACHE_SIZE, AWSConstants.DEFAULT_ATTRIBUTE_CACHE_SIZE) * 1024L,
+                AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.ATTRIBUTE_CACHE_TIMEOUT,
+                        AWSConstants.DEFAULT_ATTRIBUTE_CACHE_TIMEOUT), AWSUserStoreManager::getAttributesWeight);
+        membershipCache = new AWSLocalCache<>(AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.MEMBERSHIP_CACHE_SIZE, AWSConstants.DEFAULT_MEMBERSHIP_CACHE_SIZE),
+                AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.MEMBERSHIP_CACHE_TIMEOUT,
+                        AWSConstants.DEFAULT_MEMBERSHIP_CACHE_TIMEOUT));
+        maxParallelBatches = Math.max(1, AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.MAX_PARALLEL_BATCHES, AWSConstants.DEFAULT_MAX_PARALLEL_BATCHES));
+        pagePrefetchDepth = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.PAGE_PREFETCH_DEPTH,
+                AWSConstants.DEFAULT_PAGE_PREFETCH_DEPTH);
+        unknownUserCache = new AWSLocalCache<>(AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.UNKNOWN_USER_CACHE_SIZE, AWSConstants.DEFAULT_UNKNOWN_USER_CACHE_SIZE),
+                AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.UNKNOWN_USER_CACHE_TIMEOUT,
+                        AWSConstants.DEFAULT_UNKNOWN_USER_CACHE_TIMEOUT));
         // Set groups read/write configuration
         if (realmConfig.getUserStoreProperty(UserCoreConstants.RealmConfig.READ_GROUPS_ENABLED) != null) {
             readGroupsEnabled = Boolean.parseBoolean(realmConfig
@@ -113,6 +180,126 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         initUserRolesCache();
 
         setUpAWSDirectory();
+
+        knownUserFilterSize = AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.KNOWN_USER_FILTER_SIZE, AWSConstants.DEFAULT_KNOWN_USER_FILTER_SIZE);
+        knownUserFilterRefreshInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(0,
+                AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.KNOWN_USER_FILTER_REFRESH_INTERVAL,
+                        AWSConstants.DEFAULT_KNOWN_USER_FILTER_REFRESH_INTERVAL)));
+        if (knownUserFilterSize > 0) {
+            reloadKnownUsers();
+        }
+    }
+
+    /**
+     * Load a new bloom filter of known users in the background, unless one is being loaded already. The current
+     * filter is replaced once all the user names are loaded.
+     */
+    private void reloadKnownUsers() {
+
+        if (loadingKnownUsers.get() != null) {
+            return;
+        }
+        AWSBloomFilter filter = new AWSBloomFilter(knownUserFilterSize,
+                AWSConstants.KNOWN_USER_FILTER_FALSE_POSITIVE_PROBABILITY);
+        if (loadingKnownUsers.compareAndSet(null, filter)) {
+            loadKnownUsers(filter, System.nanoTime(), null);
+        }
+    }
+
+    /**
+     * Put the user names of the directory into a bloom filter of known users, one page at a time in the
+     * background. The filter is consulted only once all the pages are loaded.
+     *
+     * @param filter        Bloom filter being loaded.
+     * @param loadStartTime Time the loading started, in nanoseconds.
+     * @param nextToken     The pagination token.
+     */
+    private void loadKnownUsers(AWSBloomFilter filter, long loadStartTime, String nextToken) {
+
+        CompletableFuture<AWSResponseDecoders.ObjectChildren> page;
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
+        try {
+            page = awsActions.listObjectChildNamesAsync(nextToken, pathToUsers);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+        page.whenComplete((children, error) -> {
+            if (error != null) {
+                log.error("Error occurred while loading the user names into the filter of known users. The filter " +
+                        "is loaded again on a later authentication.", error);
+                loadingKnownUsers.compareAndSet(filter, null);
+                return;
+            }
+            for (String userName : children.getNames()) {
+                filter.put(userName);
+            }
+            if (children.getNextToken() != null) {
+                loadKnownUsers(filter, loadStartTime, children.getNextToken());
+            } else {
+                knownUsersLoadTime = loadStartTime;
+                knownUsers = filter;
+                loadingKnownUsers.compareAndSet(filter, null);
+                if (log.isDebugEnabled()) {
+                    log.debug("Loaded the user names into the filter of known users.");
+                }
+            }
+        });
+    }
+
+    /**
+     * Check whether a user is known not to exist, without calling Cloud Directory. A user missing from the bloom
+     * filter of known users is rejected. Users added through this node are put into the filter, while the users
+     * added through another node are seen once the filter is loaded again. The filter is loaded again once it is
+     * older than the refresh interval, and is not trusted once it is older than twice the interval, hence a user
+     * added through another node is rejected for at most that long. Only the short lived cache of unknown users is
+     * trusted besides, rather than the missing objects of the existence cache, which could be older.
+     *
+     * @param userName User name.
+     * @return True if the user definitely does not exist.
+     */
+    private boolean isUnknownUser(String userName) {
+
+        if (userName.contains("/") || unknownUserCache.get(userName) != null) {
+            return true;
+        }
+        if (knownUserFilterSize <= 0) {
+            return false;
+        }
+        AWSBloomFilter filter = knownUsers;
+        if (filter == null) {
+            // The first load failed, or is not over yet.
+            reloadKnownUsers();
+            return false;
+        }
+        if (knownUserFilterRefreshInterval > 0) {
+            long age = System.nanoTime() - knownUsersLoadTime;
+            if (age >= knownUserFilterRefreshInterval) {
+                reloadKnownUsers();
+            }
+            if (age >= 2 * knownUserFilterRefreshInterval) {
+                return false;
+            }
+        }
+        return !filter.mightContain(userName);
+    }
+
+    /**
+     * Put a user name into the bloom filters of known users, both the current one and the one being loaded.
+     *
+     * @param userName User name.
+     */
+    private void putKnownUser(String userName) {
+
+        AWSBloomFilter filter = knownUsers;
+        if (filter != null) {
+            filter.put(userName);
+        }
+        filter = loadingKnownUsers.get();
+        if (filter != null) {
+            filter.put(userName);
+        }
     }
 
     public AWSUserStoreManager(RealmConfiguration realmConfig, Map<String, Object> properties,
@@ -211,12 +398,6 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
                     "with following format: %s", realmConfig.getUserStoreProperty(
                     UserCoreConstants.RealmConfig.PROPERTY_JAVA_REG_EX)));
         }
-        boolean isExisting = doCheckExistingUser(userName);
-        if (isExisting) {
-            throw new UserStoreException(String.format("User name : %s exists in the system. Please pick another " +
-                    "user name", userName));
-        }
-
         Map<String, String> attributes = new HashMap<>();
         byte[] passwordToStore = UserCoreUtil.getPasswordToStore(credential, passwordHashMethod, false);
 
@@ -230,10 +411,81 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             Map<String, String> claimList = getClaimAttributes(userName, claims);
             attributes.putAll(claimList);
         }
-        awsActions.createObject(userName, facetNameOfUser, pathToUsers, attributes);
-        if (hasRoles) {
-            // Add roles to user.
-            addRolesToUser(userName, roleList);
+        // The user is created, attached to the indexes and assigned to the roles in a single batch write, which
+        // refers to the new user by its batch reference name.
+        String selector = pathToUsers + "/" + userName;
+        String reference = "#" + AWSConstants.NEW_USER_REFERENCE_NAME;
+        JSONArray operations = new JSONArray();
+        operations.add(awsActions.buildCreateObjectOperation(userName, facetNameOfUser, pathToUsers, attributes,
+                AWSConstants.NEW_USER_REFERENCE_NAME));
+        operations.addAll(getIndexOperations(AWSConstants.ATTACH_TO_INDEX, reference, attributes));
+        // Role assignments which do not fit into the batch.
+        List<Map.Entry<String, String>> remainingUserRolePairs = new ArrayList<>();
+        List<String> remainingRoles = new ArrayList<>();
+        List<String> updatedRoles = new ArrayList<>();
+        if (hasRoles && AWSConstants.LINK.equals(membershipType)) {
+            for (String role : roleList) {
+                Map.Entry<String, String> userRolePair = new AbstractMap.SimpleImmutableEntry<>(userName, role);
+                if (operations.size() < AWSConstants.MAX_BATCH_WRITE_OPERATIONS) {
+                    operations.add(awsActions.buildAttachTypedLinkOperation(reference, pathToRoles + "/" + role,
+                            typedLinkFacetName, getTypedLinkAttributes(userRolePair)));
+                } else {
+                    remainingUserRolePairs.add(userRolePair);
+                }
+            }
+        } else if (hasRoles && AWSConstants.ATTRIBUTE.equals(membershipType)) {
+            Map<String, AWSResponseDecoders.ObjectAttributes> roles = getAttributesOfChildren(facetNameOfRole,
+                    pathToRoles, Arrays.asList(roleList), memberOfAttribute);
+            for (Map.Entry<String, AWSResponseDecoders.ObjectAttributes> role : roles.entrySet()) {
+                if (!role.getValue().isSuccessful()) {
+                    throw new UserStoreException(String.format("Error while reading the role: %s. %s: %s",
+                            role.getKey(), role.getValue().getErrorType(), role.getValue().getErrorMessage()));
+                }
+                if (operations.size() >= AWSConstants.MAX_BATCH_WRITE_OPERATIONS) {
+                    remainingRoles.add(role.getKey());
+                    continue;
+                }
+                String existingUsers = role.getValue().getAttributes().get(memberOfAttribute);
+                Map<String, String> map = new HashMap<>();
+                map.put(memberOfAttribute, StringUtils.isNotEmpty(existingUsers) ? userName + "," + existingUsers :
+                        userName);
+                HashMap<String, Object> operation = new HashMap<>();
+                operation.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES, awsActions.buildPayloadToUpdateObjectAttributes(
+                        AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, pathToRoles + "/" + role.getKey(), map));
+                operations.add(operation);
+                updatedRoles.add(role.getKey());
+            }
+        }
+        // Put before the user is created, hence the user is never rejected as unknown once it exists.
+        putKnownUser(userName);
+        JSONObject payload = new JSONObject();
+        payload.put(AWSConstants.OPERATION, operations);
+        try {
+            awsActions.batchWrite(payload.toJSONString());
+        } catch (AWSBatchWriteException e) {
+            // The user exists if the link name of the new user is already in use.
+            if (e.getIndex() == 0 && AWSConstants.LINK_NAME_ALREADY_IN_USE_EXCEPTION.equals(e.getType())) {
+                existenceCache.put(selector, true);
+                throw new UserStoreException(String.format("User name : %s exists in the system. Please pick " +
+                        "another user name", userName), e);
+            }
+            throw e;
+        } finally {
+            for (String role : updatedRoles) {
+                invalidateObjectAttributes(facetNameOfRole, pathToRoles + "/" + role);
+            }
+            invalidateMembership(userName);
+        }
+        existenceCache.put(selector, true);
+        unknownUserCache.remove(userName);
+        // Put again, as a filter which started loading meanwhile might have missed the user.
+        putKnownUser(userName);
+        invalidateObjectAttributes(facetNameOfUser, selector);
+        if (!remainingUserRolePairs.isEmpty()) {
+            attachTypedLinks(remainingUserRolePairs);
+        }
+        for (String role : remainingRoles) {
+            updateRoleWithUsers(new String[]{userName}, role);
         }
     }
 
@@ -247,89 +499,227 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     public void doDeleteUser(String userName) throws UserStoreException {
 
         String selector = pathToUsers + "/" + userName;
-        if (AWSConstants.LINK.equals(membershipType)) {
-            // List and detach all outgoing typed links from a user object.
-            JSONObject outgoingTypedLinks = awsActions.listOutgoingTypedLinks(null, selector);
-            detachOutgoingTypedLinks(outgoingTypedLinks);
-        } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
-            // Remove the user from all role objects.
-            removeUserFromRoles(userName);
+        List<JSONObject> operations = new ArrayList<>();
+        List<String> updatedRoles = new ArrayList<>();
+        if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+            // The user is removed from its roles in the same batch writes which delete the user. The roles are read
+            // from the directory rather than through the caches, which would miss a role assigned through another
+            // node a moment ago and leave the deleted user in its member list.
+            String existingRoles = awsActions.listObjectAttributeValues(facetNameOfUser, selector,
+                    membershipAttribute).get(membershipAttribute);
+            List<String> roleNames = StringUtils.isEmpty(existingRoles) ? Collections.emptyList() :
+                    Arrays.asList(existingRoles.split(","));
+            operations.addAll(getRemoveMemberOperations(userName, roleNames, updatedRoles));
+        }
+        if (!userIndexes.isEmpty()) {
+            // An object can not be deleted while it is attached to an index.
+            Map<String, String> indexedAttributes = awsActions.listObjectAttributeValues(facetNameOfUser, selector,
+                    userIndexes.keySet().toArray(new String[0]));
+            operations.addAll(getIndexOperations(AWSConstants.DETACH_FROM_INDEX, selector, indexedAttributes));
         }
-        // Detach object from parent object.
-        JSONObject detachObject = awsActions.detachObject(userName, pathToUsers);
-        if (detachObject.get(AWSConstants.DETACHED_OBJECT_IDENTIFIER) != null) {
-            String identifier = "$" + detachObject.get(AWSConstants.DETACHED_OBJECT_IDENTIFIER).toString();
-            // Delete object from directory.
-            awsActions.deleteObject(identifier);
+        try {
+            if (AWSConstants.LINK.equals(membershipType)) {
+                // Detach all outgoing typed links from a user object, along with the user object.
+                deleteObjectWithTypedLinks(userName, pathToUsers, false, operations);
+            } else {
+                detachAndDeleteObject(userName, pathToUsers, operations);
+            }
+        } finally {
+            for (String role : updatedRoles) {
+                invalidateObjectAttributes(facetNameOfRole, role);
+            }
+            invalidateObjectAttributes(facetNameOfUser, selector);
+            invalidateMembership(userName);
         }
+        existenceCache.put(selector, false);
+        // The bloom filter can not forget the user, hence the user is remembered as unknown for a while instead.
+        unknownUserCache.put(userName, true);
     }
 
     /**
-     * Remove a particular user from all role objects.
+     * Get the batch write operations to remove a user from the member lists of the given roles. The member lists
+     * are read with as few batch reads as possible, and the roles which do not list the user are skipped.
      *
-     * @param userName User name.
-     * @throws UserStoreException If any error occur.
+     * @param userName     User name.
+     * @param roleNames    Names of the roles of the user.
+     * @param updatedRoles Collects the paths of the roles to be updated.
+     * @return Batch write operations.
+     * @throws UserStoreException If a role could not be read.
      */
-    protected void removeUserFromRoles(String userName) throws UserStoreException {
+    private List<JSONObject> getRemoveMemberOperations(String userName, List<String> roleNames,
+                                                       List<String> updatedRoles) throws UserStoreException {
 
-        Map<String, String> attributeMap = new HashMap<>();
-        JSONObject response = new JSONObject();
-        JSONArray operations = new JSONArray();
-        String nextToken = null;
-        do {
-            JSONObject listChildren = awsActions.listObjectChildren(nextToken, pathToRoles);
-            Object token = listChildren.get(AWSConstants.NEXT_TOKEN);
-            if (token != null) {
-                nextToken = token.toString();
-            } else {
-                nextToken = null;
-            }
-            Object childrensObj = listChildren.get(AWSConstants.CHILDREN);
-            JSONObject childrens = (childrensObj != null) ? (JSONObject) childrensObj : null;
-            if (childrens != null) {
-                for (Object key : childrens.keySet()) {
-                    HashMap<String, Object> operation = new HashMap<>();
-                    String keyValue = pathToRoles + "/" + key.toString();
-                    String existingUsers = getAttributeValue(facetNameOfRole, keyValue, memberOfAttribute);
-                    if (StringUtils.isNotEmpty(existingUsers) && existingUsers.contains(userName)) {
-                        List<String> updatedUserList = new LinkedList<>(Arrays.asList(existingUsers.split(",")));
-                        updatedUserList.remove(userName);
-
-                        attributeMap.put(memberOfAttribute, String.join(",", updatedUserList));
-                        operation.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES,
-                                awsActions.buildPayloadToUpdateObjectAttributes(AWSConstants.CREATE_OR_UPDATE,
-                                        facetNameOfRole, keyValue, attributeMap));
-                        operations.add(operation);
-                    }
-                }
-                response.put(AWSConstants.OPERATION, operations);
-                awsActions.batchWrite(response.toJSONString());
+        List<JSONObject> operations = new ArrayList<>();
+        if (roleNames.isEmpty()) {
+            return operations;
+        }
+        List<String> failedRoles = new ArrayList<>();
+        Map<String, AWSResponseDecoders.ObjectAttributes> roles = getAttributesOfChildren(facetNameOfRole,
+                pathToRoles, roleNames, memberOfAttribute);
+        for (Map.Entry<String, AWSResponseDecoders.ObjectAttributes> role : roles.entrySet()) {
+            String keyValue = pathToRoles + "/" + role.getKey();
+            if (!isReadSuccessful(keyValue, role.getValue(), failedRoles)) {
+                continue;
             }
-        } while (StringUtils.isNotEmpty(nextToken));
+            String existingUsers = role.getValue().getAttributes().get(memberOfAttribute);
+            if (StringUtils.isEmpty(existingUsers)) {
+                continue;
+            }
+            List<String> updatedUserList = new LinkedList<>(Arrays.asList(existingUsers.split(",")));
+            if (!updatedUserList.removeAll(Collections.singleton(userName))) {
+                continue;
+            }
+            Map<String, String> attributeMap = new HashMap<>();
+            attributeMap.put(memberOfAttribute, String.join(",", updatedUserList));
+            JSONObject operation = new JSONObject();
+            operation.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES, awsActions.buildPayloadToUpdateObjectAttributes(
+                    AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, keyValue, attributeMap));
+            operations.add(operation);
+            updatedRoles.add(keyValue);
+        }
+        if (!failedRoles.isEmpty()) {
+            throw new UserStoreException(String.format("Error while removing the user: %s from the roles: %s",
+                    userName, failedRoles));
+        }
+        return operations;
     }
 
     /**
-     * Detach outgoing typed links.
+     * Read an attribute of the given children of an object, with as few batch reads as possible.
      *
-     * @param outgoingTypedLinks Outgoing links.
-     * @throws UserStoreException If any error occur.
+     * @param facetName     Name of the facet.
+     * @param parentPath    Path of the parent object.
+     * @param childNames    Names of the children.
+     * @param attributeName Name of the attribute.
+     * @return Attributes of the children, against the child names.
+     * @throws UserStoreException If a batch read failed as a whole.
      */
-    protected void detachOutgoingTypedLinks(JSONObject outgoingTypedLinks) throws UserStoreException {
+    private Map<String, AWSResponseDecoders.ObjectAttributes> getAttributesOfChildren(String facetName,
+                                                                                     String parentPath,
+                                                                                     List<String> childNames,
+                                                                                     String attributeName)
+            throws UserStoreException {
 
-        JSONArray operations = new JSONArray();
-        Object specifiers = outgoingTypedLinks.get(AWSConstants.TYPEDLINK_SPECIFIERS);
-        JSONArray typedLinkSpecifiers = (specifiers != null) ? (JSONArray) specifiers : null;
-        JSONObject response = new JSONObject();
+        List<String> selectors = new ArrayList<>(childNames.size());
+        for (String childName : childNames) {
+            selectors.add(parentPath + "/" + childName);
+        }
+        List<AWSResponseDecoders.ObjectAttributes> results = awsActions.batchGetObjectAttributes(facetName,
+                selectors, attributeName);
+        Map<String, AWSResponseDecoders.ObjectAttributes> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < childNames.size(); i++) {
+            attributes.put(childNames.get(i), results.get(i));
+        }
+        return attributes;
+    }
+
+    /**
+     * Check whether the attributes of an object were read in a batch. An object which no longer exists is skipped
+     * silently, while the other failures are collected.
+     *
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributes      Attributes read in a batch.
+     * @param failedObjects   Objects which could not be read.
+     * @return Whether the attributes were read.
+     */
+    private boolean isReadSuccessful(String objectReference, AWSResponseDecoders.ObjectAttributes attributes,
+                                     List<String> failedObjects) {
+
+        if (attributes.isSuccessful()) {
+            return true;
+        }
+        if (attributes.getErrorType().startsWith(AWSConstants.RESOURCE_NOT_FOUND_EXCEPTION)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Object: %s no longer exists.", objectReference));
+            }
+        } else {
+            log.warn(String.format("Error while reading the attributes of the object: %s. %s: %s", objectReference,
+                    attributes.getErrorType(), attributes.getErrorMessage()));
+            failedObjects.add(objectReference);
+        }
+        return false;
+    }
+
+    /**
+     * Get the batch write operations to detach typed links.
+     *
+     * @param typedLinkSpecifiers Specifiers of the typed links, or null if there are none.
+     * @return Batch write operations.
+     */
+    private List<JSONObject> getDetachTypedLinkOperations(JSONArray typedLinkSpecifiers) {
+
+        List<JSONObject> operations = new ArrayList<>();
         if (typedLinkSpecifiers != null) {
             for (Object typedLinkSpecifier : typedLinkSpecifiers) {
-                HashMap<String, Object> linkSpecifier = new HashMap<>();
-                HashMap<String, Object> typedLink = new HashMap<>();
-                linkSpecifier.put(AWSConstants.TYPED_LINK_SPECIFIER, typedLinkSpecifier);
-                typedLink.put(AWSConstants.DETACH_TYPED_LINK, linkSpecifier);
-                operations.add(typedLink);
+                operations.add(awsActions.buildDetachTypedLinkOperation(typedLinkSpecifier));
             }
-            response.put(AWSConstants.OPERATION, operations);
-            awsActions.batchWrite(response.toJSONString());
+        }
+        return operations;
+    }
+
+    /**
+     * Detach an object from its parent and delete it, after the given operations which have to precede the
+     * deletion, such as detaching the typed links of the object. The operations are sent in as few batch writes as
+     * Cloud Directory accepts, and the last batch write detaches and deletes the object. Hence the object is only
+     * deleted once all the preceding operations have succeeded, and is never left detached but not deleted.
+     *
+     * @param linkName            Name of the link of the object.
+     * @param parentReference     Path of the parent of the object.
+     * @param precedingOperations Batch write operations to execute before the object is deleted.
+     * @throws UserStoreException If error occurred.
+     */
+    private void detachAndDeleteObject(String linkName, String parentReference,
+                                       List<JSONObject> precedingOperations) throws UserStoreException {
+
+        List<JSONObject> operations = new ArrayList<>(precedingOperations);
+        operations.add(awsActions.buildDetachObjectOperation(linkName, parentReference,
+                AWSConstants.DETACHED_OBJECT_REFERENCE_NAME));
+        operations.add(awsActions.buildDeleteObjectOperation("#" + AWSConstants.DETACHED_OBJECT_REFERENCE_NAME));
+        // The last batch is filled up from the end, hence the detach and delete operations are never split apart.
+        int last = Math.max(operations.size() - AWSConstants.MAX_BATCH_WRITE_OPERATIONS, 0);
+        executeBatchOperations(operations.subList(0, last));
+        executeBatchOperations(operations.subList(last, operations.size()));
+    }
+
+    /**
+     * Detach the typed links of an object a page at a time, then detach and delete the object along with the last
+     * page of typed links. Each page is detached before the typed links are listed again from the start. Hence a
+     * single page of typed links is held at a time however many the object has, and the listing does not rely on
+     * a pagination token staying valid while the typed links it points past are detached.
+     *
+     * @param linkName            Name of the link of the object.
+     * @param parentReference     Path of the parent of the object.
+     * @param incoming            Whether to detach the incoming typed links rather than the outgoing ones.
+     * @param precedingOperations Batch write operations to execute before the object is deleted.
+     * @throws UserStoreException If error occurred.
+     */
+    private void deleteObjectWithTypedLinks(String linkName, String parentReference, boolean incoming,
+                                            List<JSONObject> precedingOperations) throws UserStoreException {
+
+        String selector = parentReference + "/" + linkName;
+        String nextToken = null;
+        while (true) {
+            JSONObject page = awsActions.getResult(incoming ?
+                    awsActions.listIncomingTypedLinksAsync(nextToken, null, selector) :
+                    awsActions.listOutgoingTypedLinksAsync(nextToken, null, selector));
+            JSONArray typedLinkSpecifiers = (JSONArray) page.get(incoming ? AWSConstants.LINK_SPECIFIERS :
+                    AWSConstants.TYPEDLINK_SPECIFIERS);
+            List<JSONObject> operations = getDetachTypedLinkOperations(typedLinkSpecifiers);
+            String pageToken = AWSRestApiActions.getNextToken(page);
+            try {
+                if (pageToken == null) {
+                    operations.addAll(precedingOperations);
+                    detachAndDeleteObject(linkName, parentReference, operations);
+                    return;
+                }
+                executeBatchOperations(operations);
+            } finally {
+                if (typedLinkSpecifiers != null) {
+                    invalidateMembershipOfLinks(typedLinkSpecifiers);
+                }
+            }
+            // Only an empty page is paged past, as nothing was detached from it.
+            nextToken = operations.isEmpty() ? pageToken : null;
         }
     }
 
@@ -371,7 +761,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         Map<String, String> attributes = new HashMap<>();
         byte[] passwordToStore = UserCoreUtil.getPasswordToStore(newCredential, passwordHashMethod, false);
         attributes.put(passwordAttribute, new String(passwordToStore));
-        awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/"
+        updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/"
                 + userName, attributes);
     }
 
@@ -396,7 +786,8 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     }
 
     /**
-     * Check whether the user/role object exist in user store or not.
+     * Check whether the user/role object exist in user store or not, with a single lookup of the object by its path.
+     * Both the existing and the missing objects are cached for a short while.
      *
      * @param selector Path of object in tree structure.
      * @param name     Name of the object.
@@ -405,26 +796,17 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
      */
     private boolean checkExistenceOfUserOrRole(String selector, String name) throws UserStoreException {
 
-        String nextToken = null;
-        do {
-            JSONObject objectChildrens = awsActions.listObjectChildren(nextToken, selector);
-            Object token = objectChildrens.get(AWSConstants.NEXT_TOKEN);
-            if (token != null) {
-                nextToken = token.toString();
-            } else {
-                nextToken = null;
-            }
-            if (objectChildrens.get(AWSConstants.CHILDREN) != null) {
-                JSONObject childrens = (JSONObject) objectChildrens.get(AWSConstants.CHILDREN);
-                for (Object key : childrens.keySet()) {
-                    if (key.equals(name)) {
-                        return true;
-                    }
-                }
-            }
-        } while (StringUtils.isNotEmpty(nextToken));
-
-        return false;
+        // Link names can not contain a path separator, hence such a name would select some other object.
+        if (StringUtils.isEmpty(name) || name.contains("/")) {
+            return false;
+        }
+        String objectPath = selector + "/" + name;
+        Boolean isExisting = existenceCache.get(objectPath);
+        if (isExisting == null) {
+            isExisting = awsActions.objectExists(objectPath);
+            existenceCache.put(objectPath, isExisting);
+        }
+        return isExisting;
     }
 
     /**
@@ -449,7 +831,21 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (AWSConstants.ATTRIBUTE.equals(membershipType) && hasUsers) {
             attributes.put(memberOfAttribute, String.join(",", userList));
         }
-        awsActions.createObject(roleName, facetNameOfRole, pathToRoles, attributes);
+        if (roleNameIndexPath != null) {
+            // The role is created and attached to the index over the role names in a single batch write.
+            JSONArray operations = new JSONArray();
+            operations.add(awsActions.buildCreateObjectOperation(roleName, facetNameOfRole, pathToRoles, attributes,
+                    AWSConstants.NEW_ROLE_REFERENCE_NAME));
+            operations.add(awsActions.buildIndexOperation(AWSConstants.ATTACH_TO_INDEX, roleNameIndexPath,
+                    "#" + AWSConstants.NEW_ROLE_REFERENCE_NAME));
+            JSONObject payload = new JSONObject();
+            payload.put(AWSConstants.OPERATION, operations);
+            awsActions.batchWrite(payload.toJSONString());
+        } else {
+            awsActions.createObject(roleName, facetNameOfRole, pathToRoles, attributes);
+        }
+        existenceCache.put(pathToRoles + "/" + roleName, true);
+        invalidateObjectAttributes(facetNameOfRole, pathToRoles + "/" + roleName);
         if (hasUsers) {
             // Add users to role.
             addUsersToRole(userList, roleName);
@@ -466,89 +862,85 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     public void doDeleteRole(String roleName) throws UserStoreException {
 
         String selector = pathToRoles + "/" + roleName;
-        if (AWSConstants.LINK.equals(membershipType)) {
-            // List and detach all incoming typed links to role object.
-            JSONObject incomingTypedLinks = awsActions.listIncomingTypedLinks(null, selector);
-            detachIncomingTypedLinks(incomingTypedLinks);
-        } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
-            // Remove a particular role from all user objects.
-            removeRoleFromUsers(roleName);
-        }
-        // Detach object from parent object.
-        JSONObject detachObject = awsActions.detachObject(roleName, pathToRoles);
-        if (detachObject.get(AWSConstants.DETACHED_OBJECT_IDENTIFIER) != null) {
-            String identifier = "$" + detachObject.get(AWSConstants.DETACHED_OBJECT_IDENTIFIER).toString();
-            // Delete object from directory.
-            awsActions.deleteObject(identifier);
+        List<JSONObject> operations = new ArrayList<>();
+        List<String> updatedUsers = new ArrayList<>();
+        if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+            // The role is removed from its users in the same batch writes which delete the role. The users are read
+            // from the directory rather than through the caches, as in doDeleteUser.
+            String existingUsers = awsActions.listObjectAttributeValues(facetNameOfRole, selector,
+                    memberOfAttribute).get(memberOfAttribute);
+            List<String> userNames = StringUtils.isEmpty(existingUsers) ? Collections.emptyList() :
+                    Arrays.asList(existingUsers.split(","));
+            operations.addAll(getRemoveRoleOperations(roleName, userNames, updatedUsers));
+        }
+        if (roleNameIndexPath != null) {
+            // An object can not be deleted while it is attached to an index.
+            operations.add(awsActions.buildIndexOperation(AWSConstants.DETACH_FROM_INDEX, roleNameIndexPath,
+                    selector));
         }
-    }
-
-    /**
-     * Remove a particular role from all user objects.
-     *
-     * @param roleName Role name.
-     * @throws UserStoreException if any exception occurred.
-     */
-    protected void removeRoleFromUsers(String roleName) throws UserStoreException {
-
-        Map<String, String> map = new HashMap<>();
-        JSONArray operations = new JSONArray();
-        JSONObject response = new JSONObject();
-        String nextToken = null;
-        do {
-            JSONObject objectChildrens = awsActions.listObjectChildren(nextToken, pathToUsers);
-            Object token = objectChildrens.get(AWSConstants.NEXT_TOKEN);
-            if (token != null) {
-                nextToken = token.toString();
+        try {
+            if (AWSConstants.LINK.equals(membershipType)) {
+                // Detach all incoming typed links to role object, along with the role object.
+                deleteObjectWithTypedLinks(roleName, pathToRoles, true, operations);
             } else {
-                nextToken = null;
-            }
-            if (objectChildrens.get(AWSConstants.CHILDREN) != null) {
-                JSONObject childrens = (JSONObject) objectChildrens.get(AWSConstants.CHILDREN);
-                for (Object key : childrens.keySet()) {
-                    String value = pathToUsers + "/" + key.toString();
-                    String existingRoles = getAttributeValue(facetNameOfUser, value, membershipAttribute);
-                    if (StringUtils.isNotEmpty(existingRoles) && existingRoles.contains(roleName)) {
-                        List<String> updatedRoleList = new LinkedList<>(Arrays.asList(existingRoles.split(",")));
-                        updatedRoleList.remove(roleName);
-
-                        map.put(membershipAttribute, String.join(",", updatedRoleList));
-                        HashMap<String, Object> updateObjectAttributes = new HashMap<>();
-                        updateObjectAttributes.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES,
-                                awsActions.buildPayloadToUpdateObjectAttributes(AWSConstants.CREATE_OR_UPDATE,
-                                        facetNameOfUser, value, map));
-                        operations.add(updateObjectAttributes);
-                    }
-                }
-                response.put(AWSConstants.OPERATION, operations);
-                awsActions.batchWrite(response.toJSONString());
+                detachAndDeleteObject(roleName, pathToRoles, operations);
             }
-        } while (StringUtils.isNotEmpty(nextToken));
+        } finally {
+            for (String user : updatedUsers) {
+                invalidateObjectAttributes(facetNameOfUser, pathToUsers + "/" + user);
+                invalidateMembership(user);
+            }
+            invalidateObjectAttributes(facetNameOfRole, selector);
+        }
+        existenceCache.put(selector, false);
     }
 
     /**
-     * Detach incoming TypedLinks.
+     * Get the batch write operations to remove a role from the role lists of the given users. The role lists are
+     * read with as few batch reads as possible, and the users which do not list the role are skipped.
      *
-     * @param incomingTypedLinks Incoming TypedLinks.
-     * @throws UserStoreException if any exception occurred.
+     * @param roleName     Role name.
+     * @param userNames    Names of the users of the role.
+     * @param updatedUsers Collects the names of the users to be updated.
+     * @return Batch write operations.
+     * @throws UserStoreException If a user could not be read.
      */
-    protected void detachIncomingTypedLinks(JSONObject incomingTypedLinks) throws UserStoreException {
+    private List<JSONObject> getRemoveRoleOperations(String roleName, List<String> userNames,
+                                                     List<String> updatedUsers) throws UserStoreException {
 
-        JSONArray operations = new JSONArray();
-        JSONObject response = new JSONObject();
-        Object specifiers = incomingTypedLinks.get(AWSConstants.LINK_SPECIFIERS);
-        JSONArray linkSpecifiers = (specifiers != null) ? (JSONArray) specifiers : null;
-        if (linkSpecifiers != null) {
-            for (Object linkSpecifier : linkSpecifiers) {
-                HashMap<String, Object> specifier = new HashMap<>();
-                HashMap<String, Object> typedLink = new HashMap<>();
-                specifier.put(AWSConstants.TYPED_LINK_SPECIFIER, linkSpecifier);
-                typedLink.put(AWSConstants.DETACH_TYPED_LINK, specifier);
-                operations.add(typedLink);
+        List<JSONObject> operations = new ArrayList<>();
+        if (userNames.isEmpty()) {
+            return operations;
+        }
+        List<String> failedUsers = new ArrayList<>();
+        Map<String, AWSResponseDecoders.ObjectAttributes> users = getAttributesOfChildren(facetNameOfUser,
+                pathToUsers, userNames, membershipAttribute);
+        for (Map.Entry<String, AWSResponseDecoders.ObjectAttributes> user : users.entrySet()) {
+            String keyValue = pathToUsers + "/" + user.getKey();
+            if (!isReadSuccessful(keyValue, user.getValue(), failedUsers)) {
+                continue;
+            }
+            String existingRoles = user.getValue().getAttributes().get(membershipAttribute);
+            if (StringUtils.isEmpty(existingRoles)) {
+                continue;
             }
-            response.put(AWSConstants.OPERATION, operations);
-            awsActions.batchWrite(response.toJSONString());
+            List<String> updatedRoleList = new LinkedList<>(Arrays.asList(existingRoles.split(",")));
+            if (!updatedRoleList.removeAll(Collections.singleton(roleName))) {
+                continue;
+            }
+            Map<String, String> attributeMap = new HashMap<>();
+            attributeMap.put(membershipAttribute, String.join(",", updatedRoleList));
+            JSONObject operation = new JSONObject();
+            operation.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES, awsActions.buildPayloadToUpdateObjectAttributes(
+                    AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, keyValue, attributeMap));
+            operations.add(operation);
+            updatedUsers.add(user.getKey());
+        }
+        if (!failedUsers.isEmpty()) {
+            throw new UserStoreException(String.format("Error while removing the role: %s from the users: %s",
+                    roleName, failedUsers));
         }
+        return operations;
     }
 
     /**
@@ -597,25 +989,45 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     @Override
     public boolean doAuthenticate(String userName, Object credential) throws UserStoreException {
 
-        userName = userName.trim();
-        if (StringUtils.isEmpty(userName) || credential == null) {
-            return false;
-        }
-        if (log.isDebugEnabled()) {
-            log.debug("Authenticating user " + userName);
-        }
-        String selector = pathToUsers + "/" + userName;
-        String storedPassword = getAttributeValue(facetNameOfUser, selector, passwordAttribute);
-        byte[] password = UserCoreUtil.getPasswordToStore(credential, passwordHashMethod, false);
-        boolean isAuthed = (storedPassword != null) && (storedPassword.equals(new String(password)));
-        if (isAuthed) {
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.INTERACTIVE);
+        try {
+            userName = userName.trim();
+            if (StringUtils.isEmpty(userName) || credential == null) {
+                return false;
+            }
             if (log.isDebugEnabled()) {
-                log.debug(String.format("Successfully authenticated user: %s, status: %s", userName, true));
+                log.debug("Authenticating user " + userName);
             }
-        } else {
-            handleException(String.format("Error while authenticating user: %s", userName));
+            if (isUnknownUser(userName)) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("User: %s does not exist.", userName));
+                }
+                handleException(String.format("Error while authenticating user: %s", userName));
+            }
+            String selector = pathToUsers + "/" + userName;
+            String storedPassword;
+            try {
+                storedPassword = getAttributeValue(facetNameOfUser, selector, passwordAttribute);
+            } catch (UserStoreException e) {
+                if (!checkExistenceOfUserOrRole(pathToUsers, userName)) {
+                    unknownUserCache.put(userName, true);
+                }
+                throw e;
+            }
+            byte[] password = UserCoreUtil.getPasswordToStore(credential, passwordHashMethod, false);
+            boolean isAuthed = (storedPassword != null) && (storedPassword.equals(new String(password)));
+            if (isAuthed) {
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Successfully authenticated user: %s, status: %s", userName, true));
+                }
+            } else {
+                handleException(String.format("Error while authenticating user: %s", userName));
+            }
+            return isAuthed;
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
         }
-        return isAuthed;
     }
 
     /**
@@ -629,14 +1041,75 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     @Override
     protected String[] doListUsers(String filter, int maxItemLimit) throws UserStoreException {
 
-        int givenMax;
-        String[] users = new String[0];
-        if (maxItemLimit == 0) {
-            return users;
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
+        try {
+            maxItemLimit = getMaxItemLimit(UserCoreConstants.RealmConfig.PROPERTY_MAX_USER_LIST, maxItemLimit);
+            if (maxItemLimit == 0) {
+                return new String[0];
+            }
+            List<String> users = getAllChildrens(pathToUsers, filter, maxItemLimit);
+            return users.toArray(new String[0]);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
         }
+    }
+
+    /**
+     * Lists a page of the users in the user store, in the order they are listed by Cloud Directory. Unlike
+     * {@link #listUsers(String, int)}, the listing can be resumed from where the previous page ended.
+     *
+     * @param filter       to filter the search.
+     * @param maxItemLimit Maximum number of users in the page.
+     * @param cursor       Cursor of the previous page, or null for the first page.
+     * @return Page of users.
+     * @throws UserStoreException if any exception occurred.
+     */
+    public AWSPaginatedResult listUsers(String filter, int maxItemLimit, String cursor) throws UserStoreException {
+
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
         try {
-            givenMax = Integer.parseInt(realmConfig
-                    .getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_MAX_USER_LIST));
+            maxItemLimit = getMaxItemLimit(UserCoreConstants.RealmConfig.PROPERTY_MAX_USER_LIST, maxItemLimit);
+            return getChildrenPage(pathToUsers, filter, maxItemLimit, cursor);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+    }
+
+    /**
+     * Lists a page of the role names in the role store, in the order they are listed by Cloud Directory.
+     *
+     * @param filter       to filter the search.
+     * @param maxItemLimit Maximum number of roles in the page.
+     * @param cursor       Cursor of the previous page, or null for the first page.
+     * @return Page of roles.
+     * @throws UserStoreException if any exception occurred.
+     */
+    public AWSPaginatedResult listRoles(String filter, int maxItemLimit, String cursor) throws UserStoreException {
+
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
+        try {
+            maxItemLimit = getMaxItemLimit(UserCoreConstants.RealmConfig.PROPERTY_MAX_ROLE_LIST, maxItemLimit);
+            return getChildrenPage(pathToRoles, filter, maxItemLimit, cursor);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+    }
+
+    /**
+     * Get the maximum number of items to list, bounded by the configured maximum.
+     *
+     * @param property     Name of the user store property of the configured maximum.
+     * @param maxItemLimit Requested maximum. Negative for the configured maximum.
+     * @return Maximum number of items.
+     */
+    private int getMaxItemLimit(String property, int maxItemLimit) {
+
+        int givenMax;
+        try {
+            givenMax = Integer.parseInt(realmConfig.getUserStoreProperty(property));
         } catch (Exception e) {
             givenMax = UserCoreConstants.MAX_USER_ROLE_LIST;
 
@@ -645,25 +1118,16 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             }
         }
         if (maxItemLimit < 0 || maxItemLimit > givenMax) {
-            maxItemLimit = givenMax;
-        }
-
-        List<String> tempList = getAllChildrens(pathToUsers, filter, maxItemLimit);
-        int usersCount = tempList.size();
-        if (usersCount > 0) {
-            users = tempList.toArray(new String[tempList.size()]);
-        }
-        Arrays.sort(users);
-        if (usersCount < maxItemLimit) {
-            maxItemLimit = usersCount;
+            return givenMax;
         }
-        users = Arrays.copyOfRange(users, 0, maxItemLimit);
-
-        return users;
+        return maxItemLimit;
     }
 
     /**
-     * Match strings against a pattern.
+     * Match strings against a pattern. If the names are indexed, the pattern is anchored at both ends, hence "ab*"
+     * matches the strings which start with "ab" as in the other user stores, and the listings are served from the
+     * indexes. Otherwise the strings which contain the literal parts of the pattern in order are matched, hence
+     * "ab*" matches the strings which contain "ab". See {@link AWSWildcardFilter}.
      *
      * @param text   String that need to be matched.
      * @param filter Pattern.
@@ -674,18 +1138,24 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (text == null || filter == null) {
             return true;
         }
+        return getCompiledFilter(filter).matches(text);
+    }
 
-        StringBuilder builder = new StringBuilder(".*");
-        for (StringTokenizer st = new StringTokenizer(filter, "%*", true); st.hasMoreTokens(); ) {
-            String token = st.nextToken();
-            if ("*".equals(token)) {
-                builder.append(".*");
-            } else {
-                builder.append(Pattern.quote(token));
-            }
+    /**
+     * Get the compiled form of a filter. The same filter is matched against every name of a listing, hence it is
+     * compiled once.
+     *
+     * @param filter Filter.
+     * @return Compiled filter.
+     */
+    private AWSWildcardFilter getCompiledFilter(String filter) {
+
+        AWSWildcardFilter compiledFilter = filterCache.get(filter);
+        if (compiledFilter == null) {
+            compiledFilter = AWSWildcardFilter.compile(filter, anchoredFilters);
+            filterCache.put(filter, compiledFilter);
         }
-        builder.append(".*");
-        return text.matches(builder.toString());
+        return compiledFilter;
     }
 
     /**
@@ -699,78 +1169,170 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     @Override
     public String[] doGetRoleNames(String filter, int maxItemLimit) throws UserStoreException {
 
-        int givenMax;
-        String[] roles = new String[0];
-        if (maxItemLimit == 0) {
-            return roles;
-        }
-
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
         try {
-            givenMax = Integer.parseInt(realmConfig
-                    .getUserStoreProperty(UserCoreConstants.RealmConfig.PROPERTY_MAX_ROLE_LIST));
-        } catch (Exception e) {
-            givenMax = UserCoreConstants.MAX_USER_ROLE_LIST;
-
-            if (log.isDebugEnabled()) {
-                log.debug("Realm configuration maximum not set : Using User Core Constant value instead!", e);
+            maxItemLimit = getMaxItemLimit(UserCoreConstants.RealmConfig.PROPERTY_MAX_ROLE_LIST, maxItemLimit);
+            if (maxItemLimit == 0) {
+                return new String[0];
             }
+            List<String> roles = getAllChildrens(pathToRoles, filter, maxItemLimit);
+            return roles.toArray(new String[0]);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
         }
+    }
 
-        if (maxItemLimit < 0 || maxItemLimit > givenMax) {
-            maxItemLimit = givenMax;
-        }
+    /**
+     * Get the first child elements of an object in sorted order. Only the smallest names seen so far are kept in a
+     * bounded heap while the children are scanned, hence the memory used is bound by the limit rather than by the
+     * number of children scanned.
+     *
+     * @param selector Path of an object in the tree structure.
+     * @param filter   To filter the search.
+     * @param maxLimit Maximum number of children.
+     * @return Sorted list of children
+     * @throws UserStoreException If error occurred.
+     */
+    protected List<String> getAllChildrens(String selector, String filter, double maxLimit) throws UserStoreException {
 
-        List<String> tempList = getAllChildrens(pathToRoles, filter, maxItemLimit);
-        int rolesCount = tempList.size();
-        if (rolesCount > 0) {
-            roles = tempList.toArray(new String[tempList.size()]);
+        int limit = (int) maxLimit;
+        List<String> indexedNames = getChildrenFromNameIndex(selector, filter, limit);
+        if (indexedNames != null) {
+            return indexedNames;
         }
-        Arrays.sort(roles);
-        if (rolesCount < maxItemLimit) {
-            maxItemLimit = rolesCount;
+        // Max heap, hence the largest of the names kept is the one evicted.
+        PriorityQueue<String> heap = new PriorityQueue<>(limit + 1, Collections.reverseOrder());
+        double apiCallLimit = Math.ceil(maxLimit / AWSConstants.MAX_API_LIMIT);
+        int counter = 1;
+        try (AWSPageIterator<AWSResponseDecoders.ObjectChildren> pages = awsActions.iterateObjectChildNames(null,
+                selector, (int) Math.min(pagePrefetchDepth, apiCallLimit - 1))) {
+            do {
+                AWSResponseDecoders.ObjectChildren objectChildrens = pages.next();
+                for (String keyValue : objectChildrens.getNames()) {
+                    if (!matchFilter(keyValue, filter)) {
+                        continue;
+                    }
+                    String name = UserCoreUtil.addDomainToName(keyValue, domain);
+                    if (heap.size() < limit) {
+                        heap.add(name);
+                    } else if (limit > 0 && name.compareTo(heap.peek()) < 0) {
+                        heap.poll();
+                        heap.add(name);
+                    }
+                }
+                counter++;
+            } while (pages.hasNext() && counter <= apiCallLimit);
         }
-        roles = Arrays.copyOfRange(roles, 0, maxItemLimit);
 
-        return roles;
+        String[] names = new String[heap.size()];
+        for (int i = names.length - 1; i >= 0; i--) {
+            names[i] = heap.poll();
+        }
+        return Arrays.asList(names);
     }
 
     /**
-     * Get all child elements of an object.
+     * Get the first child elements of an object which match a filter, from the index over the names. Only the names
+     * which start with the literal prefix of the filter are listed, in sorted order, and the rest of the filter is
+     * matched as in a scan. Hence the cost depends on the number of names with the prefix rather than on the number
+     * of children.
      *
      * @param selector Path of an object in the tree structure.
      * @param filter   To filter the search.
-     * @return List of children
+     * @param limit    Maximum number of children.
+     * @return Sorted list of children, or null if the names of the children are not indexed or the filter does not
+     * start with a literal prefix.
      * @throws UserStoreException If error occurred.
      */
-    protected List<String> getAllChildrens(String selector, String filter, double maxLimit) throws UserStoreException {
+    private List<String> getChildrenFromNameIndex(String selector, String filter, int limit)
+            throws UserStoreException {
 
+        if (filter == null || getCompiledFilter(filter).getPrefix().isEmpty()) {
+            return null;
+        }
+        String indexPath;
+        String facetName;
+        String nameAttribute;
+        if (selector.equals(pathToUsers) && userIndexes.containsKey(userNameAttribute)) {
+            indexPath = userIndexes.get(userNameAttribute);
+            facetName = facetNameOfUser;
+            nameAttribute = userNameAttribute;
+        } else if (selector.equals(pathToRoles) && roleNameIndexPath != null) {
+            indexPath = roleNameIndexPath;
+            facetName = facetNameOfRole;
+            nameAttribute = roleNameAttribute;
+        } else {
+            return null;
+        }
+        String prefix = getCompiledFilter(filter).getPrefix();
+        List<String> names = new ArrayList<>();
         String nextToken = null;
-        String name;
-        List<String> tempList = new LinkedList<>();
-        double apiCallLimit = Math.ceil(maxLimit / AWSConstants.MAX_API_LIMIT);
-        int counter = 1;
         do {
-            JSONObject objectChildrens = awsActions.listObjectChildren(nextToken, selector);
-            Object token = objectChildrens.get(AWSConstants.NEXT_TOKEN);
-            if (token != null) {
-                nextToken = token.toString();
-            } else {
-                nextToken = null;
-            }
-            if (objectChildrens.get(AWSConstants.CHILDREN) != null) {
-                JSONObject childrens = (JSONObject) objectChildrens.get(AWSConstants.CHILDREN);
-                for (Object key : childrens.keySet()) {
-                    String keyValue = key.toString();
-                    if (matchFilter(keyValue, filter)) {
-                        name = UserCoreUtil.addDomainToName(keyValue, domain);
-                        tempList.add(name);
+            JSONObject indexAttachments = awsActions.listIndex(nextToken, indexPath, facetName, nameAttribute,
+                    prefix, true);
+            for (Object indexAttachment : (JSONArray) indexAttachments.get(AWSConstants.INDEX_ATTACHMENTS)) {
+                JSONArray attributes = (JSONArray) ((JSONObject) indexAttachment).get(AWSConstants.INDEXED_ATTRIBUTES);
+                for (Object attribute : attributes) {
+                    JSONObject key = (JSONObject) ((JSONObject) attribute).get(AWSConstants.KEY);
+                    JSONObject attributeValue = (JSONObject) ((JSONObject) attribute).get(AWSConstants.VALUE);
+                    if (nameAttribute.equals(key.get(AWSConstants.NAME))) {
+                        String name = attributeValue.get(AWSConstants.STRING_VALUE).toString();
+                        if (matchFilter(name, filter)) {
+                            names.add(UserCoreUtil.addDomainToName(name, domain));
+                        }
                     }
                 }
+                if (names.size() >= limit) {
+                    return names.subList(0, limit);
+                }
             }
-            counter++;
-        } while (StringUtils.isNotEmpty(nextToken) && counter <= apiCallLimit);
+            nextToken = AWSRestApiActions.getNextToken(indexAttachments);
+        } while (nextToken != null);
+        return names;
+    }
 
-        return tempList;
+    /**
+     * Get a page of the child elements of an object, in the order they are listed by Cloud Directory. The cursor of
+     * the next page points right after the last child returned, which may be in the middle of a Cloud Directory page.
+     *
+     * @param selector     Path of an object in the tree structure.
+     * @param filter       To filter the search.
+     * @param maxItemLimit Maximum number of children in the page.
+     * @param cursor       Cursor of the previous page, or null for the first page.
+     * @return Page of children.
+     * @throws UserStoreException If error occurred.
+     */
+    private AWSPaginatedResult getChildrenPage(String selector, String filter, int maxItemLimit, String cursor)
+            throws UserStoreException {
+
+        String nextToken = AWSPaginatedResult.getNextToken(cursor);
+        int offset = AWSPaginatedResult.getOffset(cursor);
+        List<String> names = new ArrayList<>();
+        if (maxItemLimit <= 0) {
+            return new AWSPaginatedResult(names, cursor);
+        }
+        try (AWSPageIterator<AWSResponseDecoders.ObjectChildren> pages = awsActions.iterateObjectChildNames(
+                nextToken, selector, pagePrefetchDepth)) {
+            do {
+                AWSResponseDecoders.ObjectChildren objectChildrens = pages.next();
+                List<String> children = objectChildrens.getNames();
+                for (int i = offset; i < children.size(); i++) {
+                    if (names.size() == maxItemLimit) {
+                        return new AWSPaginatedResult(names, AWSPaginatedResult.encodeCursor(nextToken, i));
+                    }
+                    if (matchFilter(children.get(i), filter)) {
+                        names.add(UserCoreUtil.addDomainToName(children.get(i), domain));
+                    }
+                }
+                // Token of the page taken next.
+                nextToken = objectChildrens.getNextToken();
+                offset = 0;
+            } while (pages.hasNext() && names.size() < maxItemLimit);
+        }
+
+        String nextCursor = StringUtils.isNotEmpty(nextToken) ? AWSPaginatedResult.encodeCursor(nextToken, 0) : null;
+        return new AWSPaginatedResult(names, nextCursor);
     }
 
     /**
@@ -818,20 +1380,25 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
      */
     protected List<String> getUserListOfRoleByLink(String selector, String filter) throws UserStoreException {
 
-        JSONObject links = awsActions.listIncomingTypedLinks(typedLinkFacetName, selector);
         List<String> tempList = new LinkedList<>();
-        JSONArray linkSpecifiers = (JSONArray) links.get(AWSConstants.LINK_SPECIFIERS);
-        if (!linkSpecifiers.isEmpty()) {
-            for (Object linkSpecifier : linkSpecifiers) {
-                JSONObject keyValue = (JSONObject) linkSpecifier;
-                JSONArray attributes = (JSONArray) keyValue.get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
-                for (Object attribute : attributes) {
-                    JSONObject key = (JSONObject) attribute;
-                    Object attributeName = key.get(AWSConstants.ATTRIBUTE_NAME);
-                    JSONObject attributeValue = (JSONObject) key.get(AWSConstants.VALUE);
-                    String userName = attributeValue.get(AWSConstants.STRING_VALUE).toString();
-                    if (attributeName.equals(userNameAttribute) && matchFilter(userName, filter)) {
-                        tempList.add(UserCoreUtil.addDomainToName(userName, domain));
+        try (AWSPageIterator<JSONObject> pages = awsActions.iterateIncomingTypedLinks(typedLinkFacetName, selector,
+                pagePrefetchDepth)) {
+            while (pages.hasNext()) {
+                JSONArray linkSpecifiers = (JSONArray) pages.next().get(AWSConstants.LINK_SPECIFIERS);
+                if (linkSpecifiers == null) {
+                    continue;
+                }
+                for (Object linkSpecifier : linkSpecifiers) {
+                    JSONObject keyValue = (JSONObject) linkSpecifier;
+                    JSONArray attributes = (JSONArray) keyValue.get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
+                    for (Object attribute : attributes) {
+                        JSONObject key = (JSONObject) attribute;
+                        Object attributeName = key.get(AWSConstants.ATTRIBUTE_NAME);
+                        JSONObject attributeValue = (JSONObject) key.get(AWSConstants.VALUE);
+                        String userName = attributeValue.get(AWSConstants.STRING_VALUE).toString();
+                        if (attributeName.equals(userNameAttribute) && matchFilter(userName, filter)) {
+                            tempList.add(UserCoreUtil.addDomainToName(userName, domain));
+                        }
                     }
                 }
             }
@@ -850,31 +1417,98 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     @Override
     public String[] doGetExternalRoleListOfUser(String userName, String filter) throws UserStoreException {
 
-        String[] roles = new String[0];
-        List<String> tempList = new LinkedList<>();
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.INTERACTIVE);
+        try {
+            String[] roles = new String[0];
+            List<String> tempList = new LinkedList<>();
+            for (String role : getRoleNamesOfUser(userName)) {
+                if (!matchFilter(role, filter)) {
+                    continue;
+                }
+                if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+                    tempList.add(UserCoreUtil.addDomainToName(role, domain));
+                } else {
+                    tempList.add(role);
+                }
+            }
+            if (!tempList.isEmpty()) {
+                roles = tempList.toArray(new String[tempList.size()]);
+            }
+
+            return roles;
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+    }
+
+    /**
+     * Get the unfiltered role names of a user through the membership cache. The cache is kept local to the user
+     * store and is invalidated precisely by the writes which change the roles of a user, hence it is much cheaper
+     * than the user roles cache of the user store manager which is shared across the cluster.
+     *
+     * @param userName User name.
+     * @return Role names of the user.
+     * @throws UserStoreException If error occurred.
+     */
+    private List<String> getRoleNamesOfUser(String userName) throws UserStoreException {
+
+        List<String> roleNames = membershipCache.get(userName);
+        if (roleNames != null) {
+            return roleNames;
+        }
+        long invalidationCount = membershipCache.getInvalidationCount();
         String selector = pathToUsers + "/" + userName;
+        roleNames = new ArrayList<>();
         if (AWSConstants.LINK.equals(membershipType)) {
-            JSONObject outgoingTypedLinks = awsActions.listOutgoingTypedLinks(typedLinkFacetName, selector);
-            if (outgoingTypedLinks != null) {
-                tempList = getRoleListOfUserByLink(outgoingTypedLinks, filter);
+            try (AWSPageIterator<JSONObject> pages = awsActions.iterateOutgoingTypedLinks(typedLinkFacetName,
+                    selector, pagePrefetchDepth)) {
+                while (pages.hasNext()) {
+                    roleNames.addAll(getRoleListOfUserByLink(pages.next(), null));
+                }
             }
         } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
-            String[] roleList = new String[0];
             String existingRoles = getAttributeValue(facetNameOfUser, selector, membershipAttribute);
             if (StringUtils.isNotEmpty(existingRoles)) {
-                roleList = existingRoles.split(",");
+                roleNames = Arrays.asList(existingRoles.split(","));
             }
-            for (String role : roleList) {
-                if (matchFilter(role, filter)) {
-                    tempList.add(UserCoreUtil.addDomainToName(role, domain));
+        }
+        roleNames = Collections.unmodifiableList(roleNames);
+        membershipCache.putIfNotInvalidated(userName, roleNames, invalidationCount);
+        return roleNames;
+    }
+
+    /**
+     * Drop the cached role names of a user.
+     *
+     * @param userName User name.
+     */
+    private void invalidateMembership(String userName) {
+
+        membershipCache.remove(userName);
+    }
+
+    /**
+     * Drop the cached role names of the users at the source of the given typed links.
+     *
+     * @param linkSpecifiers Typed link specifiers.
+     */
+    private void invalidateMembershipOfLinks(JSONArray linkSpecifiers) {
+
+        for (Object linkSpecifier : linkSpecifiers) {
+            Object identityAttributeValues = ((JSONObject) linkSpecifier).get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
+            if (identityAttributeValues == null) {
+                continue;
+            }
+            for (Object attribute : (JSONArray) identityAttributeValues) {
+                JSONObject key = (JSONObject) attribute;
+                JSONObject attributeValue = (JSONObject) key.get(AWSConstants.VALUE);
+                if (userNameAttribute.equals(key.get(AWSConstants.ATTRIBUTE_NAME)) && attributeValue != null &&
+                        attributeValue.get(AWSConstants.STRING_VALUE) != null) {
+                    invalidateMembership(attributeValue.get(AWSConstants.STRING_VALUE).toString());
                 }
             }
         }
-        if (!tempList.isEmpty()) {
-            roles = tempList.toArray(new String[tempList.size()]);
-        }
-
-        return roles;
     }
 
     /**
@@ -888,7 +1522,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
 
         List<String> tempList = new LinkedList<>();
         JSONArray linkSpecifiers = (JSONArray) outgoingTypedLinks.get(AWSConstants.TYPEDLINK_SPECIFIERS);
-        if (!linkSpecifiers.isEmpty()) {
+        if (linkSpecifiers != null) {
             for (Object linkSpecifier : linkSpecifiers) {
                 JSONObject keyValue = (JSONObject) linkSpecifier;
                 JSONArray attributes = (JSONArray) keyValue.get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
@@ -964,7 +1598,11 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             list.removeAll(Arrays.asList(deletedRoles));
 
             map.put(membershipAttribute, String.join(",", list));
-            awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, selector, map);
+            try {
+                updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, selector, map);
+            } finally {
+                invalidateMembership(userName);
+            }
         }
     }
 
@@ -984,7 +1622,11 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             list.remove(userName);
 
             map.put(memberOfAttribute, String.join(",", list));
-            awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, selector, map);
+            try {
+                updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, selector, map);
+            } finally {
+                invalidateMembership(userName);
+            }
         }
     }
 
@@ -997,21 +1639,32 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
      */
     protected void removeUserFromRoleByLink(String selector, String userName) throws UserStoreException {
 
-        JSONObject incomingTypedLinks = awsActions.listIncomingTypedLinks(typedLinkFacetName, selector);
-        Object object = incomingTypedLinks.get(AWSConstants.LINK_SPECIFIERS);
-        if (object != null) {
-            JSONArray linkSpecifiers = (JSONArray) object;
-            for (Object linkSpecifier : linkSpecifiers) {
-                JSONObject keyValue = (JSONObject) linkSpecifier;
-                JSONArray identityAttributeValues = (JSONArray) keyValue.get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
-                if (isUserNameExistInLink(identityAttributeValues, userName)) {
-                    JSONObject response = new JSONObject();
-                    response.put(AWSConstants.TYPED_LINK_SPECIFIER, linkSpecifier);
-                    int statusCode = awsActions.detachTypedLink(response.toJSONString());
-                    if (statusCode != 200) {
-                        log.error(AWSConstants.ERROR_WHILE_DETACH_TYPED_LINK + keyValue.toJSONString());
+        try (AWSPageIterator<JSONObject> pages = awsActions.iterateIncomingTypedLinks(typedLinkFacetName, selector,
+                pagePrefetchDepth)) {
+            while (pages.hasNext()) {
+                Object object = pages.next().get(AWSConstants.LINK_SPECIFIERS);
+                if (object == null) {
+                    continue;
+                }
+                JSONArray linkSpecifiers = (JSONArray) object;
+                for (Object linkSpecifier : linkSpecifiers) {
+                    JSONObject keyValue = (JSONObject) linkSpecifier;
+                    JSONArray identityAttributeValues = (JSONArray) keyValue.get(
+                            AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
+                    if (isUserNameExistInLink(identityAttributeValues, userName)) {
+                        JSONObject response = new JSONObject();
+                        response.put(AWSConstants.TYPED_LINK_SPECIFIER, linkSpecifier);
+                        int statusCode;
+                        try {
+                            statusCode = awsActions.detachTypedLink(response.toJSONString());
+                        } finally {
+                            invalidateMembership(userName);
+                        }
+                        if (statusCode != 200) {
+                            log.error(AWSConstants.ERROR_WHILE_DETACH_TYPED_LINK + keyValue.toJSONString());
+                        }
+                        return;
                     }
-                    break;
                 }
             }
         }
@@ -1054,10 +1707,14 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (deletedUsers != null && deletedUsers.length > 0) {
             for (String userName : deletedUsers) {
                 String selector = pathToUsers + "/" + userName.trim();
-                if (AWSConstants.LINK.equals(membershipType)) {
-                    removeRoleFromUserByLink(selector, roleName);
-                } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
-                    removeRoleFromUserByAttribute(selector, roleName);
+                try {
+                    if (AWSConstants.LINK.equals(membershipType)) {
+                        removeRoleFromUserByLink(selector, roleName);
+                    } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+                        removeRoleFromUserByAttribute(selector, roleName);
+                    }
+                } finally {
+                    invalidateMembership(userName.trim());
                 }
             }
             if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
@@ -1068,7 +1725,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
                     list.removeAll(Arrays.asList(deletedUsers));
 
                     map.put(memberOfAttribute, String.join(",", list));
-                    awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, selector, map);
+                    updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, selector, map);
                 }
             }
         }
@@ -1097,7 +1754,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             list.remove(roleName);
 
             map.put(membershipAttribute, String.join(",", list));
-            awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, selector, map);
+            updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, selector, map);
         }
     }
 
@@ -1110,21 +1767,27 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
      */
     protected void removeRoleFromUserByLink(String selector, String roleName) throws UserStoreException {
 
-        JSONObject outgoingTypedLinks = awsActions.listOutgoingTypedLinks(typedLinkFacetName, selector);
-        if (outgoingTypedLinks.get(AWSConstants.TYPEDLINK_SPECIFIERS) != null) {
-            JSONArray typedLinkSpecifiers = (JSONArray) outgoingTypedLinks.get(
-                    AWSConstants.TYPEDLINK_SPECIFIERS);
-            for (Object typedLinkSpecifier : typedLinkSpecifiers) {
-                JSONObject keyValue = (JSONObject) typedLinkSpecifier;
-                JSONArray identityAttributeValues = (JSONArray) keyValue.get(AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
-                if (isRoleNameExistInLink(identityAttributeValues, roleName)) {
-                    JSONObject response = new JSONObject();
-                    response.put(AWSConstants.TYPED_LINK_SPECIFIER, typedLinkSpecifier);
-                    int statusCode = awsActions.detachTypedLink(response.toJSONString());
-                    if (statusCode != 200) {
-                        log.error(AWSConstants.ERROR_WHILE_DETACH_TYPED_LINK + keyValue.toJSONString());
+        try (AWSPageIterator<JSONObject> pages = awsActions.iterateOutgoingTypedLinks(typedLinkFacetName, selector,
+                pagePrefetchDepth)) {
+            while (pages.hasNext()) {
+                Object object = pages.next().get(AWSConstants.TYPEDLINK_SPECIFIERS);
+                if (object == null) {
+                    continue;
+                }
+                JSONArray typedLinkSpecifiers = (JSONArray) object;
+                for (Object typedLinkSpecifier : typedLinkSpecifiers) {
+                    JSONObject keyValue = (JSONObject) typedLinkSpecifier;
+                    JSONArray identityAttributeValues = (JSONArray) keyValue.get(
+                            AWSConstants.IDENTITY_ATTRIBUTE_VALUES);
+                    if (isRoleNameExistInLink(identityAttributeValues, roleName)) {
+                        JSONObject response = new JSONObject();
+                        response.put(AWSConstants.TYPED_LINK_SPECIFIER, typedLinkSpecifier);
+                        int statusCode = awsActions.detachTypedLink(response.toJSONString());
+                        if (statusCode != 200) {
+                            log.error(AWSConstants.ERROR_WHILE_DETACH_TYPED_LINK + keyValue.toJSONString());
+                        }
+                        return;
                     }
-                    break;
                 }
             }
         }
@@ -1198,54 +1861,93 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     public String[] getUserListFromProperties(String property, String value, String profileName)
             throws UserStoreException {
 
-        if (StringUtils.isEmpty(property) || StringUtils.isEmpty(value)) {
-            return new String[0];
-        }
-        Set<String> userList = new LinkedHashSet<>();
-        String nextToken = null;
-        do {
-            JSONObject objectChildrens = awsActions.listObjectChildren(nextToken, pathToUsers);
-            Object token = objectChildrens.get(AWSConstants.NEXT_TOKEN);
-            if (token != null) {
-                nextToken = token.toString();
-            } else {
-                nextToken = null;
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
+        try {
+            if (StringUtils.isEmpty(property) || StringUtils.isEmpty(value)) {
+                return new String[0];
+            }
+            Set<String> userList = new LinkedHashSet<>();
+            String indexPath = userIndexes.get(property);
+            if (indexPath != null) {
+                getUserListFromIndex(userList, indexPath, property, value);
+                return userList.toArray(new String[userList.size()]);
+            }
+            try (AWSPageIterator<AWSResponseDecoders.ObjectChildren> pages = awsActions.iterateObjectChildNames(null,
+                    pathToUsers, pagePrefetchDepth)) {
+                while (pages.hasNext()) {
+                    AWSResponseDecoders.ObjectChildren objectChildrens = pages.next();
+                    getUserList(userList, objectChildrens.getNames(), property, value);
+                }
             }
-            Object object = objectChildrens.get(AWSConstants.CHILDREN);
-            JSONObject childrens = (object != null) ? (JSONObject) object : null;
-            getUserList(userList, childrens, property, value);
-        } while (StringUtils.isNotEmpty(nextToken));
 
-        return userList.toArray(new String[userList.size()]);
+            return userList.toArray(new String[userList.size()]);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
     }
 
     /**
      * Get filtered user list by properties.
      *
      * @param userList  Filtered users by properties.
-     * @param childrens Contain all users.
+     * @param childrens Names of the users.
+     * @param property  Property name.
+     * @param value     of property name.
+     * @throws UserStoreException If error occurred.
+     */
+    protected void getUserList(Set<String> userList, List<String> childrens, String property, String value)
+            throws UserStoreException {
+
+        List<String> failedUsers = new ArrayList<>();
+        Map<String, AWSResponseDecoders.ObjectAttributes> users = getAttributesOfChildren(facetNameOfUser,
+                pathToUsers, childrens, property);
+        for (Map.Entry<String, AWSResponseDecoders.ObjectAttributes> user : users.entrySet()) {
+            String key = user.getKey();
+            if (!isReadSuccessful(pathToUsers + "/" + key, user.getValue(), failedUsers)) {
+                // A user which could not be read is left out, rather than failing the whole search.
+                continue;
+            }
+            String attributeValue = user.getValue().getAttributes().get(property);
+            if (value.endsWith("*") ? attributeValue != null && attributeValue.startsWith(
+                    value.substring(0, value.length() - 1)) : value.equals(attributeValue)) {
+                userList.add(key);
+            }
+        }
+    }
+
+    /**
+     * Get the users whose property equals the value, or starts with it if the value ends with "*", from the index
+     * over the property.
+     *
+     * @param userList  Filtered users by properties.
+     * @param indexPath Path of the index over the property.
      * @param property  Property name.
      * @param value     of property name.
      * @throws UserStoreException If error occurred.
      */
-    protected void getUserList(Set<String> userList, JSONObject childrens, String property, String value)
+    private void getUserListFromIndex(Set<String> userList, String indexPath, String property, String value)
             throws UserStoreException {
 
-        if (childrens != null) {
-            for (Object key : childrens.keySet()) {
-                String keyValue = pathToUsers + "/" + key.toString();
-                JSONObject objectAttributes = awsActions.listObjectAttributes(facetNameOfUser, keyValue);
-                JSONArray attributes = (JSONArray) objectAttributes.get(AWSConstants.ATTRIBUTES);
+        boolean prefix = value.endsWith("*");
+        String indexedValue = prefix ? value.substring(0, value.length() - 1) : value;
+        String nextToken = null;
+        do {
+            JSONObject indexAttachments = awsActions.listIndex(nextToken, indexPath, facetNameOfUser, property,
+                    indexedValue, prefix);
+            for (Object indexAttachment : (JSONArray) indexAttachments.get(AWSConstants.INDEX_ATTACHMENTS)) {
+                JSONArray attributes = (JSONArray) ((JSONObject) indexAttachment).get(AWSConstants.INDEXED_ATTRIBUTES);
                 for (Object attribute : attributes) {
-                    JSONObject keyVal = (JSONObject) attribute;
-                    Object propertyName = ((JSONObject) keyVal.get(AWSConstants.KEY)).get(AWSConstants.NAME);
-                    Object propertyValue = ((JSONObject) keyVal.get(AWSConstants.VALUE)).get(AWSConstants.STRING_VALUE);
-                    if (propertyName.equals(property) && propertyValue.equals(value)) {
-                        userList.add(key.toString());
+                    JSONObject key = (JSONObject) ((JSONObject) attribute).get(AWSConstants.KEY);
+                    JSONObject attributeValue = (JSONObject) ((JSONObject) attribute).get(AWSConstants.VALUE);
+                    if (userNameAttribute.equals(key.get(AWSConstants.NAME))) {
+                        userList.add(attributeValue.get(AWSConstants.STRING_VALUE).toString());
                     }
                 }
             }
-        }
+            Object token = indexAttachments.get(AWSConstants.NEXT_TOKEN);
+            nextToken = token != null ? token.toString() : null;
+        } while (StringUtils.isNotEmpty(nextToken));
     }
 
     /**
@@ -1275,15 +1977,44 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     @Override
     public boolean doCheckIsUserInRole(String userName, String roleName) throws UserStoreException {
 
-        String[] roles = doGetExternalRoleListOfUser(userName, "*");
-        if (roles != null) {
-            for (String role : roles) {
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.INTERACTIVE);
+        try {
+            roleName = UserCoreUtil.removeDomainFromName(roleName);
+            List<String> roleNames = membershipCache.get(userName);
+            if (roleNames == null && AWSConstants.LINK.equals(membershipType)) {
+                // Only the typed link between the user and the role is fetched, rather than all the roles of the user.
+                // Cloud Directory takes the ranges in the identity attribute order of the typed link facet, and
+                // only the last range may be anything but an exact match. The lookup is authoritative, hence a
+                // negative check costs a single call. Like the paths of the role objects, the ranges are case
+                // sensitive, while a cached role list is matched ignoring the case as before.
+                Map<String, String> identityAttributeValues = new LinkedHashMap<>();
+                identityAttributeValues.put(userNameAttribute, userName);
+                identityAttributeValues.put(roleNameAttribute, roleName);
+                try {
+                    JSONObject outgoingTypedLinks = awsActions.listOutgoingTypedLinks(typedLinkFacetName,
+                            pathToUsers + "/" + userName, identityAttributeValues);
+                    return outgoingTypedLinks != null && getRoleListOfUserByLink(outgoingTypedLinks, null).stream()
+                            .anyMatch(roleName::equals);
+                } catch (UserStoreException e) {
+                    if (log.isDebugEnabled()) {
+                        log.debug(String.format("Error while filtering the typed links of user %s by role %s. " +
+                                "Falling back to the roles of the user.", userName, roleName), e);
+                    }
+                }
+            }
+            if (roleNames == null) {
+                roleNames = getRoleNamesOfUser(userName);
+            }
+            for (String role : roleNames) {
                 if (role.equalsIgnoreCase(roleName)) {
                     return true;
                 }
             }
+            return false;
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
         }
-        return false;
     }
 
     /**
@@ -1440,7 +2171,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (StringUtils.isNotEmpty(claimValue)) {
             map.put(attributeName, claimValue);
         }
-        awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/" + userName,
+        updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/" + userName,
                 map);
     }
 
@@ -1457,7 +2188,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             throws UserStoreException {
 
         Map<String, String> map = getClaimAttributes(userName, claims);
-        awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/" + userName,
+        updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, pathToUsers + "/" + userName,
                 map);
     }
 
@@ -1516,7 +2247,7 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             throw new UserStoreException(AWSConstants.ERROR_WHILE_GETTING_CLAIM_ATTRIBUTE + userName, e);
         }
         map.put(attributeName, null);
-        awsActions.updateObjectAttributes(AWSConstants.DELETE, facetNameOfUser, pathToUsers + "/"
+        updateObjectAttributes(AWSConstants.DELETE, facetNameOfUser, pathToUsers + "/"
                 + userName, map);
     }
 
@@ -1612,18 +2343,16 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (log.isDebugEnabled()) {
             log.debug("Requesting attributes :" + Arrays.toString(propertyNames));
         }
-        String[] propertyNamesSorted = propertyNames.clone();
-        Arrays.sort(propertyNamesSorted);
-        JSONObject objectAttributes = awsActions.listObjectAttributes(facetNameOfUser, pathToUsers + "/" + userName);
-        JSONArray attributes = (JSONArray) objectAttributes.get(AWSConstants.ATTRIBUTES);
-        for (Object attribute : attributes) {
-            JSONObject keyVal = (JSONObject) attribute;
-            String attributeName = ((JSONObject) keyVal.get(AWSConstants.KEY)).get(AWSConstants.NAME).toString();
-            if (Arrays.binarySearch(propertyNamesSorted, attributeName) < 0) {
-                continue;
+        if (propertyNames.length == 0) {
+            return map;
+        }
+        Map<String, String> attributes = getObjectAttributes(facetNameOfUser, pathToUsers + "/" + userName,
+                propertyNames);
+        for (String propertyName : propertyNames) {
+            String value = attributes.get(propertyName);
+            if (value != null) {
+                map.put(propertyName, value);
             }
-            map.put(attributeName, ((JSONObject) keyVal.get(AWSConstants.VALUE))
-                    .get(AWSConstants.STRING_VALUE).toString());
         }
         return map;
     }
@@ -1656,20 +2385,59 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
                     directoryArn));
         }
 
-        //Create group facet.
         String groupFacetName = AWSConstants.GROUP;
+        typedLinkFacetName = AWSConstants.USER_ROLE_ASSOCIATION;
+        Set<String> objectsPath = new LinkedHashSet<>();
+        setObjectPaths(objectsPath, pathToUsers);
+        setObjectPaths(objectsPath, pathToRoles);
+
+        // Look up the existing facets and objects in parallel, since none of these lookups depend on each other.
+        CompletableFuture<JSONObject> groupFacetInfo = awsActions.getFacetInfoAsync(groupFacetName);
+        CompletableFuture<JSONObject> typedLinkFacetInfo = null;
+        if (AWSConstants.LINK.equals(membershipType)) {
+            typedLinkFacetInfo = awsActions.getTypedLinkFacetInformationAsync(typedLinkFacetName);
+        }
+        Map<String, CompletableFuture<JSONObject>> objectInfos = new LinkedHashMap<>();
+        for (String path : objectsPath) {
+            objectInfos.put(path, awsActions.getObjectInformationAsync(path));
+        }
+        Map<String, CompletableFuture<JSONObject>> indexInfos = new LinkedHashMap<>();
+        // Indexes over the names, by which the literal prefixes of the user and role listing filters are sent to the
+        // directory.
+        boolean indexNames = Boolean.parseBoolean(realmConfig.getUserStoreProperty(AWSConstants.INDEX_NAMES));
+        // The filters are anchored only if the names are indexed, since the prefix of an anchored filter is what
+        // the indexes serve. The other stores keep matching the names which contain the filter.
+        anchoredFilters = indexNames;
+        CompletableFuture<JSONObject> roleIndexInfo = null;
+        if (indexNames) {
+            indexInfos.put(userNameAttribute, awsActions.getObjectInformationAsync(
+                    getUserIndexPath(userNameAttribute)));
+            roleIndexInfo = awsActions.getObjectInformationAsync(getIndexPath(pathToRoles, roleNameAttribute));
+        }
+        String searchableAttributes = realmConfig.getUserStoreProperty(AWSConstants.SEARCHABLE_ATTRIBUTES);
+        if (StringUtils.isNotBlank(searchableAttributes)) {
+            for (String attributeName : searchableAttributes.split(",")) {
+                attributeName = attributeName.trim();
+                if (attributeName.equals(passwordAttribute) || attributeName.equals(membershipAttribute)) {
+                    log.warn(String.format("Attribute: %s can not be searchable.", attributeName));
+                } else if (!attributeName.isEmpty() && !indexInfos.containsKey(attributeName)) {
+                    indexInfos.put(attributeName, awsActions.getObjectInformationAsync(
+                            getUserIndexPath(attributeName)));
+                }
+            }
+        }
+
+        //Create group facet.
         Map<String, String> map = new HashMap<>();
-        if (awsActions.getFacetInfo(groupFacetName) == null) {
+        if (awsActions.getResult(groupFacetInfo) == null) {
             map.put(AWSConstants.NAME, AWSConstants.REQUIRED_ALWAYS);
             awsActions.createSchemaFacet(groupFacetName, map);
             map.clear();
         }
 
-        Set<String> objectsPath = new LinkedHashSet<>();
-        setObjectPaths(objectsPath, pathToUsers);
-        setObjectPaths(objectsPath, pathToRoles);
-
-        for (String path : objectsPath) {
+        // Parent objects are created before their children as the paths are ordered from the root.
+        for (Map.Entry<String, CompletableFuture<JSONObject>> objectInfo : objectInfos.entrySet()) {
+            String path = objectInfo.getKey();
             int lastIndex = path.lastIndexOf('/');
             String parentPath;
             if (lastIndex == 0) {
@@ -1678,18 +2446,198 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
                 parentPath = path.substring(0, lastIndex);
             }
             String objectName = path.substring(lastIndex + 1);
-            JSONObject objectInfo = awsActions.getObjectInformation(path);
-            if (objectInfo == null) {
+            if (awsActions.getResult(objectInfo.getValue()) == null) {
                 map.put(AWSConstants.NAME, objectName);
                 awsActions.createObject(objectName, groupFacetName, parentPath, map);
             }
         }
-        typedLinkFacetName = AWSConstants.USER_ROLE_ASSOCIATION;
-        if (AWSConstants.LINK.equals(membershipType) &&
-                awsActions.getTypedLinkFacetInformation(typedLinkFacetName) == null) {
+        if (typedLinkFacetInfo != null && awsActions.getResult(typedLinkFacetInfo) == null) {
             List attributes = Arrays.asList(userNameAttribute, roleNameAttribute);
             awsActions.createTypedLinkFacet(typedLinkFacetName, attributes);
         }
+        Map<String, String> indexes = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<JSONObject>> indexInfo : indexInfos.entrySet()) {
+            String attributeName = indexInfo.getKey();
+            String indexPath = getUserIndexPath(attributeName);
+            if (awsActions.getResult(indexInfo.getValue()) == null) {
+                createIndex(facetNameOfUser, pathToUsers, attributeName, userNameAttribute, indexPath);
+            }
+            indexes.put(attributeName, indexPath);
+        }
+        userIndexes = indexes;
+        if (roleIndexInfo != null) {
+            String indexPath = getIndexPath(pathToRoles, roleNameAttribute);
+            if (awsActions.getResult(roleIndexInfo) == null) {
+                createIndex(facetNameOfRole, pathToRoles, roleNameAttribute, roleNameAttribute, indexPath);
+            }
+            roleNameIndexPath = indexPath;
+        }
+    }
+
+    /**
+     * Get the path of the index over a searchable attribute of the users. Indexes are attached to the root, since
+     * the children of the users path must all be users.
+     *
+     * @param attributeName Name of the searchable attribute.
+     * @return Path of the index.
+     */
+    private String getUserIndexPath(String attributeName) {
+
+        return getIndexPath(pathToUsers, attributeName);
+    }
+
+    /**
+     * Get the path of the index over an attribute of the children of an object.
+     *
+     * @param parentPath    Path of the parent of the indexed objects.
+     * @param attributeName Name of the indexed attribute.
+     * @return Path of the index.
+     */
+    private String getIndexPath(String parentPath, String attributeName) {
+
+        return "/" + AWSConstants.INDEX_LINK_NAME_PREFIX + parentPath.replace('/', '_') + "_" + attributeName;
+    }
+
+    /**
+     * Create the index over an attribute of the children of an object, and attach the existing children which have
+     * the attribute to it. The name of the object is indexed as well, so that searches get the names from the index
+     * itself. If the index can not be fully populated, it is deleted along with its attachments, to be created again
+     * on next start.
+     *
+     * @param facetName     Name of the facet of the indexed objects.
+     * @param parentPath    Path of the parent of the indexed objects.
+     * @param attributeName Name of the indexed attribute.
+     * @param nameAttribute Name of the attribute which holds the name of an object.
+     * @param indexPath     Path of the index.
+     * @throws UserStoreException If error occurred.
+     */
+    private void createIndex(String facetName, String parentPath, String attributeName, String nameAttribute,
+                             String indexPath) throws UserStoreException {
+
+        List<String> indexedAttributes = new ArrayList<>();
+        indexedAttributes.add(attributeName);
+        if (!attributeName.equals(nameAttribute)) {
+            indexedAttributes.add(nameAttribute);
+        }
+        String linkName = indexPath.substring(1);
+        awsActions.createIndex(linkName, "/", facetName, indexedAttributes);
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(
+                AWSRequestScheduler.Priority.BULK);
+        List<String> attachedObjects = new ArrayList<>();
+        try {
+            List<String> selectors = new ArrayList<>();
+            List<String> failedObjects = new ArrayList<>();
+            try (AWSPageIterator<AWSResponseDecoders.ObjectChildren> pages = awsActions.iterateObjectChildNames(null,
+                    parentPath, pagePrefetchDepth)) {
+                while (pages.hasNext()) {
+                    AWSResponseDecoders.ObjectChildren children = pages.next();
+                    Map<String, AWSResponseDecoders.ObjectAttributes> objects = getAttributesOfChildren(facetName,
+                            parentPath, children.getNames(), attributeName);
+                    for (Map.Entry<String, AWSResponseDecoders.ObjectAttributes> object : objects.entrySet()) {
+                        String selector = parentPath + "/" + object.getKey();
+                        if (isReadSuccessful(selector, object.getValue(), failedObjects) &&
+                                object.getValue().getAttributes().get(attributeName) != null) {
+                            selectors.add(selector);
+                        }
+                    }
+                }
+            }
+            if (!failedObjects.isEmpty()) {
+                throw new UserStoreException(String.format("Error while reading the attribute: %s of the objects: %s",
+                        attributeName, failedObjects));
+            }
+            // Each batch write takes effect as a whole, hence the objects attached so far are known on a failure.
+            for (int i = 0; i < selectors.size(); i += AWSConstants.MAX_BATCH_WRITE_OPERATIONS) {
+                List<String> batch = selectors.subList(i, Math.min(i + AWSConstants.MAX_BATCH_WRITE_OPERATIONS,
+                        selectors.size()));
+                List<JSONObject> operations = new ArrayList<>(batch.size());
+                for (String selector : batch) {
+                    operations.add(awsActions.buildIndexOperation(AWSConstants.ATTACH_TO_INDEX, indexPath, selector));
+                }
+                executeBatchOperations(operations);
+                attachedObjects.addAll(batch);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Created the index: %s over the attribute: %s and attached %s objects.",
+                        indexPath, attributeName, attachedObjects.size()));
+            }
+        } catch (UserStoreException e) {
+            deletePartialIndex(linkName, indexPath, attachedObjects);
+            throw e;
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+    }
+
+    /**
+     * Delete an index which could not be fully populated, since it would miss objects. The objects attached to it
+     * are detached first, as they could not be deleted while they are attached to an index which is no longer
+     * known to the user store.
+     *
+     * @param linkName        Name of the link of the index.
+     * @param indexPath       Path of the index.
+     * @param attachedObjects Paths of the objects attached to the index.
+     */
+    private void deletePartialIndex(String linkName, String indexPath, List<String> attachedObjects) {
+
+        List<JSONObject> operations = new ArrayList<>(attachedObjects.size());
+        for (String selector : attachedObjects) {
+            operations.add(awsActions.buildIndexOperation(AWSConstants.DETACH_FROM_INDEX, indexPath, selector));
+        }
+        try {
+            detachAndDeleteObject(linkName, "/", operations);
+            return;
+        } catch (UserStoreException e) {
+            log.error(String.format("Error occurred while deleting the partially populated index: %s.", indexPath),
+                    e);
+        }
+        // The index is at least detached, so that it is not taken for a complete index on next start.
+        try {
+            awsActions.detachObject(linkName, "/");
+            log.error(String.format("Detached the partially populated index: %s. Detach the objects attached to " +
+                    "the index and delete the index, as such objects can not be deleted.", indexPath));
+        } catch (UserStoreException e) {
+            log.error(String.format("Error occurred while detaching the partially populated index: %s. Delete " +
+                    "the index to have it created again.", indexPath), e);
+        }
+    }
+
+    /**
+     * Get the operations to attach a user to, or detach a user from, the indexes over the given attributes.
+     *
+     * @param operationName   {@link AWSConstants#ATTACH_TO_INDEX} or {@link AWSConstants#DETACH_FROM_INDEX}.
+     * @param objectReference The reference that identifies the user in the directory structure.
+     * @param attributes      Attributes of the user. The indexes of the attributes without a value are skipped.
+     * @return Batch write operations.
+     */
+    private List<JSONObject> getIndexOperations(String operationName, String objectReference,
+                                                Map<String, String> attributes) {
+
+        List<JSONObject> operations = new ArrayList<>();
+        for (Map.Entry<String, String> index : userIndexes.entrySet()) {
+            if (attributes.get(index.getKey()) != null) {
+                operations.add(awsActions.buildIndexOperation(operationName, index.getValue(), objectReference));
+            }
+        }
+        return operations;
+    }
+
+    /**
+     * Execute the operations in order, in as few batch writes as Cloud Directory accepts.
+     *
+     * @param operations Batch write operations.
+     * @throws UserStoreException If error occurred.
+     */
+    private void executeBatchOperations(List<JSONObject> operations) throws UserStoreException {
+
+        for (int i = 0; i < operations.size(); i += AWSConstants.MAX_BATCH_WRITE_OPERATIONS) {
+            JSONArray batch = new JSONArray();
+            batch.addAll(operations.subList(i, Math.min(i + AWSConstants.MAX_BATCH_WRITE_OPERATIONS,
+                    operations.size())));
+            JSONObject payload = new JSONObject();
+            payload.put(AWSConstants.OPERATION, batch);
+            awsActions.batchWrite(payload.toJSONString());
+        }
     }
 
     /**
@@ -1710,15 +2658,14 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
 
     protected void addUsersToRole(String[] userList, String roleName) throws UserStoreException {
 
-        Map<String, String> map = new HashMap<>();
-        String targetSelector = pathToRoles + "/" + roleName;
-        for (String userName : userList) {
-            String sourceSelector = pathToUsers + "/" + userName;
-            if (AWSConstants.LINK.equals(membershipType)) {
-                map.put(userNameAttribute, userName);
-                map.put(roleNameAttribute, roleName);
-                awsActions.attachTypedLink(sourceSelector, targetSelector, typedLinkFacetName, map);
-            } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+        if (AWSConstants.LINK.equals(membershipType)) {
+            List<Map.Entry<String, String>> userRolePairs = new ArrayList<>();
+            for (String userName : userList) {
+                userRolePairs.add(new AbstractMap.SimpleImmutableEntry<>(userName, roleName));
+            }
+            attachTypedLinks(userRolePairs);
+        } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
+            for (String userName : userList) {
                 String[] roleList = {roleName};
                 updateUserWithRoles(roleList, userName);
             }
@@ -1729,6 +2676,98 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         }
     }
 
+    /**
+     * Attach the typed links of the given users and roles with batch writes, up to the maximum number of parallel
+     * batches at a time. A batch write either attaches all of its links or none, hence the links of a failed batch
+     * are attached again one by one, to attach the rest and report exactly the pairs which failed.
+     *
+     * @param userRolePairs User names along with the role names to assign them to.
+     * @throws UserStoreException If any of the links could not be attached.
+     */
+    private void attachTypedLinks(List<Map.Entry<String, String>> userRolePairs) throws UserStoreException {
+
+        List<List<Map.Entry<String, String>>> failedBatches = new ArrayList<>();
+        ArrayDeque<Map.Entry<List<Map.Entry<String, String>>, CompletableFuture<JSONObject>>> inFlightBatches =
+                new ArrayDeque<>();
+        try {
+            for (int i = 0; i < userRolePairs.size(); i += AWSConstants.MAX_BATCH_WRITE_OPERATIONS) {
+                List<Map.Entry<String, String>> batch = userRolePairs.subList(i,
+                        Math.min(i + AWSConstants.MAX_BATCH_WRITE_OPERATIONS, userRolePairs.size()));
+                if (inFlightBatches.size() >= maxParallelBatches) {
+                    awaitBatch(inFlightBatches.poll(), failedBatches);
+                }
+                JSONArray operations = new JSONArray();
+                for (Map.Entry<String, String> userRolePair : batch) {
+                    operations.add(awsActions.buildAttachTypedLinkOperation(
+                            pathToUsers + "/" + userRolePair.getKey(), pathToRoles + "/" + userRolePair.getValue(),
+                            typedLinkFacetName, getTypedLinkAttributes(userRolePair)));
+                }
+                JSONObject payload = new JSONObject();
+                payload.put(AWSConstants.OPERATION, operations);
+                inFlightBatches.add(new AbstractMap.SimpleImmutableEntry<>(batch,
+                        awsActions.batchWriteAsync(payload.toJSONString())));
+            }
+            while (!inFlightBatches.isEmpty()) {
+                awaitBatch(inFlightBatches.poll(), failedBatches);
+            }
+            List<String> failedPairs = new ArrayList<>();
+            for (List<Map.Entry<String, String>> batch : failedBatches) {
+                for (Map.Entry<String, String> userRolePair : batch) {
+                    try {
+                        awsActions.attachTypedLink(pathToUsers + "/" + userRolePair.getKey(),
+                                pathToRoles + "/" + userRolePair.getValue(), typedLinkFacetName,
+                                getTypedLinkAttributes(userRolePair));
+                    } catch (UserStoreException e) {
+                        log.error(String.format("Error while assigning the user: %s to the role: %s",
+                                userRolePair.getKey(), userRolePair.getValue()), e);
+                        failedPairs.add(userRolePair.getKey() + " -> " + userRolePair.getValue());
+                    }
+                }
+            }
+            if (!failedPairs.isEmpty()) {
+                throw new UserStoreException(String.format("Error while assigning %s of %s users to roles. Failed " +
+                        "user and role pairs: %s", failedPairs.size(), userRolePairs.size(), failedPairs));
+            }
+        } finally {
+            for (Map.Entry<String, String> userRolePair : userRolePairs) {
+                invalidateMembership(userRolePair.getKey());
+            }
+        }
+    }
+
+    /**
+     * Wait for a batch write to complete, and collect the batch if it failed.
+     *
+     * @param batch         Batch along with the future of its batch write.
+     * @param failedBatches Batches which failed.
+     * @param <T>           Type of the batch.
+     */
+    private <T> void awaitBatch(Map.Entry<T, CompletableFuture<JSONObject>> batch, List<T> failedBatches) {
+
+        try {
+            awsActions.getResult(batch.getValue());
+        } catch (UserStoreException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Batch write failed. Its operations are sent one by one.", e);
+            }
+            failedBatches.add(batch.getKey());
+        }
+    }
+
+    /**
+     * Get the identity attributes of the typed link between a user and a role.
+     *
+     * @param userRolePair User name along with the role name.
+     * @return Attribute values against the attribute names.
+     */
+    private Map<String, String> getTypedLinkAttributes(Map.Entry<String, String> userRolePair) {
+
+        Map<String, String> map = new HashMap<>();
+        map.put(userNameAttribute, userRolePair.getKey());
+        map.put(roleNameAttribute, userRolePair.getValue());
+        return map;
+    }
+
     /**
      * Assign role list to user.
      *
@@ -1738,10 +2777,18 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
      */
     protected void addRolesToUser(String userName, String[] roleList) throws UserStoreException {
 
-        String sourceSelector = pathToUsers + "/" + userName;
-        for (String role : roleList) {
-            String targetSelector = pathToRoles + "/" + role;
-            assignUserToRole(userName, role, sourceSelector, targetSelector);
+        if (AWSConstants.LINK.equals(membershipType)) {
+            List<Map.Entry<String, String>> userRolePairs = new ArrayList<>();
+            for (String role : roleList) {
+                userRolePairs.add(new AbstractMap.SimpleImmutableEntry<>(userName, role));
+            }
+            attachTypedLinks(userRolePairs);
+        } else {
+            String sourceSelector = pathToUsers + "/" + userName;
+            for (String role : roleList) {
+                String targetSelector = pathToRoles + "/" + role;
+                assignUserToRole(userName, role, sourceSelector, targetSelector);
+            }
         }
         if (log.isDebugEnabled()) {
             log.debug(String.format("Roles: %s are added to user: %s successfully", Arrays.toString(roleList),
@@ -1778,7 +2825,13 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             users.append(",").append(existingUsers);
         }
         map.put(memberOfAttribute, users.toString());
-        awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, targetSelector, map);
+        try {
+            updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfRole, targetSelector, map);
+        } finally {
+            for (String userName : userList) {
+                invalidateMembership(userName);
+            }
+        }
     }
 
     /**
@@ -1811,7 +2864,11 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
             roles.append(",").append(existingRoles);
         }
         map.put(membershipAttribute, roles.toString());
-        awsActions.updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, sourceSelector, map);
+        try {
+            updateObjectAttributes(AWSConstants.CREATE_OR_UPDATE, facetNameOfUser, sourceSelector, map);
+        } finally {
+            invalidateMembership(userName);
+        }
     }
 
     /**
@@ -1830,7 +2887,11 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
         if (AWSConstants.LINK.equals(membershipType)) {
             map.put(userNameAttribute, userName);
             map.put(roleNameAttribute, role);
-            awsActions.attachTypedLink(sourceSelector, targetSelector, typedLinkFacetName, map);
+            try {
+                awsActions.attachTypedLink(sourceSelector, targetSelector, typedLinkFacetName, map);
+            } finally {
+                invalidateMembership(userName);
+            }
         } else if (AWSConstants.ATTRIBUTE.equals(membershipType)) {
             String[] userList = {userName};
             updateRoleWithUsers(userList, role);
@@ -1849,19 +2910,212 @@ public class AWSUserStoreManager extends AbstractUserStoreManager {
     protected String getAttributeValue(String facetName, String objectReference, String attributeKey)
             throws UserStoreException {
 
-        JSONObject objectAttributes = awsActions.listObjectAttributes(facetName, objectReference);
-        JSONArray attributes = (JSONArray) objectAttributes.get(AWSConstants.ATTRIBUTES);
-        String attributeValue = null;
-        for (Object attribute : attributes) {
-            JSONObject keyVal = (JSONObject) attribute;
-            JSONObject key = (JSONObject) keyVal.get(AWSConstants.KEY);
-            JSONObject value = (JSONObject) keyVal.get(AWSConstants.VALUE);
-            if (attributeKey.equals(key.get(AWSConstants.NAME))) {
-                attributeValue = value.get(AWSConstants.STRING_VALUE).toString();
-                break;
+        return getObjectAttributes(facetName, objectReference, attributeKey).get(attributeKey);
+    }
+
+    /**
+     * Get the attributes of an object through the attribute cache. On a cache miss all the attributes of the object
+     * are read, so that the cached entry serves the lookups of any attribute. The password hash is never cached,
+     * hence it is always read from the directory.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributeNames  Names of the attributes needed, which are the only ones read if the object is not
+     *                        going to be cached.
+     * @return Attribute values against the attribute names.
+     * @throws UserStoreException If error occurred.
+     */
+    private Map<String, String> getObjectAttributes(String facetName, String objectReference,
+                                                    String... attributeNames) throws UserStoreException {
+
+        if (!attributeCache.isEnabled() || Arrays.asList(attributeNames).contains(passwordAttribute)) {
+            return awsActions.listObjectAttributeValues(facetName, objectReference, attributeNames);
+        }
+        String key = getAttributeCacheKey(facetName, objectReference);
+        Map<String, String> attributes = attributeCache.get(key);
+        if (attributes != null) {
+            return attributes;
+        }
+        // Bulk searches read every object once, hence they would only evict the entries of the active users.
+        if (AWSRequestScheduler.getPriority() == AWSRequestScheduler.Priority.BULK) {
+            return awsActions.listObjectAttributeValues(facetName, objectReference, attributeNames);
+        }
+        long invalidationCount = attributeCache.getInvalidationCount();
+        attributes = new HashMap<>(awsActions.listObjectAttributeValues(facetName, objectReference));
+        attributes.remove(passwordAttribute);
+        attributes = Collections.unmodifiableMap(attributes);
+        attributeCache.putIfNotInvalidated(key, attributes, invalidationCount);
+        return attributes;
+    }
+
+    /**
+     * Update the attributes of an object, and update the cached attributes of the object in place. The cached
+     * attributes are dropped if the update fails, since it might have taken effect partially.
+     *
+     * @param action          The action to perform when updating the attribute.
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributes      Attributes to update.
+     * @throws UserStoreException If error occurred.
+     */
+    private void updateObjectAttributes(String action, String facetName, String objectReference,
+                                        Map<String, String> attributes) throws UserStoreException {
+
+        String key = getAttributeCacheKey(facetName, objectReference);
+        try {
+            if (facetName.equals(facetNameOfUser) &&
+                    !Collections.disjoint(userIndexes.keySet(), attributes.keySet())) {
+                updateIndexedObjectAttributes(action, facetName, objectReference, attributes);
+            } else {
+                awsActions.updateObjectAttributes(action, facetName, objectReference, attributes);
+            }
+        } catch (UserStoreException e) {
+            attributeCache.remove(key);
+            throw e;
+        }
+        attributeCache.update(key, cached -> {
+            Map<String, String> updated = new HashMap<>(cached);
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                if (attribute.getKey().equals(passwordAttribute)) {
+                    continue;
+                }
+                if (AWSConstants.DELETE.equals(action)) {
+                    updated.remove(attribute.getKey());
+                } else if (attribute.getValue() == null) {
+                    // The stored value is not known, hence drop the whole entry.
+                    return null;
+                } else {
+                    updated.put(attribute.getKey(), attribute.getValue());
+                }
+            }
+            return Collections.unmodifiableMap(updated);
+        });
+    }
+
+    /**
+     * Update the attributes of a user, and attach the user to, or detach the user from, the indexes over the
+     * updated attributes in the same batch write. Hence the index attachments never fall out of step with the
+     * attribute values, which a later update could not tell apart and repair.
+     *
+     * @param action          The action to perform when updating the attribute.
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the user in the directory structure.
+     * @param attributes      Attributes to update.
+     * @throws UserStoreException If error occurred.
+     */
+    private void updateIndexedObjectAttributes(String action, String facetName, String objectReference,
+                                               Map<String, String> attributes) throws UserStoreException {
+
+        // Read the indexed attributes from the directory, since attaching a user to an index twice fails, and so
+        // does detaching a user which is not attached.
+        Map<String, String> indexedAttributes = awsActions.listObjectAttributeValues(facetName, objectReference,
+                userIndexes.keySet().toArray(new String[0]));
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.UPDATE_OBJECT_ATTRIBUTES, awsActions.buildPayloadToUpdateObjectAttributes(action,
+                facetName, objectReference, attributes));
+        JSONArray operations = new JSONArray();
+        if (AWSConstants.DELETE.equals(action)) {
+            Map<String, String> deletedAttributes = new HashMap<>(indexedAttributes);
+            deletedAttributes.keySet().retainAll(attributes.keySet());
+            operations.addAll(getIndexOperations(AWSConstants.DETACH_FROM_INDEX, objectReference,
+                    deletedAttributes));
+            operations.add(operation);
+        } else {
+            Map<String, String> addedAttributes = new HashMap<>(attributes);
+            addedAttributes.keySet().removeAll(indexedAttributes.keySet());
+            operations.add(operation);
+            operations.addAll(getIndexOperations(AWSConstants.ATTACH_TO_INDEX, objectReference, addedAttributes));
+        }
+        JSONObject payload = new JSONObject();
+        payload.put(AWSConstants.OPERATION, operations);
+        awsActions.batchWrite(payload.toJSONString());
+    }
+
+    /**
+     * Drop the cached attributes of an object.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     */
+    private void invalidateObjectAttributes(String facetName, String objectReference) {
+
+        attributeCache.remove(getAttributeCacheKey(facetName, objectReference));
+    }
+
+    private static String getAttributeCacheKey(String facetName, String objectReference) {
+
+        // Facet names can not contain a colon, hence the key is unambiguous.
+        return facetName + ":" + objectReference;
+    }
+
+    /**
+     * Approximate the heap size of the cached attributes of an object.
+     *
+     * @param key        Cache key.
+     * @param attributes Attributes.
+     * @return Approximate size in bytes.
+     */
+    private static int getAttributesWeight(String key, Map<String, String> attributes) {
+
+        int weight = AWSConstants.ATTRIBUTE_CACHE_ENTRY_OVERHEAD + 2 * key.length();
+        for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+            weight += AWSConstants.ATTRIBUTE_OVERHEAD + 2 * attribute.getKey().length();
+            if (attribute.getValue() != null) {
+                weight += 2 * attribute.getValue().length();
             }
         }
-        return attributeValue;
+        return weight;
+    }
+
+    /**
+     * Get the statistics of the attribute cache of this user store, which are the hit, miss and eviction counts
+     * along with the approximate heap size of the cached entries in bytes.
+     *
+     * @return Statistics against their names.
+     */
+    public Map<String, Long> getAttributeCacheStatistics() {
+
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put(AWSConstants.HIT_COUNT, attributeCache.getHitCount());
+        statistics.put(AWSConstants.MISS_COUNT, attributeCache.getMissCount());
+        statistics.put(AWSConstants.EVICTION_COUNT, attributeCache.getEvictionCount());
+        statistics.put(AWSConstants.WEIGHT, attributeCache.getWeight());
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Get the statistics of the requests sent to Cloud Directory by this user store. For each priority class, the
+     * statistics are the queue depth, the average and the maximum wait time in milliseconds and the number of
+     * requests shed because the queue was full. The names are prefixed with the priority class, as in
+     * "INTERACTIVE.QueueDepth". For each endpoint, the statistics are the state of its circuit, the number of times
+     * the circuit opened and the number of requests failed fast while it was open, prefixed with the endpoint. The
+     * numbers of timed out requests, of hedges sent, of hedges which won and of reads which shared the response of
+     * an identical read in flight follow them.
+     *
+     * @return Statistics against their names.
+     */
+    public Map<String, Object> getRequestStatistics() {
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        AWSRequestScheduler requestScheduler = awsActions.getRequestScheduler();
+        for (AWSRequestScheduler.Priority priority : AWSRequestScheduler.Priority.values()) {
+            statistics.put(priority + "." + AWSConstants.QUEUE_DEPTH, requestScheduler.getQueueDepth(priority));
+            statistics.put(priority + "." + AWSConstants.AVERAGE_WAIT_TIME,
+                    requestScheduler.getAverageWaitTime(priority));
+            statistics.put(priority + "." + AWSConstants.MAX_WAIT_TIME, requestScheduler.getMaxWaitTime(priority));
+            statistics.put(priority + "." + AWSConstants.REJECTED_COUNT, requestScheduler.getRejectedCount(priority));
+        }
+        AWSCircuitBreaker circuitBreaker = awsActions.getCircuitBreaker();
+        for (AWSEndpoint endpoint : AWSEndpoint.values()) {
+            statistics.put(endpoint + "." + AWSConstants.CIRCUIT_STATE, circuitBreaker.getState(endpoint));
+            statistics.put(endpoint + "." + AWSConstants.CIRCUIT_OPEN_COUNT, circuitBreaker.getOpenCount(endpoint));
+            statistics.put(endpoint + "." + AWSConstants.REJECTED_COUNT, circuitBreaker.getRejectedCount(endpoint));
+        }
+        statistics.put(AWSConstants.TIMED_OUT_REQUEST_COUNT, awsActions.getTimedOutRequestCount());
+        statistics.put(AWSConstants.HEDGED_REQUEST_COUNT, awsActions.getHedgedRequestCount());
+        statistics.put(AWSConstants.HEDGE_WIN_COUNT, awsActions.getHedgeWinCount());
+        statistics.put(AWSConstants.COALESCED_REQUEST_COUNT, awsActions.getCoalescedRequestCount());
+        return Collections.unmodifiableMap(statistics);
     }
 
     /**
@@ -103,6 +103,56 @@ public class AWSUserStoreProperties {
         setAdvancedProperty(AWSConstants.PASS_HASH_METHOD, "PLAIN_TEXT");
         setAdvancedProperty(UserCoreConstants.RealmConfig.PROPERTY_MAX_USER_LIST, "100");
         setAdvancedProperty(UserCoreConstants.RealmConfig.PROPERTY_MAX_ROLE_LIST, "100");
+        setAdvancedProperty(AWSConstants.MAX_TOTAL_CONNECTIONS,
+                String.valueOf(AWSConstants.DEFAULT_MAX_TOTAL_CONNECTIONS));
+        setAdvancedProperty(AWSConstants.MAX_CONNECTIONS_PER_ROUTE,
+                String.valueOf(AWSConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        setAdvancedProperty(AWSConstants.IDLE_CONNECTION_TIMEOUT,
+                String.valueOf(AWSConstants.DEFAULT_IDLE_CONNECTION_TIMEOUT));
+        setAdvancedProperty(AWSConstants.IO_THREAD_COUNT, String.valueOf(Runtime.getRuntime().availableProcessors()));
+        setAdvancedProperty(AWSConstants.MAX_RETRIES, String.valueOf(AWSConstants.DEFAULT_MAX_RETRIES));
+        setAdvancedProperty(AWSConstants.RETRY_BASE_DELAY, String.valueOf(AWSConstants.DEFAULT_RETRY_BASE_DELAY));
+        setAdvancedProperty(AWSConstants.RETRY_MAX_DELAY, String.valueOf(AWSConstants.DEFAULT_RETRY_MAX_DELAY));
+        setAdvancedProperty(AWSConstants.MAX_CONCURRENT_REQUESTS,
+                String.valueOf(AWSConstants.DEFAULT_MAX_CONCURRENT_REQUESTS));
+        setAdvancedProperty(AWSConstants.CONNECT_TIMEOUT, String.valueOf(AWSConstants.DEFAULT_CONNECT_TIMEOUT));
+        setAdvancedProperty(AWSConstants.SOCKET_TIMEOUT, String.valueOf(AWSConstants.DEFAULT_SOCKET_TIMEOUT));
+        setAdvancedProperty(AWSConstants.REQUEST_TIMEOUT, String.valueOf(AWSConstants.DEFAULT_REQUEST_TIMEOUT));
+        setAdvancedProperty(AWSConstants.HEDGE_PERCENTILE, String.valueOf(AWSConstants.DEFAULT_HEDGE_PERCENTILE));
+        setAdvancedProperty(AWSConstants.CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                String.valueOf(AWSConstants.DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD));
+        setAdvancedProperty(AWSConstants.CIRCUIT_BREAKER_OPEN_DURATION,
+                String.valueOf(AWSConstants.DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION));
+        setAdvancedProperty(AWSConstants.EXISTENCE_CACHE_SIZE,
+                String.valueOf(AWSConstants.DEFAULT_EXISTENCE_CACHE_SIZE));
+        setAdvancedProperty(AWSConstants.EXISTENCE_CACHE_TIMEOUT,
+                String.valueOf(AWSConstants.DEFAULT_EXISTENCE_CACHE_TIMEOUT));
+        setAdvancedProperty(AWSConstants.ATTRIBUTE_CACHE_SIZE,
+                String.valueOf(AWSConstants.DEFAULT_ATTRIBUTE_CACHE_SIZE));
+        setAdvancedProperty(AWSConstants.ATTRIBUTE_CACHE_TIMEOUT,
+                String.valueOf(AWSConstants.DEFAULT_ATTRIBUTE_CACHE_TIMEOUT));
+        setAdvancedProperty(AWSConstants.MEMBERSHIP_CACHE_SIZE,
+                String.valueOf(AWSConstants.DEFAULT_MEMBERSHIP_CACHE_SIZE));
+        setAdvancedProperty(AWSConstants.MEMBERSHIP_CACHE_TIMEOUT,
+                String.valueOf(AWSConstants.DEFAULT_MEMBERSHIP_CACHE_TIMEOUT));
+        setAdvancedProperty(AWSConstants.UNKNOWN_USER_CACHE_SIZE,
+                String.valueOf(AWSConstants.DEFAULT_UNKNOWN_USER_CACHE_SIZE));
+        setAdvancedProperty(AWSConstants.UNKNOWN_USER_CACHE_TIMEOUT,
+                String.valueOf(AWSConstants.DEFAULT_UNKNOWN_USER_CACHE_TIMEOUT));
+        setAdvancedProperty(AWSConstants.KNOWN_USER_FILTER_SIZE,
+                String.valueOf(AWSConstants.DEFAULT_KNOWN_USER_FILTER_SIZE));
+        setAdvancedProperty(AWSConstants.KNOWN_USER_FILTER_REFRESH_INTERVAL,
+                String.valueOf(AWSConstants.DEFAULT_KNOWN_USER_FILTER_REFRESH_INTERVAL));
+        setAdvancedProperty(AWSConstants.SEARCHABLE_ATTRIBUTES, "");
+        setAdvancedProperty(AWSConstants.INDEX_NAMES, "Index Names", "false",
+                "Whether the user and role names are indexed. The listing filters of an indexed store match whole " +
+                        "names, hence \"ab*\" matches the names which start with \"ab\", while those of a store " +
+                        "without the indexes match the names which contain the filter, hence \"ab*\" matches the " +
+                        "names which contain \"ab\"");
+        setAdvancedProperty(AWSConstants.MAX_PARALLEL_BATCHES,
+                String.valueOf(AWSConstants.DEFAULT_MAX_PARALLEL_BATCHES));
+        setAdvancedProperty(AWSConstants.PAGE_PREFETCH_DEPTH,
+                String.valueOf(AWSConstants.DEFAULT_PAGE_PREFETCH_DEPTH));
     }
 
     private static void setMandatoryProperty(String name, String displayName, String value, String description,
@@ -127,4 +177,10 @@ public class AWSUserStoreProperties {
         Property property = new Property(name, value, "", null);
         AWS_ADVANCED_PROPERTIES.add(property);
     }
+
+    private static void setAdvancedProperty(String name, String displayName, String value, String description) {
+
+        Property property = new Property(name, value, displayName + "#" + description, null);
+        AWS_ADVANCED_PROPERTIES.add(property);
+    }
 }
@@ -22,6 +22,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.aws.user.store.mgt.AWSUserStoreManager;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSHttpClientProvider;
 import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.user.core.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
@@ -61,6 +62,8 @@ public class AWSUserStoreManagerServiceComponent {
      */
     protected void deactivate(ComponentContext context) {
 
+        // Release the pooled connections to AWS Cloud Directory.
+        AWSHttpClientProvider.shutdown();
         if (log.isDebugEnabled()) {
             log.debug("AWS User Store Manager is deactivated ");
         }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.wso2.carbon.user.core.UserStoreException;
+
+/**
+ * Failure of a batch write, along with the operation which caused it. None of the operations of a failed batch
+ * write take effect.
+ */
+public class AWSBatchWriteException extends UserStoreException {
+
+    private static final long serialVersionUID = 4532760741384213297L;
+
+    private final int index;
+    private final String type;
+
+    /**
+     * @param message Error message.
+     * @param index   Index of the operation which failed, or -1 if not known.
+     * @param type    Type of the failure of the operation, or null if not known.
+     */
+    public AWSBatchWriteException(String message, int index, String type) {
+
+        super(message);
+        this.index = index;
+        this.type = type;
+    }
+
+    /**
+     * Get the index of the operation which failed.
+     *
+     * @return Index of the operation, or -1 if not known.
+     */
+    public int getIndex() {
+
+        return index;
+    }
+
+    /**
+     * Get the type of the failure of the operation, such as LinkNameAlreadyInUseException.
+     *
+     * @return Failure type, or null if not known.
+     */
+    public String getType() {
+
+        return type;
+    }
+}
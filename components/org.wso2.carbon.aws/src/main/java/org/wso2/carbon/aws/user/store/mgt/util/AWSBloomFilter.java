@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe bloom filter of strings. A string which was never put is reported as absent with the given false
+ * positive probability, while a string which was put is never reported as absent. Strings can not be removed.
+ */
+public class AWSBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions       Number of strings expected to be put.
+     * @param falsePositiveProbability False positive probability once the expected number of strings are put.
+     */
+    public AWSBloomFilter(int expectedInsertions, double falsePositiveProbability) {
+
+        int insertions = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+        bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        bitCount = bits.length() * 64L;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / insertions * LN2));
+    }
+
+    /**
+     * Put a string into the filter.
+     *
+     * @param value String.
+     */
+    public void put(String value) {
+
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * Check whether a string might have been put into the filter.
+     *
+     * @param value String.
+     * @return False if the string was definitely never put.
+     */
+    public boolean mightContain(String value) {
+
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((hash1 + (long) i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the characters, followed by the finalizer of MurmurHash3 to spread the bits.
+     */
+    private static long hash(String value) {
+
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.http.nio.ContentDecoder;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of growable byte buffers used for the request payloads and response bodies of the Cloud Directory calls, so
+ * that the bodies do not have to be copied into fresh arrays on every request.
+ */
+public class AWSByteBufferPool {
+
+    private static final BlockingQueue<PooledByteBuffer> buffers =
+            new ArrayBlockingQueue<>(AWSConstants.BYTE_BUFFER_POOL_SIZE);
+
+    private AWSByteBufferPool() {
+
+    }
+
+    /**
+     * Take an empty buffer from the pool, or create one if the pool is empty.
+     *
+     * @return Empty buffer.
+     */
+    public static PooledByteBuffer acquire() {
+
+        PooledByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : new PooledByteBuffer();
+    }
+
+    /**
+     * Growable byte buffer which is returned to the pool once released. Buffers which grew beyond
+     * {@link AWSConstants#MAX_POOLED_BUFFER_SIZE} are left to the garbage collector instead.
+     */
+    public static class PooledByteBuffer extends ByteArrayOutputStream {
+
+        // Encodes the payloads straight into this buffer.
+        private final Writer writer = new OutputStreamWriter(this, StandardCharsets.UTF_8);
+
+        private PooledByteBuffer() {
+
+            super(AWSConstants.INITIAL_BUFFER_SIZE);
+        }
+
+        /**
+         * Encode the given string into this buffer as UTF-8.
+         *
+         * @param value String to write.
+         * @throws IOException If the string could not be encoded.
+         */
+        public void write(String value) throws IOException {
+
+            writer.write(value);
+            writer.flush();
+        }
+
+        /**
+         * Read all the content that is currently available from the decoder into this buffer.
+         *
+         * @param decoder Content decoder of the response.
+         * @throws IOException If the content could not be read.
+         */
+        public synchronized void readFrom(ContentDecoder decoder) throws IOException {
+
+            int bytesRead;
+            do {
+                if (count == buf.length) {
+                    buf = Arrays.copyOf(buf, buf.length << 1);
+                }
+                bytesRead = decoder.read(ByteBuffer.wrap(buf, count, buf.length - count));
+                if (bytesRead > 0) {
+                    count += bytesRead;
+                }
+            } while (bytesRead > 0);
+        }
+
+        /**
+         * Get the backing array of this buffer. Only the first {@link #size()} bytes are valid.
+         *
+         * @return Backing array.
+         */
+        public synchronized byte[] getBuffer() {
+
+            return buf;
+        }
+
+        /**
+         * Get an input stream over the content of this buffer, without copying it.
+         *
+         * @return Input stream.
+         */
+        public synchronized InputStream getInputStream() {
+
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+
+        /**
+         * Reset this buffer and return it to the pool. The buffer must not be used after it is released.
+         */
+        public synchronized void release() {
+
+            if (buf.length > AWSConstants.MAX_POOLED_BUFFER_SIZE) {
+                return;
+            }
+            reset();
+            buffers.offer(this);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.api.RealmConfiguration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker per Cloud Directory endpoint. The circuit of an endpoint opens after a number of consecutive
+ * failures, and the requests to the endpoint fail fast while it is open. Once the open duration passes, a single
+ * trial request is let through, and the circuit closes again if it succeeds.
+ */
+public class AWSCircuitBreaker {
+
+    private static final Log log = LogFactory.getLog(AWSCircuitBreaker.class);
+    private final Map<AWSEndpoint, Circuit> circuits = new EnumMap<>(AWSEndpoint.class);
+    private final int failureThreshold;
+    private final long openDuration;
+
+    public AWSCircuitBreaker(RealmConfiguration realmConfig) {
+
+        failureThreshold = AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.CIRCUIT_BREAKER_FAILURE_THRESHOLD, AWSConstants.DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+        openDuration = TimeUnit.MILLISECONDS.toNanos(AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.CIRCUIT_BREAKER_OPEN_DURATION, AWSConstants.DEFAULT_CIRCUIT_BREAKER_OPEN_DURATION));
+        for (AWSEndpoint endpoint : AWSEndpoint.values()) {
+            circuits.put(endpoint, new Circuit());
+        }
+    }
+
+    /**
+     * Check whether a request to the endpoint may be sent.
+     *
+     * @param endpoint Endpoint of the request.
+     * @return False if the circuit of the endpoint is open, hence the request should fail fast.
+     */
+    public boolean allowRequest(AWSEndpoint endpoint) {
+
+        if (failureThreshold <= 0) {
+            return true;
+        }
+        Circuit circuit = circuits.get(endpoint);
+        synchronized (circuit) {
+            if (circuit.state == State.CLOSED) {
+                return true;
+            }
+            long now = System.nanoTime();
+            // A trial request which never reported back does not keep the circuit half open forever.
+            if (now - circuit.openedTime >= openDuration) {
+                circuit.state = State.HALF_OPEN;
+                circuit.openedTime = now;
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Circuit of %s is half open. Sending a trial request.", endpoint));
+                }
+                return true;
+            }
+            circuit.rejectedRequests++;
+            return false;
+        }
+    }
+
+    /**
+     * Record the outcome of a request to the endpoint.
+     *
+     * @param endpoint Endpoint of the request.
+     * @param success  Whether the endpoint responded without a server side failure.
+     */
+    public void record(AWSEndpoint endpoint, boolean success) {
+
+        if (failureThreshold <= 0) {
+            return;
+        }
+        Circuit circuit = circuits.get(endpoint);
+        synchronized (circuit) {
+            if (success) {
+                if (circuit.state != State.CLOSED && log.isDebugEnabled()) {
+                    log.debug(String.format("Circuit of %s is closed.", endpoint));
+                }
+                circuit.state = State.CLOSED;
+                circuit.consecutiveFailures = 0;
+                return;
+            }
+            circuit.consecutiveFailures++;
+            if (circuit.state == State.HALF_OPEN || (circuit.state == State.CLOSED &&
+                    circuit.consecutiveFailures >= failureThreshold)) {
+                circuit.state = State.OPEN;
+                circuit.openedTime = System.nanoTime();
+                circuit.openCount++;
+                log.warn(String.format("Circuit of %s is open after %s consecutive failures. Requests to the " +
+                        "endpoint fail fast for %s ms.", endpoint, circuit.consecutiveFailures,
+                        TimeUnit.NANOSECONDS.toMillis(openDuration)));
+            }
+        }
+    }
+
+    /**
+     * Get the state of the circuit of an endpoint.
+     *
+     * @param endpoint Endpoint.
+     * @return State of the circuit.
+     */
+    public State getState(AWSEndpoint endpoint) {
+
+        Circuit circuit = circuits.get(endpoint);
+        synchronized (circuit) {
+            return circuit.state;
+        }
+    }
+
+    /**
+     * Get the number of times the circuit of an endpoint opened.
+     *
+     * @param endpoint Endpoint.
+     * @return Number of times opened.
+     */
+    public long getOpenCount(AWSEndpoint endpoint) {
+
+        Circuit circuit = circuits.get(endpoint);
+        synchronized (circuit) {
+            return circuit.openCount;
+        }
+    }
+
+    /**
+     * Get the number of requests to an endpoint failed fast while its circuit was open.
+     *
+     * @param endpoint Endpoint.
+     * @return Number of rejected requests.
+     */
+    public long getRejectedCount(AWSEndpoint endpoint) {
+
+        Circuit circuit = circuits.get(endpoint);
+        synchronized (circuit) {
+            return circuit.rejectedRequests;
+        }
+    }
+
+    /**
+     * States of a circuit.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Circuit of a single endpoint.
+     */
+    private static class Circuit {
+
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedTime;
+        private long openCount;
+        private long rejectedRequests;
+    }
+}
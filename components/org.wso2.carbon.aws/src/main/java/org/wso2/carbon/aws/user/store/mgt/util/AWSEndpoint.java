@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+/**
+ * Amazon Cloud Directory REST endpoints used by the user store, along with the http method and the headers each of
+ * them is called with.
+ */
+public enum AWSEndpoint {
+
+    LIST_DIRECTORIES(AWSConstants.HTTP_POST, AWSConstants.LIST_DIRECTORIES, Partition.NONE, false, true),
+    LIST_OUTGOING_TYPEDLINK(AWSConstants.HTTP_POST, AWSConstants.LIST_OUTGOING_TYPEDLINK, Partition.DIRECTORY, false,
+            true),
+    LIST_INCOMING_TYPEDLINK(AWSConstants.HTTP_POST, AWSConstants.LIST_INCOMING_TYPEDLINK, Partition.DIRECTORY, false,
+            true),
+    GET_FACET(AWSConstants.HTTP_POST, AWSConstants.FACET, Partition.SCHEMA, false, true),
+    GET_TYPED_LINK_FACET(AWSConstants.HTTP_POST, AWSConstants.GET_TYPED_LINK_FACET, Partition.SCHEMA, false, true),
+    LIST_OBJECT_CHILDREN(AWSConstants.HTTP_POST, AWSConstants.LIST_OBJECT_CHILDREN, Partition.DIRECTORY, true, true),
+    GET_OBJECT_INFORMATION(AWSConstants.HTTP_POST, AWSConstants.GET_OBJECT_INFORMATION, Partition.DIRECTORY, true,
+            true),
+    LIST_OBJECT_ATTRIBUTES(AWSConstants.HTTP_POST, AWSConstants.LIST_OBJECT_ATTRIBUTES, Partition.DIRECTORY, true,
+            true),
+    DELETE_OBJECT(AWSConstants.HTTP_PUT, AWSConstants.DELETE_OBJECT, Partition.DIRECTORY, false, false),
+    UPDATE_OBJECT(AWSConstants.HTTP_PUT, AWSConstants.UPDATE_OBJECT, Partition.DIRECTORY, false, false),
+    DETACH_TYPEDLINK(AWSConstants.HTTP_PUT, AWSConstants.DETACH_TYPEDLINK, Partition.DIRECTORY, false, false),
+    BATCH_WRITE(AWSConstants.HTTP_PUT, AWSConstants.BATCH_WRITE, Partition.DIRECTORY, false, false),
+    BATCH_READ(AWSConstants.HTTP_POST, AWSConstants.BATCH_READ, Partition.DIRECTORY, true, true),
+    DETACH_OBJECT(AWSConstants.HTTP_PUT, AWSConstants.DETACH_OBJECT, Partition.DIRECTORY, false, false),
+    ATTACH_TYPEDLINK(AWSConstants.HTTP_PUT, AWSConstants.ATTACH_TYPEDLINK, Partition.DIRECTORY, false, false),
+    CREATE_OBJECT(AWSConstants.HTTP_PUT, AWSConstants.CREATE_OBJECT, Partition.DIRECTORY, false, false),
+    CREATE_TYPEDLINK(AWSConstants.HTTP_PUT, AWSConstants.CREATE_TYPEDLINK, Partition.SCHEMA, false, false),
+    CREATE_FACET(AWSConstants.HTTP_PUT, AWSConstants.CREATE_FACET, Partition.SCHEMA, false, false),
+    CREATE_INDEX(AWSConstants.HTTP_PUT, AWSConstants.CREATE_INDEX, Partition.DIRECTORY, false, false),
+    LIST_INDEX(AWSConstants.HTTP_POST, AWSConstants.LIST_INDEX, Partition.DIRECTORY, true, true);
+
+    private final String httpMethod;
+    private final String path;
+    private final Partition partition;
+    private final boolean serializable;
+    private final boolean read;
+
+    AWSEndpoint(String httpMethod, String path, Partition partition, boolean serializable, boolean read) {
+
+        this.httpMethod = httpMethod;
+        this.path = path;
+        this.partition = partition;
+        this.serializable = serializable;
+        this.read = read;
+    }
+
+    /**
+     * Get the http method of the endpoint.
+     *
+     * @return Http method.
+     */
+    public String getHttpMethod() {
+
+        return httpMethod;
+    }
+
+    /**
+     * Get the path of the endpoint relative to the versioned Cloud Directory base uri.
+     *
+     * @return Path.
+     */
+    public String getPath() {
+
+        return path;
+    }
+
+    /**
+     * Get the data partition the endpoint is called against.
+     *
+     * @return Data partition.
+     */
+    public Partition getPartition() {
+
+        return partition;
+    }
+
+    /**
+     * Check whether the endpoint is called with the serializable consistency level.
+     *
+     * @return Whether the consistency level header is sent.
+     */
+    public boolean isSerializable() {
+
+        return serializable;
+    }
+
+    /**
+     * Check whether the endpoint only reads from the directory, hence safe to be called more than once.
+     *
+     * @return Whether the endpoint is a read.
+     */
+    public boolean isRead() {
+
+        return read;
+    }
+
+    /**
+     * Arn sent in the data partition header.
+     */
+    public enum Partition {
+        NONE, DIRECTORY, SCHEMA
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holds the long lived, pooled non-blocking HTTP clients used to connect with Amazon Cloud Directory. One client is
+ * kept per user store so that keep-alive connections are reused across REST calls, and a handful of I/O threads
+ * serve all the in-flight requests of the user store.
+ */
+public class AWSHttpClientProvider {
+
+    private static final Log log = LogFactory.getLog(AWSHttpClientProvider.class);
+    // Pooled clients against the tenant qualified user store domain.
+    private static final Map<String, PooledHttpClient> httpClients = new ConcurrentHashMap<>();
+    // All the open clients, including the ones replaced for a user store which still have owners.
+    private static final Set<PooledHttpClient> openHttpClients = ConcurrentHashMap.newKeySet();
+    // Owners which were garbage collected without releasing their clients.
+    private static final ReferenceQueue<Object> collectedOwners = new ReferenceQueue<>();
+    // Closes expired and idle connections of all the pools in the background and runs the delayed requests.
+    private static ScheduledExecutorService scheduler;
+
+    private AWSHttpClientProvider() {
+
+    }
+
+    /**
+     * Get the pooled http client of the given user store for the given owner. A new client is created if the user
+     * store does not have one yet or if the connection settings of the user store have changed. A client is shared
+     * by all its owners, and is closed once the last of them releases it, or is garbage collected, since the owners
+     * of a replaced client might still be serving requests with it.
+     *
+     * @param owner       Owner of the client, which releases it through {@link #releaseHttpClient(Object)}.
+     * @param tenantId    Tenant id of the user store.
+     * @param realmConfig Realm configuration of the user store.
+     * @return Pooled http client.
+     * @throws UserStoreException If the I/O reactor of the client could not be created.
+     */
+    public static CloseableHttpAsyncClient getHttpClient(Object owner, int tenantId, RealmConfiguration realmConfig)
+            throws UserStoreException {
+
+        List<PooledHttpClient> unusedHttpClients;
+        PooledHttpClient pooledHttpClient;
+        synchronized (AWSHttpClientProvider.class) {
+            unusedHttpClients = releaseCollectedOwners();
+            String key = tenantId + ":" + realmConfig.getUserStoreProperty(
+                    UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME);
+            pooledHttpClient = httpClients.get(key);
+            if (pooledHttpClient == null || !pooledHttpClient.connectionSettings.equals(
+                    getConnectionSettings(realmConfig))) {
+                getScheduler();
+                // The replaced client, if any, stays open for its owners.
+                pooledHttpClient = new PooledHttpClient(key, realmConfig);
+                httpClients.put(key, pooledHttpClient);
+                openHttpClients.add(pooledHttpClient);
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Created pooled http client for user store: %s. MaxTotalConnections: " +
+                            "%s, MaxConnectionsPerRoute: %s", key, pooledHttpClient.connectionManager.getMaxTotal(),
+                            pooledHttpClient.connectionManager.getDefaultMaxPerRoute()));
+                }
+            }
+            pooledHttpClient.owners.add(new Owner(owner, pooledHttpClient));
+        }
+        close(unusedHttpClients);
+        return pooledHttpClient.httpClient;
+    }
+
+    /**
+     * Release the pooled http client of the given owner. The client is closed if no other owner uses it.
+     *
+     * @param owner Owner of the client.
+     */
+    public static void releaseHttpClient(Object owner) {
+
+        List<PooledHttpClient> unusedHttpClients;
+        synchronized (AWSHttpClientProvider.class) {
+            unusedHttpClients = releaseCollectedOwners();
+            for (PooledHttpClient pooledHttpClient : openHttpClients) {
+                for (Owner clientOwner : pooledHttpClient.owners) {
+                    if (clientOwner.get() == owner) {
+                        clientOwner.clear();
+                        release(clientOwner, unusedHttpClients);
+                        break;
+                    }
+                }
+            }
+        }
+        close(unusedHttpClients);
+    }
+
+    /**
+     * Close all the pooled http clients and stop the scheduler.
+     */
+    public static synchronized void shutdown() {
+
+        for (PooledHttpClient pooledHttpClient : openHttpClients) {
+            pooledHttpClient.close();
+        }
+        openHttpClients.clear();
+        httpClients.clear();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Get the scheduler shared by all the user stores, which also evicts the idle connections. The scheduler is
+     * started if it is not running already.
+     *
+     * @return Scheduler.
+     */
+    public static synchronized ScheduledExecutorService getScheduler() {
+
+        if (scheduler != null) {
+            return scheduler;
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "AWSUserStoreScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Request deadlines are cancelled as soon as the requests complete, hence drop them from the queue.
+        executor.setRemoveOnCancelPolicy(true);
+        scheduler = executor;
+        scheduler.scheduleWithFixedDelay(() -> {
+            List<PooledHttpClient> unusedHttpClients;
+            synchronized (AWSHttpClientProvider.class) {
+                unusedHttpClients = releaseCollectedOwners();
+            }
+            close(unusedHttpClients);
+            for (PooledHttpClient pooledHttpClient : openHttpClients) {
+                pooledHttpClient.evictIdleConnections();
+            }
+        }, AWSConstants.IDLE_CONNECTION_EVICTOR_INTERVAL, AWSConstants.IDLE_CONNECTION_EVICTOR_INTERVAL,
+                TimeUnit.MILLISECONDS);
+        return scheduler;
+    }
+
+    /**
+     * Release the clients of the owners which were garbage collected. Must be called holding the class lock.
+     *
+     * @return Clients left without owners, to be closed outside the lock.
+     */
+    private static List<PooledHttpClient> releaseCollectedOwners() {
+
+        List<PooledHttpClient> unusedHttpClients = new ArrayList<>();
+        Reference<?> reference;
+        while ((reference = collectedOwners.poll()) != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Releasing the pooled http client of a garbage collected owner.");
+            }
+            release((Owner) reference, unusedHttpClients);
+        }
+        return unusedHttpClients;
+    }
+
+    /**
+     * Remove an owner of a client. Must be called holding the class lock.
+     *
+     * @param owner             Owner of the client.
+     * @param unusedHttpClients Collects the client if it is left without owners.
+     */
+    private static void release(Owner owner, List<PooledHttpClient> unusedHttpClients) {
+
+        PooledHttpClient pooledHttpClient = owner.pooledHttpClient;
+        if (pooledHttpClient.owners.remove(owner) && pooledHttpClient.owners.isEmpty() &&
+                openHttpClients.remove(pooledHttpClient)) {
+            httpClients.remove(pooledHttpClient.key, pooledHttpClient);
+            unusedHttpClients.add(pooledHttpClient);
+        }
+    }
+
+    /**
+     * Close the given clients. Called outside the class lock, since closing a client waits for its I/O threads,
+     * which might be waiting for the lock to schedule a task.
+     *
+     * @param pooledHttpClients Clients to close.
+     */
+    private static void close(List<PooledHttpClient> pooledHttpClients) {
+
+        for (PooledHttpClient pooledHttpClient : pooledHttpClients) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Closing the pooled http client of user store: %s, which has no owners.",
+                        pooledHttpClient.key));
+            }
+            pooledHttpClient.close();
+        }
+    }
+
+    /**
+     * Get the user store properties the pooled http client is built from.
+     *
+     * @param realmConfig Realm configuration of the user store.
+     * @return Values of the connection settings.
+     */
+    private static List<String> getConnectionSettings(RealmConfiguration realmConfig) {
+
+        return Arrays.asList(realmConfig.getUserStoreProperty(AWSConstants.IO_THREAD_COUNT),
+                realmConfig.getUserStoreProperty(AWSConstants.MAX_TOTAL_CONNECTIONS),
+                realmConfig.getUserStoreProperty(AWSConstants.MAX_CONNECTIONS_PER_ROUTE),
+                realmConfig.getUserStoreProperty(AWSConstants.IDLE_CONNECTION_TIMEOUT),
+                realmConfig.getUserStoreProperty(AWSConstants.CONNECT_TIMEOUT),
+                realmConfig.getUserStoreProperty(AWSConstants.SOCKET_TIMEOUT));
+    }
+
+    /**
+     * Read an integer user store property.
+     *
+     * @param realmConfig  Realm configuration of the user store.
+     * @param propertyName Name of the property.
+     * @param defaultValue Value to use when the property is not set or invalid.
+     * @return Value of the property.
+     */
+    public static int getIntProperty(RealmConfiguration realmConfig, String propertyName, int defaultValue) {
+
+        try {
+            return Integer.parseInt(realmConfig.getUserStoreProperty(propertyName));
+        } catch (NumberFormatException e) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Property %s is not set : Using default value %s instead!", propertyName,
+                        defaultValue), e);
+            }
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Pooled http client of a single user store.
+     */
+    private static class PooledHttpClient {
+
+        private static final AtomicInteger clientCount = new AtomicInteger();
+        private final String key;
+        private final List<String> connectionSettings;
+        // Owners using the client, guarded by the class lock of the provider.
+        private final Set<Owner> owners = new HashSet<>();
+        private final PoolingNHttpClientConnectionManager connectionManager;
+        private final CloseableHttpAsyncClient httpClient;
+        private final long idleConnectionTimeout;
+
+        PooledHttpClient(String key, RealmConfiguration realmConfig) throws UserStoreException {
+
+            this.key = key;
+            connectionSettings = getConnectionSettings(realmConfig);
+            String threadName = "AWSUserStoreIOReactor-" + clientCount.incrementAndGet();
+            IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                    .setIoThreadCount(getIntProperty(realmConfig, AWSConstants.IO_THREAD_COUNT,
+                            Runtime.getRuntime().availableProcessors()))
+                    .build();
+            try {
+                connectionManager = new PoolingNHttpClientConnectionManager(
+                        new DefaultConnectingIOReactor(ioReactorConfig, runnable -> {
+                            Thread thread = new Thread(runnable, threadName);
+                            thread.setDaemon(true);
+                            return thread;
+                        }));
+            } catch (IOReactorException e) {
+                throw new UserStoreException("Error while creating the I/O reactor of the http client.", e);
+            }
+            connectionManager.setMaxTotal(getIntProperty(realmConfig, AWSConstants.MAX_TOTAL_CONNECTIONS,
+                    AWSConstants.DEFAULT_MAX_TOTAL_CONNECTIONS));
+            connectionManager.setDefaultMaxPerRoute(getIntProperty(realmConfig,
+                    AWSConstants.MAX_CONNECTIONS_PER_ROUTE, AWSConstants.DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+            idleConnectionTimeout = getIntProperty(realmConfig, AWSConstants.IDLE_CONNECTION_TIMEOUT,
+                    AWSConstants.DEFAULT_IDLE_CONNECTION_TIMEOUT);
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(getIntProperty(realmConfig, AWSConstants.CONNECT_TIMEOUT,
+                            AWSConstants.DEFAULT_CONNECT_TIMEOUT))
+                    .setSocketTimeout(getIntProperty(realmConfig, AWSConstants.SOCKET_TIMEOUT,
+                            AWSConstants.DEFAULT_SOCKET_TIMEOUT))
+                    .build();
+            httpClient = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .build();
+            httpClient.start();
+        }
+
+        void evictIdleConnections() {
+
+            connectionManager.closeExpiredConnections();
+            if (idleConnectionTimeout > 0) {
+                connectionManager.closeIdleConnections(idleConnectionTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void close() {
+
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.error("Error while closing the pooled http client.", e);
+            }
+        }
+    }
+
+    /**
+     * Weak reference to an owner of a pooled client, which is queued once the owner is garbage collected.
+     */
+    private static class Owner extends WeakReference<Object> {
+
+        private final PooledHttpClient pooledHttpClient;
+
+        Owner(Object owner, PooledHttpClient pooledHttpClient) {
+
+            super(owner, collectedOwners);
+            this.pooledHttpClient = pooledHttpClient;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tracks a latency percentile of each Cloud Directory endpoint over its most recent responses. The percentile is
+ * recalculated once every few samples rather than on every lookup.
+ */
+public class AWSLatencyTracker {
+
+    private final Map<AWSEndpoint, Samples> samples = new EnumMap<>(AWSEndpoint.class);
+    private final int percentile;
+
+    /**
+     * @param percentile Percentile to track, between 1 and 100.
+     */
+    public AWSLatencyTracker(int percentile) {
+
+        this.percentile = percentile;
+        for (AWSEndpoint endpoint : AWSEndpoint.values()) {
+            samples.put(endpoint, new Samples());
+        }
+    }
+
+    /**
+     * Record the latency of a response.
+     *
+     * @param endpoint Endpoint of the request.
+     * @param latency  Latency in milliseconds.
+     */
+    public void record(AWSEndpoint endpoint, long latency) {
+
+        samples.get(endpoint).record(latency);
+    }
+
+    /**
+     * Get the tracked latency percentile of an endpoint.
+     *
+     * @param endpoint Endpoint.
+     * @return Latency in milliseconds, or -1 if there are not enough samples yet.
+     */
+    public long getPercentile(AWSEndpoint endpoint) {
+
+        return samples.get(endpoint).getPercentile();
+    }
+
+    /**
+     * Ring buffer of the recent latencies of an endpoint.
+     */
+    private class Samples {
+
+        private final long[] latencies = new long[AWSConstants.LATENCY_SAMPLE_SIZE];
+        private int count;
+        private int next;
+        private int recordedSinceUpdate;
+        private long percentileLatency = -1;
+
+        synchronized void record(long latency) {
+
+            latencies[next] = latency;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+            if (++recordedSinceUpdate >= AWSConstants.LATENCY_PERCENTILE_REFRESH_INTERVAL &&
+                    count >= AWSConstants.MIN_LATENCY_SAMPLES) {
+                long[] sorted = Arrays.copyOf(latencies, count);
+                Arrays.sort(sorted);
+                int rank = (int) Math.ceil(percentile / 100.0 * count);
+                percentileLatency = sorted[Math.min(Math.max(rank, 1), count) - 1];
+                recordedSinceUpdate = 0;
+            }
+        }
+
+        synchronized long getPercentile() {
+
+            return percentileLatency;
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Bounded in-memory cache local to a user store. Entries expire after a fixed time to live, and the least recently
+ * used entries are evicted once the total weight of the entries exceeds the size of the cache. Unless a weigher is
+ * given, every entry weighs one, hence the size is the maximum number of entries.
+ *
+ * @param <K> Type of the keys.
+ * @param <V> Type of the values.
+ */
+public class AWSLocalCache<K, V> {
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private final long timeToLive;
+    private final Weigher<K, V> weigher;
+    private long weight;
+    // Number of updates and removals, by which values read before an invalidation are kept out of the cache.
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param maxEntries Maximum number of entries. Caching is disabled if not positive.
+     * @param timeToLive Time to live of an entry in milliseconds.
+     */
+    public AWSLocalCache(int maxEntries, long timeToLive) {
+
+        this(maxEntries, timeToLive, (key, value) -> 1);
+    }
+
+    /**
+     * @param maxWeight  Maximum total weight of the entries. Caching is disabled if not positive.
+     * @param timeToLive Time to live of an entry in milliseconds.
+     * @param weigher    Weigher of the entries.
+     */
+    public AWSLocalCache(long maxWeight, long timeToLive, Weigher<K, V> weigher) {
+
+        this.maxWeight = maxWeight;
+        this.timeToLive = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        this.weigher = weigher;
+    }
+
+    /**
+     * Check whether the cache holds any entries at all.
+     *
+     * @return Whether caching is enabled.
+     */
+    public boolean isEnabled() {
+
+        return maxWeight > 0 && timeToLive > 0;
+    }
+
+    /**
+     * Get the value of a key.
+     *
+     * @param key Key.
+     * @return Value, or null if the key is not cached or has expired.
+     */
+    public synchronized V get(K key) {
+
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (isExpired(entry)) {
+            removeEntry(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    /**
+     * Cache the value of a key, replacing the existing value if any.
+     *
+     * @param key   Key.
+     * @param value Value.
+     */
+    public synchronized void put(K key, V value) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        putEntry(key, new Entry<>(value, weigher.weigh(key, value), System.nanoTime()));
+    }
+
+    /**
+     * Cache a value read from the directory, unless any entry has been updated or removed since the read started.
+     * Hence a read which raced with a write does not cache the value from before the write.
+     *
+     * @param key               Key.
+     * @param value             Value.
+     * @param invalidationCount Invalidation count taken before the read started.
+     */
+    public synchronized void putIfNotInvalidated(K key, V value, long invalidationCount) {
+
+        if (invalidations == invalidationCount) {
+            put(key, value);
+        }
+    }
+
+    /**
+     * Get the number of updates and removals so far, to be passed to
+     * {@link #putIfNotInvalidated(Object, Object, long)}.
+     *
+     * @return Invalidation count.
+     */
+    public synchronized long getInvalidationCount() {
+
+        return invalidations;
+    }
+
+    /**
+     * Replace the live value of a key with the value computed from it. The entry keeps its time of creation, hence
+     * an updated entry does not live longer than it would have otherwise.
+     *
+     * @param key     Key.
+     * @param updater Computes the new value from the cached value. The entry is removed if it returns null.
+     */
+    public synchronized void update(K key, UnaryOperator<V> updater) {
+
+        invalidations++;
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        V value = isExpired(entry) ? null : updater.apply(entry.value);
+        if (value == null) {
+            removeEntry(key);
+            return;
+        }
+        putEntry(key, new Entry<>(value, weigher.weigh(key, value), entry.createdTime));
+    }
+
+    /**
+     * Remove the value of a key.
+     *
+     * @param key Key.
+     */
+    public synchronized void remove(K key) {
+
+        invalidations++;
+        removeEntry(key);
+    }
+
+    /**
+     * Remove all the entries.
+     */
+    public synchronized void clear() {
+
+        invalidations++;
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Get the total weight of the cached entries.
+     *
+     * @return Total weight.
+     */
+    public synchronized long getWeight() {
+
+        return weight;
+    }
+
+    /**
+     * Get the number of lookups which found a live entry.
+     *
+     * @return Number of hits.
+     */
+    public synchronized long getHitCount() {
+
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups which did not find a live entry.
+     *
+     * @return Number of misses.
+     */
+    public synchronized long getMissCount() {
+
+        return misses;
+    }
+
+    /**
+     * Get the number of entries evicted to stay within the size of the cache.
+     *
+     * @return Number of evictions.
+     */
+    public synchronized long getEvictionCount() {
+
+        return evictions;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+
+        return System.nanoTime() - entry.createdTime >= timeToLive;
+    }
+
+    private void putEntry(K key, Entry<V> entry) {
+
+        removeEntry(key);
+        // An entry heavier than the whole cache would only evict everything else.
+        if (entry.weight > maxWeight) {
+            return;
+        }
+        entries.put(key, entry);
+        weight += entry.weight;
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            weight -= iterator.next().weight;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private void removeEntry(K key) {
+
+        Entry<V> entry = entries.remove(key);
+        if (entry != null) {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Computes the weight of an entry.
+     *
+     * @param <K> Type of the keys.
+     * @param <V> Type of the values.
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+
+        /**
+         * Get the weight of an entry.
+         *
+         * @param key   Key.
+         * @param value Value.
+         * @return Weight.
+         */
+        int weigh(K key, V value);
+    }
+
+    /**
+     * Cached value along with its weight and the time it was cached.
+     *
+     * @param <V> Type of the value.
+     */
+    private static class Entry<V> {
+
+        private final V value;
+        private final int weight;
+        private final long createdTime;
+
+        Entry(V value, int weight, long createdTime) {
+
+            this.value = value;
+            this.weight = weight;
+            this.createdTime = createdTime;
+        }
+    }
+}
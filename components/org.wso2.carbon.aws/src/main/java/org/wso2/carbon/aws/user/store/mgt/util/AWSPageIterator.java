@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Iterates over the pages of a paginated Cloud Directory listing, requesting the following pages ahead of the
+ * caller. As soon as a page arrives, the request for the next page is sent with its pagination token, while the
+ * caller is still waiting for or processing the earlier pages. At most the prefetch depth of pages are requested
+ * ahead of the page the caller takes next.
+ *
+ * @param <T> Type of the pages.
+ */
+public class AWSPageIterator<T> implements AutoCloseable {
+
+    private final AWSRestApiActions awsActions;
+    private final Function<String, CompletableFuture<T>> fetcher;
+    private final Function<T, String> nextTokenOf;
+    private final int prefetchDepth;
+    // The priority of the caller, as the following pages are requested from the threads completing the responses.
+    private final AWSRequestScheduler.Priority priority;
+    // Pages requested but not yet taken by the caller, in order.
+    private final Deque<CompletableFuture<T>> pages = new ArrayDeque<>();
+    // The last page requested, whose pagination token is yet to be followed.
+    private CompletableFuture<T> lastPage;
+    // Pagination token of the next page, held back until the caller catches up.
+    private String pendingToken;
+    private boolean closed;
+
+    /**
+     * @param awsActions    REST API actions, to wait for the responses with.
+     * @param fetcher       Requests the page of a pagination token.
+     * @param nextTokenOf   Gets the pagination token of the page which follows a page.
+     * @param prefetchDepth Number of pages to request ahead of the page the caller takes next.
+     * @param nextToken     Pagination token to start from, or null to start from the first page.
+     */
+    public AWSPageIterator(AWSRestApiActions awsActions, Function<String, CompletableFuture<T>> fetcher,
+                           Function<T, String> nextTokenOf, int prefetchDepth, String nextToken) {
+
+        this.awsActions = awsActions;
+        this.fetcher = fetcher;
+        this.nextTokenOf = nextTokenOf;
+        this.prefetchDepth = Math.max(0, prefetchDepth);
+        this.priority = AWSRequestScheduler.getPriority();
+        synchronized (this) {
+            request(nextToken);
+        }
+    }
+
+    /**
+     * Check whether there are more pages.
+     *
+     * @return Whether there are more pages.
+     */
+    public synchronized boolean hasNext() {
+
+        // The pagination token of a page taken by the caller has always been followed by the time it is returned.
+        return !pages.isEmpty() || pendingToken != null;
+    }
+
+    /**
+     * Wait for the next page.
+     *
+     * @return Next page.
+     * @throws UserStoreException If the page could not be retrieved.
+     */
+    public T next() throws UserStoreException {
+
+        CompletableFuture<T> page;
+        synchronized (this) {
+            if (pages.isEmpty() && pendingToken != null) {
+                requestPending();
+            }
+            page = pages.poll();
+            if (page == null) {
+                throw new NoSuchElementException("No more pages to iterate.");
+            }
+            resume();
+        }
+        T result = awsActions.getResult(page);
+        onArrival(page, result);
+        return result;
+    }
+
+    /**
+     * Stop requesting pages, and cancel the pages requested but not yet taken.
+     */
+    @Override
+    public synchronized void close() {
+
+        closed = true;
+        pendingToken = null;
+        lastPage = null;
+        for (CompletableFuture<T> page : pages) {
+            page.cancel(false);
+        }
+        pages.clear();
+    }
+
+    /**
+     * Follow the pagination token of the last page requested, once it arrives. Called both when the response
+     * completes and when the caller gets the page, whichever comes first.
+     */
+    private synchronized void onArrival(CompletableFuture<T> page, T result) {
+
+        if (page != lastPage) {
+            return;
+        }
+        lastPage = null;
+        String nextToken = nextTokenOf.apply(result);
+        if (StringUtils.isEmpty(nextToken)) {
+            return;
+        }
+        if (pages.size() <= prefetchDepth) {
+            request(nextToken);
+        } else {
+            pendingToken = nextToken;
+        }
+    }
+
+    /**
+     * Request the held back page once the caller has caught up.
+     */
+    private void resume() {
+
+        if (pendingToken != null && pages.size() <= prefetchDepth) {
+            requestPending();
+        }
+    }
+
+    private void requestPending() {
+
+        // Cleared first, since a page which is already available holds back the token of the page after it.
+        String nextToken = pendingToken;
+        pendingToken = null;
+        request(nextToken);
+    }
+
+    private void request(String nextToken) {
+
+        if (closed) {
+            return;
+        }
+        CompletableFuture<T> page;
+        AWSRequestScheduler.Priority previousPriority = AWSRequestScheduler.setPriority(priority);
+        try {
+            page = fetcher.apply(nextToken);
+        } finally {
+            AWSRequestScheduler.setPriority(previousPriority);
+        }
+        pages.add(page);
+        lastPage = page;
+        page.thenAccept(result -> onArrival(page, result));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of names listed from the directory, along with the cursor to the next page. The cursor is opaque to the
+ * callers. It wraps the Cloud Directory pagination token of the page to resume from, along with the number of
+ * entries of that page which were already returned.
+ */
+public class AWSPaginatedResult {
+
+    private static final char SEPARATOR = ':';
+    private final List<String> names;
+    private final String cursor;
+
+    /**
+     * @param names  Names in this page.
+     * @param cursor Cursor to the next page, or null if this is the last page.
+     */
+    public AWSPaginatedResult(List<String> names, String cursor) {
+
+        this.names = Collections.unmodifiableList(names);
+        this.cursor = cursor;
+    }
+
+    /**
+     * Get the names in this page.
+     *
+     * @return Names.
+     */
+    public List<String> getNames() {
+
+        return names;
+    }
+
+    /**
+     * Get the cursor to pass in to get the next page.
+     *
+     * @return Cursor, or null if this is the last page.
+     */
+    public String getCursor() {
+
+        return cursor;
+    }
+
+    /**
+     * Build a cursor from a position in the directory listing.
+     *
+     * @param nextToken Pagination token of the page to resume from, or null for the first page.
+     * @param offset    Number of entries of that page to skip.
+     * @return Cursor.
+     */
+    public static String encodeCursor(String nextToken, int offset) {
+
+        String position = offset + String.valueOf(SEPARATOR) + StringUtils.defaultString(nextToken);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the pagination token of the page a cursor resumes from.
+     *
+     * @param cursor Cursor, or null for the first page.
+     * @return Pagination token, or null for the first page.
+     * @throws UserStoreException If the cursor is not valid.
+     */
+    public static String getNextToken(String cursor) throws UserStoreException {
+
+        if (StringUtils.isEmpty(cursor)) {
+            return null;
+        }
+        String position = decodeCursor(cursor);
+        return StringUtils.defaultIfEmpty(position.substring(position.indexOf(SEPARATOR) + 1), null);
+    }
+
+    /**
+     * Get the number of entries to skip in the page a cursor resumes from.
+     *
+     * @param cursor Cursor, or null for the first page.
+     * @return Number of entries to skip.
+     * @throws UserStoreException If the cursor is not valid.
+     */
+    public static int getOffset(String cursor) throws UserStoreException {
+
+        if (StringUtils.isEmpty(cursor)) {
+            return 0;
+        }
+        String position = decodeCursor(cursor);
+        try {
+            int offset = Integer.parseInt(position.substring(0, position.indexOf(SEPARATOR)));
+            if (offset < 0) {
+                throw new UserStoreException(String.format("Invalid cursor : %s", cursor));
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new UserStoreException(String.format("Invalid cursor : %s", cursor), e);
+        }
+    }
+
+    private static String decodeCursor(String cursor) throws UserStoreException {
+
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new UserStoreException(String.format("Invalid cursor : %s", cursor), e);
+        }
+        if (position.indexOf(SEPARATOR) < 1) {
+            throw new UserStoreException(String.format("Invalid cursor : %s", cursor));
+        }
+        return position;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive client side token bucket for the requests of a user store. The bucket stays out of the way until Cloud
+ * Directory throttles a request. From then on the request rate is cut down on every throttle and raised slowly on
+ * every successful response, until it recovers to the rate at which the throttling started.
+ */
+public class AWSRateLimiter {
+
+    private static final Log log = LogFactory.getLog(AWSRateLimiter.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private boolean enabled;
+    // Allowed requests per second while enabled.
+    private double rate;
+    // Rate at which the requests were sent when the throttling started.
+    private double throttledRate;
+    private double tokens;
+    private long lastRefillTime;
+    // Measured rate of the requests sent during the last complete second.
+    private double measuredRate;
+    private long windowStartTime = System.nanoTime();
+    private int windowCount;
+
+    /**
+     * Take a token for a request if one is available.
+     *
+     * @return Zero if a token was taken, otherwise the milliseconds until the next token is available.
+     */
+    public synchronized long tryAcquire() {
+
+        long now = System.nanoTime();
+        if (enabled) {
+            refill(now);
+            if (tokens < 1) {
+                return Math.max(1, (long) Math.ceil((1 - tokens) / rate * 1000));
+            }
+            tokens -= 1;
+        }
+        measure(now);
+        return 0;
+    }
+
+    /**
+     * Adjust the request rate with the outcome of a request.
+     *
+     * @param throttled Whether the request was throttled.
+     */
+    public synchronized void update(boolean throttled) {
+
+        long now = System.nanoTime();
+        if (throttled) {
+            if (!enabled) {
+                enabled = true;
+                // Requests sent so far in the current second are a lower bound of the current rate.
+                throttledRate = Math.max(Math.max(measuredRate, windowCount), AWSConstants.MIN_REQUEST_RATE);
+                rate = throttledRate;
+                tokens = 0;
+                lastRefillTime = now;
+            } else {
+                refill(now);
+            }
+            rate = Math.max(AWSConstants.MIN_REQUEST_RATE, rate * AWSConstants.REQUEST_RATE_DECREASE_FACTOR);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Request throttled by Cloud Directory. Request rate lowered to %.2f per " +
+                        "second.", rate));
+            }
+        } else if (enabled) {
+            refill(now);
+            // Raises the rate by about one request per second, every second.
+            rate += 1 / rate;
+            if (rate >= throttledRate) {
+                enabled = false;
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Request rate recovered to %.2f per second.", rate));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the allowed request rate.
+     *
+     * @return Requests per second, or -1 if the requests are not limited.
+     */
+    public synchronized double getRate() {
+
+        return enabled ? rate : -1;
+    }
+
+    private void refill(long now) {
+
+        double capacity = Math.max(1, rate);
+        tokens = Math.min(capacity, tokens + (now - lastRefillTime) * rate / NANOS_PER_SECOND);
+        lastRefillTime = now;
+    }
+
+    private void measure(long now) {
+
+        long elapsed = now - windowStartTime;
+        if (elapsed >= NANOS_PER_SECOND) {
+            measuredRate = windowCount * (double) NANOS_PER_SECOND / elapsed;
+            windowStartTime = now;
+            windowCount = 0;
+        }
+        windowCount++;
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules the outbound requests of a user store by priority. Requests wait in a bounded queue per priority class
+ * while the concurrent request limit is reached or the rate limiter holds them back, and the queued requests are
+ * always dispatched from the highest priority class first. Hence bulk and admin requests are deferred, and shed once
+ * their queue is full, before the interactive authentication requests are.
+ */
+public class AWSRequestScheduler {
+
+    private static final Log log = LogFactory.getLog(AWSRequestScheduler.class);
+    // Priority class of the requests sent by the current thread.
+    private static final ThreadLocal<Priority> currentPriority = new ThreadLocal<>();
+    private final Map<Priority, PriorityClass> priorityClasses = new EnumMap<>(Priority.class);
+    // Set while the current thread dispatches, to whether a task it runs asked to dispatch again.
+    private final ThreadLocal<Boolean> redispatch = new ThreadLocal<>();
+    private final AWSRateLimiter rateLimiter;
+    private final int maxConcurrentRequests;
+    private int inFlightRequests;
+    private boolean dispatchScheduled;
+
+    public AWSRequestScheduler(AWSRateLimiter rateLimiter, int maxConcurrentRequests) {
+
+        this.rateLimiter = rateLimiter;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        for (Priority priority : Priority.values()) {
+            priorityClasses.put(priority, new PriorityClass(priority.queueSize));
+        }
+    }
+
+    /**
+     * Set the priority class of the requests sent by the current thread. The returned priority class should be set
+     * back once the requests are sent, so that nested calls restore the priority of their caller.
+     *
+     * @param priority Priority class, or null to clear it.
+     * @return Priority class set before, or null if not set.
+     */
+    public static Priority setPriority(Priority priority) {
+
+        Priority previous = currentPriority.get();
+        if (priority == null) {
+            currentPriority.remove();
+        } else {
+            currentPriority.set(priority);
+        }
+        return previous;
+    }
+
+    /**
+     * Get the priority class of the requests sent by the current thread.
+     *
+     * @return Priority class. {@link Priority#DEFAULT} if not set.
+     */
+    public static Priority getPriority() {
+
+        Priority priority = currentPriority.get();
+        return priority != null ? priority : Priority.DEFAULT;
+    }
+
+    /**
+     * Queue a request. The task is run once the request is dispatched, and {@link #release()} must be called once
+     * the dispatched request completes.
+     *
+     * @param priority Priority class of the request.
+     * @param task     Task which sends the request.
+     * @return False if the queue of the priority class is full, hence the request is shed.
+     */
+    public boolean submit(Priority priority, Runnable task) {
+
+        PriorityClass priorityClass = priorityClasses.get(priority);
+        synchronized (this) {
+            if (priorityClass.queue.size() >= priorityClass.queueSize) {
+                priorityClass.rejectedRequests++;
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("Request queue of %s priority is full. Queue size: %s", priority,
+                            priorityClass.queueSize));
+                }
+                return false;
+            }
+            priorityClass.queue.add(new QueuedRequest(task));
+        }
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Release the slot of a completed request and dispatch the next queued request.
+     */
+    public void release() {
+
+        synchronized (this) {
+            inFlightRequests--;
+        }
+        dispatch();
+    }
+
+    /**
+     * Get the number of requests waiting in the queue of a priority class.
+     *
+     * @param priority Priority class.
+     * @return Queue depth.
+     */
+    public synchronized int getQueueDepth(Priority priority) {
+
+        return priorityClasses.get(priority).queue.size();
+    }
+
+    /**
+     * Get the average time the dispatched requests of a priority class waited in the queue.
+     *
+     * @param priority Priority class.
+     * @return Average wait time in milliseconds.
+     */
+    public synchronized double getAverageWaitTime(Priority priority) {
+
+        PriorityClass priorityClass = priorityClasses.get(priority);
+        if (priorityClass.dispatchedRequests == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMicros(priorityClass.totalWaitTime) / 1000.0 / priorityClass.dispatchedRequests;
+    }
+
+    /**
+     * Get the longest time a dispatched request of a priority class waited in the queue.
+     *
+     * @param priority Priority class.
+     * @return Maximum wait time in milliseconds.
+     */
+    public synchronized long getMaxWaitTime(Priority priority) {
+
+        return TimeUnit.NANOSECONDS.toMillis(priorityClasses.get(priority).maxWaitTime);
+    }
+
+    /**
+     * Get the number of requests of a priority class shed because the queue was full.
+     *
+     * @param priority Priority class.
+     * @return Number of rejected requests.
+     */
+    public synchronized long getRejectedCount(Priority priority) {
+
+        return priorityClasses.get(priority).rejectedRequests;
+    }
+
+    /**
+     * Dispatch the queued requests until no more can be dispatched. A task which completes inline, such as a
+     * request whose future is already done, releases its slot and dispatches again from within the task. Such a
+     * nested call only marks that another round is needed, hence the rounds run in a loop on the outermost call
+     * rather than nesting once per queued request.
+     */
+    private void dispatch() {
+
+        if (redispatch.get() != null) {
+            redispatch.set(Boolean.TRUE);
+            return;
+        }
+        try {
+            do {
+                redispatch.set(Boolean.FALSE);
+                dispatchQueued();
+            } while (redispatch.get());
+        } finally {
+            redispatch.remove();
+        }
+    }
+
+    /**
+     * Dispatch the queued requests, highest priority class first, as long as the concurrent request limit and the
+     * rate limiter allow it. The tasks are run outside the lock.
+     */
+    private void dispatchQueued() {
+
+        List<Runnable> tasks = new ArrayList<>();
+        long delay = 0;
+        synchronized (this) {
+            while (inFlightRequests < maxConcurrentRequests) {
+                PriorityClass priorityClass = nextPriorityClass();
+                if (priorityClass == null) {
+                    break;
+                }
+                delay = rateLimiter.tryAcquire();
+                if (delay > 0) {
+                    break;
+                }
+                QueuedRequest request = priorityClass.queue.poll();
+                long waitTime = System.nanoTime() - request.queuedTime;
+                priorityClass.dispatchedRequests++;
+                priorityClass.totalWaitTime += waitTime;
+                priorityClass.maxWaitTime = Math.max(priorityClass.maxWaitTime, waitTime);
+                inFlightRequests++;
+                tasks.add(request.task);
+            }
+            if (delay > 0 && !dispatchScheduled) {
+                dispatchScheduled = true;
+            } else {
+                delay = 0;
+            }
+        }
+        if (delay > 0) {
+            scheduleDispatch(delay);
+        }
+        for (Runnable task : tasks) {
+            task.run();
+        }
+    }
+
+    /**
+     * Dispatch again once the rate limiter has a token available.
+     *
+     * @param delay Milliseconds until the next token is available.
+     */
+    private void scheduleDispatch(long delay) {
+
+        try {
+            AWSHttpClientProvider.getScheduler().schedule(() -> {
+                synchronized (this) {
+                    dispatchScheduled = false;
+                }
+                dispatch();
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.error("Could not schedule the dispatch of the queued Cloud Directory requests.", e);
+            synchronized (this) {
+                dispatchScheduled = false;
+            }
+        }
+    }
+
+    private PriorityClass nextPriorityClass() {
+
+        for (PriorityClass priorityClass : priorityClasses.values()) {
+            if (!priorityClass.queue.isEmpty()) {
+                return priorityClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Priority classes of the requests, from the highest to the lowest.
+     */
+    public enum Priority {
+
+        // Reads on the login path.
+        INTERACTIVE(AWSConstants.INTERACTIVE_REQUEST_QUEUE_SIZE),
+        DEFAULT(AWSConstants.DEFAULT_REQUEST_QUEUE_SIZE),
+        // Listings and searches which page through the whole directory.
+        BULK(AWSConstants.BULK_REQUEST_QUEUE_SIZE);
+
+        private final int queueSize;
+
+        Priority(int queueSize) {
+
+            this.queueSize = queueSize;
+        }
+    }
+
+    /**
+     * Queue and statistics of a priority class.
+     */
+    private static class PriorityClass {
+
+        private final ArrayDeque<QueuedRequest> queue = new ArrayDeque<>();
+        private final int queueSize;
+        private long dispatchedRequests;
+        private long rejectedRequests;
+        private long totalWaitTime;
+        private long maxWaitTime;
+
+        PriorityClass(int queueSize) {
+
+            this.queueSize = queueSize;
+        }
+    }
+
+    /**
+     * Request waiting to be dispatched.
+     */
+    private static class QueuedRequest {
+
+        private final Runnable task;
+        private final long queuedTime = System.nanoTime();
+
+        QueuedRequest(Runnable task) {
+
+            this.task = task;
+        }
+    }
+}
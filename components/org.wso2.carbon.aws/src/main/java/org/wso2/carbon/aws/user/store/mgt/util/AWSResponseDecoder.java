@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Decodes the body of a successful Amazon Cloud Directory response.
+ *
+ * @param <T> Type of the decoded result.
+ */
+@FunctionalInterface
+public interface AWSResponseDecoder<T> {
+
+    /**
+     * Decode the response body.
+     *
+     * @param reader Reader of the response body.
+     * @return Decoded result.
+     * @throws ParseException Error while parsing response json.
+     * @throws IOException    Error while reading response body.
+     */
+    T decode(Reader reader) throws ParseException, IOException;
+}
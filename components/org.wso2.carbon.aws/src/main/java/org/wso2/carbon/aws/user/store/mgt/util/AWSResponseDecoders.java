@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streaming decoders for the Cloud Directory responses that are read on the hot paths. Instead of building the whole
+ * json tree, these pick only the fields that the action needs while the response is being parsed.
+ */
+public class AWSResponseDecoders {
+
+    /**
+     * Decodes the child names and the pagination token of a ListObjectChildren response.
+     */
+    public static final AWSResponseDecoder<ObjectChildren> OBJECT_CHILDREN = reader -> {
+        ObjectChildrenHandler handler = new ObjectChildrenHandler();
+        new JSONParser().parse(reader, handler);
+        return handler.objectChildren;
+    };
+
+    private AWSResponseDecoders() {
+
+    }
+
+    /**
+     * Decoder for the string attribute values of a ListObjectAttributes response.
+     *
+     * @param attributeNames Names of the attributes to pick. All the attributes are picked if empty.
+     * @return Decoder which maps the attribute names to their values.
+     */
+    public static AWSResponseDecoder<Map<String, String>> objectAttributes(String... attributeNames) {
+
+        Set<String> names = attributeNames.length == 0 ? null : new HashSet<>(Arrays.asList(attributeNames));
+        return reader -> {
+            ObjectAttributesHandler handler = new ObjectAttributesHandler(names);
+            new JSONParser().parse(reader, handler);
+            return handler.attributes;
+        };
+    }
+
+    /**
+     * Decoder for the string attribute values of the GetObjectAttributes or ListObjectAttributes operations of a
+     * BatchRead response.
+     *
+     * @param attributeNames Names of the attributes to pick. All the attributes are picked if empty.
+     * @return Decoder which maps the attribute names to their values, or to the failure, of each operation in order.
+     */
+    public static AWSResponseDecoder<List<ObjectAttributes>> batchObjectAttributes(String... attributeNames) {
+
+        Set<String> names = attributeNames.length == 0 ? null : new HashSet<>(Arrays.asList(attributeNames));
+        return reader -> {
+            BatchObjectAttributesHandler handler = new BatchObjectAttributesHandler(names);
+            new JSONParser().parse(reader, handler);
+            return handler.responses;
+        };
+    }
+
+    /**
+     * Attributes of an object read in a batch, or the failure of the read.
+     */
+    public static class ObjectAttributes {
+
+        private final Map<String, String> attributes = new HashMap<>();
+        private String errorType;
+        private String errorMessage;
+
+        /**
+         * Check whether the attributes were read.
+         *
+         * @return False if the operation failed.
+         */
+        public boolean isSuccessful() {
+
+            return errorType == null;
+        }
+
+        /**
+         * Get the attribute values.
+         *
+         * @return Attribute values against the attribute names. Empty if the operation failed.
+         */
+        public Map<String, String> getAttributes() {
+
+            return Collections.unmodifiableMap(attributes);
+        }
+
+        /**
+         * Get the type of the failure.
+         *
+         * @return Exception type, or null if the operation succeeded.
+         */
+        public String getErrorType() {
+
+            return errorType;
+        }
+
+        /**
+         * Get the message of the failure.
+         *
+         * @return Exception message, or null if the operation succeeded.
+         */
+        public String getErrorMessage() {
+
+            return errorMessage;
+        }
+    }
+
+    /**
+     * A page of child object names.
+     */
+    public static class ObjectChildren {
+
+        private final List<String> names = new ArrayList<>();
+        private String nextToken;
+
+        /**
+         * Get the names of the child objects in this page.
+         *
+         * @return Child names.
+         */
+        public List<String> getNames() {
+
+            return Collections.unmodifiableList(names);
+        }
+
+        /**
+         * Get the pagination token of the next page.
+         *
+         * @return Pagination token, or null if this is the last page.
+         */
+        public String getNextToken() {
+
+            return nextToken;
+        }
+    }
+
+    /**
+     * Keeps track of the object entries from the root to the value being parsed. Array elements do not add to the
+     * path.
+     */
+    private abstract static class PathTrackingHandler implements ContentHandler {
+
+        protected final List<String> path = new ArrayList<>();
+
+        /**
+         * Check whether the value being parsed is at the given path.
+         *
+         * @param names Object entry names from the root.
+         * @return Whether the current path is equal to the given one.
+         */
+        protected boolean isAt(String... names) {
+
+            if (path.size() != names.length) {
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (!names[i].equals(path.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void startJSON() {
+
+            path.clear();
+        }
+
+        @Override
+        public void endJSON() {
+
+        }
+
+        @Override
+        public boolean startObject() {
+
+            return true;
+        }
+
+        @Override
+        public boolean endObject() throws ParseException {
+
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+
+            path.add(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+
+            path.remove(path.size() - 1);
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+
+            return true;
+        }
+    }
+
+    /**
+     * Picks the child names and the NextToken out of a ListObjectChildren response.
+     */
+    private static class ObjectChildrenHandler extends PathTrackingHandler {
+
+        private final ObjectChildren objectChildren = new ObjectChildren();
+
+        @Override
+        public boolean startObjectEntry(String key) {
+
+            super.startObjectEntry(key);
+            if (path.size() == 2 && AWSConstants.CHILDREN.equals(path.get(0))) {
+                objectChildren.names.add(key);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+
+            if (value != null && isAt(AWSConstants.NEXT_TOKEN)) {
+                objectChildren.nextToken = value.toString();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Picks the attribute name and string value pairs, or the exception, of each operation out of a BatchRead
+     * response of GetObjectAttributes or ListObjectAttributes operations.
+     */
+    private static class BatchObjectAttributesHandler extends PathTrackingHandler {
+
+        private final Set<String> attributeNames;
+        private final List<ObjectAttributes> responses = new ArrayList<>();
+        private ObjectAttributes response = new ObjectAttributes();
+        private String attributeName;
+        private String attributeValue;
+
+        BatchObjectAttributesHandler(Set<String> attributeNames) {
+
+            this.attributeNames = attributeNames;
+        }
+
+        /**
+         * Check whether the value being parsed is at the given path within an attribute of a successful response.
+         * The name of the operation is not checked.
+         */
+        private boolean isAtAttribute(String... names) {
+
+            if (path.size() != names.length + 4 || !AWSConstants.RESPONSES.equals(path.get(0)) ||
+                    !AWSConstants.SUCCESSFUL_RESPONSE.equals(path.get(1)) ||
+                    !AWSConstants.ATTRIBUTES.equals(path.get(3))) {
+                return false;
+            }
+            for (int i = 0; i < names.length; i++) {
+                if (!names[i].equals(path.get(i + 4))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+
+            if (value == null) {
+                return true;
+            }
+            if (isAtAttribute(AWSConstants.KEY, AWSConstants.NAME)) {
+                attributeName = value.toString();
+            } else if (isAtAttribute(AWSConstants.VALUE, AWSConstants.STRING_VALUE)) {
+                attributeValue = value.toString();
+            } else if (isAt(AWSConstants.RESPONSES, AWSConstants.EXCEPTION_RESPONSE, AWSConstants.TYPE)) {
+                response.errorType = value.toString();
+            } else if (isAt(AWSConstants.RESPONSES, AWSConstants.EXCEPTION_RESPONSE, AWSConstants.MESSAGE)) {
+                response.errorMessage = value.toString();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+
+            if (isAtAttribute()) {
+                // End of an attribute element.
+                if (attributeName != null && attributeValue != null &&
+                        (attributeNames == null || attributeNames.contains(attributeName))) {
+                    response.attributes.put(attributeName, attributeValue);
+                }
+                attributeName = null;
+                attributeValue = null;
+            } else if (isAt(AWSConstants.RESPONSES)) {
+                // End of the response of an operation.
+                responses.add(response);
+                response = new ObjectAttributes();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Picks the attribute name and string value pairs out of a ListObjectAttributes response.
+     */
+    private static class ObjectAttributesHandler extends PathTrackingHandler {
+
+        private final Set<String> attributeNames;
+        private final Map<String, String> attributes = new HashMap<>();
+        private String attributeName;
+        private String attributeValue;
+
+        ObjectAttributesHandler(Set<String> attributeNames) {
+
+            this.attributeNames = attributeNames;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+
+            if (value == null) {
+                return true;
+            }
+            if (isAt(AWSConstants.ATTRIBUTES, AWSConstants.KEY, AWSConstants.NAME)) {
+                attributeName = value.toString();
+            } else if (isAt(AWSConstants.ATTRIBUTES, AWSConstants.VALUE, AWSConstants.STRING_VALUE)) {
+                attributeValue = value.toString();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+
+            if (!isAt(AWSConstants.ATTRIBUTES)) {
+                return true;
+            }
+            // End of an attribute element.
+            if (attributeName != null && attributeValue != null &&
+                    (attributeNames == null || attributeNames.contains(attributeName))) {
+                attributes.put(attributeName, attributeValue);
+            }
+            attributeName = null;
+            attributeValue = null;
+            // Stop parsing once all the requested attributes are found.
+            return attributeNames == null || attributes.size() < attributeNames.size();
+        }
+    }
+}
@@ -20,29 +20,49 @@ package org.wso2.carbon.aws.user.store.mgt.util;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.aws.user.store.mgt.util.AWSByteBufferPool.PooledByteBuffer;
 import org.wso2.carbon.user.api.RealmConfiguration;
 import org.wso2.carbon.user.core.UserStoreException;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.UnsupportedEncodingException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Provides REST API operations to connect with Amazon Cloud Directory.
@@ -50,32 +70,78 @@ import java.util.TreeMap;
 public class AWSRestApiActions {
 
     private static final Log log = LogFactory.getLog(AWSRestApiActions.class);
+    private static final ContentType CONTENT_TYPE = ContentType.create(ContentType.TEXT_PLAIN.getMimeType(),
+            AWSConstants.UTF_8);
     // Host header value.
     private String hostHeader;
-    // Region which is used select a regional endpoint to make requests.
-    private String region;
-    // AWS access key ID.
-    private String accessKeyID;
-    // AWS secret access key.
-    private String secretAccessKey;
     // The Amazon Resource Name (ARN) of the directory.
     private String directoryArn;
     // Schema arn of the directory.
     private String schemaArn;
-    // Base uri to build the canonicalURI.
-    private String baseURI;
-
-    public AWSRestApiActions(RealmConfiguration realmConfig) {
-
-        region = realmConfig.getUserStoreProperty(AWSConstants.REGION);
+    // Signs the requests of this user store.
+    private AWSSignatureV4Generator signatureGenerator;
+    // Decides which requests to retry and when.
+    private AWSRetryPolicy retryPolicy;
+    // Paces the requests of this user store once Cloud Directory starts throttling them.
+    private AWSRateLimiter rateLimiter = new AWSRateLimiter();
+    // Dispatches the requests of this user store by priority within the rate and concurrency limits.
+    private AWSRequestScheduler requestScheduler;
+    // Fails the requests to the endpoints which keep failing.
+    private AWSCircuitBreaker circuitBreaker;
+    // Latency percentile of each endpoint, after which the reads are hedged. Null if hedging is disabled.
+    private AWSLatencyTracker latencyTracker;
+    // Deadline of a request in milliseconds, including the retries.
+    private long requestTimeout;
+    private final AtomicLong timedOutRequests = new AtomicLong();
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    // Reads in flight, by which identical reads are coalesced.
+    private final Map<RequestKey, InFlightRead> inFlightReads = new ConcurrentHashMap<>();
+    // Number of reads served by an identical request in flight.
+    private final AtomicLong coalescedRequests = new AtomicLong();
+    // Pooled non-blocking http client shared by all the requests of this user store.
+    private CloseableHttpAsyncClient httpClient;
+
+    public AWSRestApiActions(RealmConfiguration realmConfig, int tenantId) throws UserStoreException {
+
+        // Region which is used select a regional endpoint to make requests.
+        String region = realmConfig.getUserStoreProperty(AWSConstants.REGION);
         // Cloud directory API version.
         String apiVersion = realmConfig.getUserStoreProperty(AWSConstants.API_VERSION);
         hostHeader = AWSConstants.SERVICE + "." + region + AWSConstants.AMAZON_AWS_COM;
-        accessKeyID = realmConfig.getUserStoreProperty(AWSConstants.ACCESS_KEY_ID);
-        secretAccessKey = realmConfig.getUserStoreProperty(AWSConstants.SECRET_ACCESS_KEY);
         directoryArn = realmConfig.getUserStoreProperty(AWSConstants.DIRECTORY_ARN);
         schemaArn = realmConfig.getUserStoreProperty(AWSConstants.SCHEMA_ARN);
-        baseURI = AWSConstants.AMAZON_CLOUD_DIRECTORY + apiVersion;
+        signatureGenerator = new AWSSignatureV4Generator.Builder(
+                realmConfig.getUserStoreProperty(AWSConstants.ACCESS_KEY_ID),
+                realmConfig.getUserStoreProperty(AWSConstants.SECRET_ACCESS_KEY))
+                .regionName(region)
+                .serviceName(AWSConstants.SERVICE)
+                .hostHeader(hostHeader)
+                .baseURI(AWSConstants.AMAZON_CLOUD_DIRECTORY + apiVersion)
+                .directoryArn(directoryArn)
+                .schemaArn(schemaArn)
+                .build();
+        retryPolicy = new AWSRetryPolicy(realmConfig);
+        requestScheduler = new AWSRequestScheduler(rateLimiter, AWSHttpClientProvider.getIntProperty(realmConfig,
+                AWSConstants.MAX_CONCURRENT_REQUESTS, AWSConstants.DEFAULT_MAX_CONCURRENT_REQUESTS));
+        circuitBreaker = new AWSCircuitBreaker(realmConfig);
+        int hedgePercentile = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.HEDGE_PERCENTILE,
+                AWSConstants.DEFAULT_HEDGE_PERCENTILE);
+        if (hedgePercentile > 0 && hedgePercentile <= 100) {
+            latencyTracker = new AWSLatencyTracker(hedgePercentile);
+        }
+        requestTimeout = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.REQUEST_TIMEOUT,
+                AWSConstants.DEFAULT_REQUEST_TIMEOUT);
+        httpClient = AWSHttpClientProvider.getHttpClient(this, tenantId, realmConfig);
+    }
+
+    /**
+     * Release the pooled http client once the requests of this instance are over. The client is closed if no
+     * other instance uses it. The client is also released once this instance is garbage collected.
+     */
+    public void close() {
+
+        AWSHttpClientProvider.releaseHttpClient(this);
     }
 
     /**
@@ -87,27 +153,27 @@ public class AWSRestApiActions {
      */
     public JSONObject listDirectories(String nextToken) throws UserStoreException {
 
+        return getResult(listDirectoriesAsync(nextToken));
+    }
+
+    /**
+     * Lists directories that was created within an AWS account, without blocking the calling thread.
+     *
+     * @param nextToken The pagination token.
+     * @return Future of the list of directories.
+     */
+    public CompletableFuture<JSONObject> listDirectoriesAsync(String nextToken) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Listing all directories in AWS cloud with directoryArn: %s and schemaArn: %s.",
                     directoryArn, schemaArn));
         }
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        String canonicalURI = baseURI + AWSConstants.LIST_DIRECTORIES;
         String payload = buildPayloadToListDirectories(nextToken).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to list directories : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while listing directories. " + AWSConstants.RESPONSE,
-                    responseObject.toJSONString(), statusCode));
-        }
-        return null;
+        return executeAsync(AWSEndpoint.LIST_DIRECTORIES, payload,
+                "Error occured while listing directories. ");
     }
 
     /**
@@ -120,30 +186,85 @@ public class AWSRestApiActions {
      */
     public JSONObject listOutgoingTypedLinks(String typedLinkName, String objectReference) throws UserStoreException {
 
+        return getResult(listOutgoingTypedLinksAsync(typedLinkName, objectReference));
+    }
+
+    /**
+     * Returns a paginated list of all the outgoing TypedLinkSpecifier information for an object, without blocking
+     * the calling thread.
+     *
+     * @param typedLinkName   Name of the typed link.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @return Future of the outgoing typed link specifiers.
+     */
+    public CompletableFuture<JSONObject> listOutgoingTypedLinksAsync(String typedLinkName, String objectReference) {
+
+        return listOutgoingTypedLinksAsync(null, typedLinkName, objectReference);
+    }
+
+    /**
+     * Returns a page of the outgoing TypedLinkSpecifier information for an object, without blocking the calling
+     * thread.
+     *
+     * @param nextToken       The pagination token, or null for the first page.
+     * @param typedLinkName   Name of the typed link.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @return Future of the page of outgoing typed link specifiers.
+     */
+    public CompletableFuture<JSONObject> listOutgoingTypedLinksAsync(String nextToken, String typedLinkName,
+                                                                    String objectReference) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Getting all the outgoing TypedLinkSpecifier information for an object: %s.",
                     objectReference));
         }
-        String canonicalURI = baseURI + AWSConstants.LIST_OUTGOING_TYPEDLINK;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
 
-        String payload = buildPayloadToGetTypedLink(typedLinkName, objectReference).toJSONString();
+        String payload = buildPayloadToGetTypedLink(nextToken, typedLinkName, objectReference).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to get outgoing TypedLinkSpecifier information : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while getting outgoing TypedLinkSpecifier for object %s. "
-                    + AWSConstants.RESPONSE, objectReference, responseObject.toJSONString(), statusCode));
+        return executeAsync(AWSEndpoint.LIST_OUTGOING_TYPEDLINK, payload, String.format(
+                "Error occured while getting outgoing TypedLinkSpecifier for object %s. ", objectReference));
+    }
+
+    /**
+     * Returns the outgoing TypedLinkSpecifier information for an object, of the typed links whose identity
+     * attributes hold the given values. The typed links are filtered by Cloud Directory, hence only the matching
+     * typed links are transferred.
+     *
+     * @param typedLinkName           Name of the typed link.
+     * @param objectReference         The reference that identifies the object in the directory structure.
+     * @param identityAttributeValues Values of the identity attributes to match exactly, in the identity attribute
+     *                                order of the typed link facet.
+     * @return Returns matching outgoing typed link specifiers as output.
+     * @throws UserStoreException If error occurred.
+     */
+    public JSONObject listOutgoingTypedLinks(String typedLinkName, String objectReference,
+                                             Map<String, String> identityAttributeValues) throws UserStoreException {
+
+        JSONObject response = buildPayloadToGetTypedLink(typedLinkName, objectReference);
+        JSONArray filterAttributeRanges = new JSONArray();
+        for (Map.Entry<String, String> entry : identityAttributeValues.entrySet()) {
+            JSONObject value = new JSONObject();
+            value.put(AWSConstants.STRING_VALUE, entry.getValue());
+            JSONObject range = new JSONObject();
+            range.put(AWSConstants.START_MODE, AWSConstants.INCLUSIVE);
+            range.put(AWSConstants.START_VALUE, value);
+            range.put(AWSConstants.END_MODE, AWSConstants.INCLUSIVE);
+            range.put(AWSConstants.END_VALUE, value);
+            JSONObject attributeRange = new JSONObject();
+            attributeRange.put(AWSConstants.ATTRIBUTE_NAME, entry.getKey());
+            attributeRange.put(AWSConstants.RANGE, range);
+            filterAttributeRanges.add(attributeRange);
+        }
+        response.put(AWSConstants.FILTER_ATTRIBUTE_RANGES, filterAttributeRanges);
+        String payload = response.toJSONString();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Payload to get matching outgoing TypedLinkSpecifier information : %s ",
+                    payload));
         }
-        return null;
+        return getResult(executeAsync(AWSEndpoint.LIST_OUTGOING_TYPEDLINK, payload, String.format(
+                "Error occured while getting outgoing TypedLinkSpecifier for object %s. ", objectReference)));
     }
 
     /**
@@ -156,30 +277,88 @@ public class AWSRestApiActions {
      */
     public JSONObject listIncomingTypedLinks(String facetName, String selector) throws UserStoreException {
 
+        return getResult(listIncomingTypedLinksAsync(facetName, selector));
+    }
+
+    /**
+     * Returns a paginated list of all the incoming TypedLinkSpecifier information for an object, without blocking
+     * the calling thread.
+     *
+     * @param facetName Name of the facet.
+     * @param selector  Path of the object in the directory structure.
+     * @return Future of the incoming typed link specifiers.
+     */
+    public CompletableFuture<JSONObject> listIncomingTypedLinksAsync(String facetName, String selector) {
+
+        return listIncomingTypedLinksAsync(null, facetName, selector);
+    }
+
+    /**
+     * Returns a page of the incoming TypedLinkSpecifier information for an object, without blocking the calling
+     * thread.
+     *
+     * @param nextToken The pagination token, or null for the first page.
+     * @param facetName Name of the facet.
+     * @param selector  Path of the object in the directory structure.
+     * @return Future of the page of incoming typed link specifiers.
+     */
+    public CompletableFuture<JSONObject> listIncomingTypedLinksAsync(String nextToken, String facetName,
+                                                                    String selector) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Getting all the incoming TypedLinkSpecifier information for an object: %s.",
                     selector));
         }
-        String canonicalURI = baseURI + AWSConstants.LIST_INCOMING_TYPEDLINK;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
-        String payload = buildPayloadToGetTypedLink(facetName, selector).toJSONString();
+        String payload = buildPayloadToGetTypedLink(nextToken, facetName, selector).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to get incoming TypedLinkSpecifier information : %s ", payload));
         }
+        return executeAsync(AWSEndpoint.LIST_INCOMING_TYPEDLINK, payload, String.format(
+                "Error occured while getting incoming TypedLinkSpecifier for object %s. ", selector));
+    }
 
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while getting incoming TypedLinkSpecifier for object %s. "
-                    + AWSConstants.RESPONSE, selector, responseObject.toJSONString(), statusCode));
-        }
-        return null;
+    /**
+     * Iterate over the pages of the outgoing TypedLinkSpecifier information for an object. The following pages are
+     * requested ahead of the caller, and held back while the caller is behind by the prefetch depth.
+     *
+     * @param typedLinkName   Name of the typed link.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param prefetchDepth   Number of pages to request ahead of the page the caller takes next.
+     * @return Iterator over the pages of outgoing typed link specifiers.
+     */
+    public AWSPageIterator<JSONObject> iterateOutgoingTypedLinks(String typedLinkName, String objectReference,
+                                                                 int prefetchDepth) {
+
+        return new AWSPageIterator<>(this, token -> listOutgoingTypedLinksAsync(token, typedLinkName,
+                objectReference), AWSRestApiActions::getNextToken, prefetchDepth, null);
+    }
+
+    /**
+     * Iterate over the pages of the incoming TypedLinkSpecifier information for an object. The following pages are
+     * requested ahead of the caller, and held back while the caller is behind by the prefetch depth.
+     *
+     * @param facetName     Name of the facet.
+     * @param selector      Path of the object in the directory structure.
+     * @param prefetchDepth Number of pages to request ahead of the page the caller takes next.
+     * @return Iterator over the pages of incoming typed link specifiers.
+     */
+    public AWSPageIterator<JSONObject> iterateIncomingTypedLinks(String facetName, String selector,
+                                                                 int prefetchDepth) {
+
+        return new AWSPageIterator<>(this, token -> listIncomingTypedLinksAsync(token, facetName, selector),
+                AWSRestApiActions::getNextToken, prefetchDepth, null);
+    }
+
+    /**
+     * Get the pagination token of the page which follows a page of a listing.
+     *
+     * @param page Page of a listing.
+     * @return Pagination token, or null if this is the last page.
+     */
+    public static String getNextToken(JSONObject page) {
+
+        Object nextToken = page != null ? page.get(AWSConstants.NEXT_TOKEN) : null;
+        return nextToken != null ? StringUtils.defaultIfEmpty(nextToken.toString(), null) : null;
     }
 
     /**
@@ -191,26 +370,26 @@ public class AWSRestApiActions {
      */
     public JSONObject getFacetInfo(String facetName) throws UserStoreException {
 
+        return getResult(getFacetInfoAsync(facetName));
+    }
+
+    /**
+     * Get facet information, without blocking the calling thread.
+     *
+     * @param facetName Facet name.
+     * @return Future of the facet info. Completes with null if the facet does not exist.
+     */
+    public CompletableFuture<JSONObject> getFacetInfoAsync(String facetName) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Get facet information for facetName: %s.", facetName));
         }
-        String canonicalURI = baseURI + AWSConstants.FACET;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, schemaArn);
 
         String payload = "{\"Name\": \"" + facetName + "\"}";
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to get facet information : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, schemaArn);
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        }
-        return null;
+        return executeAsync(AWSEndpoint.GET_FACET, payload, null);
     }
 
     /**
@@ -222,13 +401,21 @@ public class AWSRestApiActions {
      */
     public JSONObject getTypedLinkFacetInformation(String typedLinkFacetName) throws UserStoreException {
 
+        return getResult(getTypedLinkFacetInformationAsync(typedLinkFacetName));
+    }
+
+    /**
+     * Get typed link facet information, without blocking the calling thread.
+     *
+     * @param typedLinkFacetName Typed link facet name.
+     * @return Future of the facet info. Completes with null if the typed link facet does not exist.
+     */
+    public CompletableFuture<JSONObject> getTypedLinkFacetInformationAsync(String typedLinkFacetName) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Get typed link facet information for typedLinkFacetName: %s.",
                     typedLinkFacetName));
         }
-        String canonicalURI = baseURI + AWSConstants.GET_TYPED_LINK_FACET;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, schemaArn);
 
         JSONObject payload = new JSONObject();
         payload.put(AWSConstants.NAME, typedLinkFacetName);
@@ -236,15 +423,7 @@ public class AWSRestApiActions {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to get typed link facet information : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload.toJSONString());
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, schemaArn);
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        }
-        return null;
+        return executeAsync(AWSEndpoint.GET_TYPED_LINK_FACET, payload.toJSONString(), null);
     }
 
     /**
@@ -257,34 +436,92 @@ public class AWSRestApiActions {
      */
     public JSONObject listObjectChildren(String nextToken, String selector) throws UserStoreException {
 
+        return getResult(listObjectChildrenAsync(nextToken, selector));
+    }
+
+    /**
+     * Returns a paginated list of child objects that are associated with a given object, without blocking the
+     * calling thread.
+     *
+     * @param nextToken The pagination token.
+     * @param selector  A path selector selection of an object by the parent/child links.
+     * @return Future of the list of child objects.
+     */
+    public CompletableFuture<JSONObject> listObjectChildrenAsync(String nextToken, String selector) {
+
+        return listObjectChildrenAsync(nextToken, selector, this::getParsedObjectByReader);
+    }
+
+    /**
+     * Returns a paginated list of the names of the child objects that are associated with a given object. Only the
+     * child names and the pagination token are picked out of the response.
+     *
+     * @param nextToken The pagination token.
+     * @param selector  A path selector selection of an object by the parent/child links.
+     * @return Page of child object names.
+     * @throws UserStoreException If error occurred.
+     */
+    public AWSResponseDecoders.ObjectChildren listObjectChildNames(String nextToken, String selector)
+            throws UserStoreException {
+
+        return getResult(listObjectChildNamesAsync(nextToken, selector));
+    }
+
+    /**
+     * Returns a paginated list of the names of the child objects that are associated with a given object, without
+     * blocking the calling thread.
+     *
+     * @param nextToken The pagination token.
+     * @param selector  A path selector selection of an object by the parent/child links.
+     * @return Future of the page of child object names.
+     */
+    public CompletableFuture<AWSResponseDecoders.ObjectChildren> listObjectChildNamesAsync(String nextToken,
+                                                                                           String selector) {
+
+        return listObjectChildrenAsync(nextToken, selector, AWSResponseDecoders.OBJECT_CHILDREN);
+    }
+
+    /**
+     * Iterate over the pages of the names of the child objects that are associated with a given object. The
+     * following pages are requested ahead of the caller.
+     *
+     * @param nextToken     The pagination token to start from, or null to start from the first page.
+     * @param selector      A path selector selection of an object by the parent/child links.
+     * @param prefetchDepth Number of pages to request ahead of the page the caller takes next.
+     * @return Iterator over the pages of child object names.
+     */
+    public AWSPageIterator<AWSResponseDecoders.ObjectChildren> iterateObjectChildNames(String nextToken,
+                                                                                     String selector,
+                                                                                     int prefetchDepth) {
+
+        return new AWSPageIterator<>(this, token -> listObjectChildNamesAsync(token, selector),
+                AWSResponseDecoders.ObjectChildren::getNextToken, prefetchDepth, nextToken);
+    }
+
+    /**
+     * List the child objects of a given object and decode the response with the given decoder.
+     *
+     * @param nextToken The pagination token.
+     * @param selector  A path selector selection of an object by the parent/child links.
+     * @param decoder   Decoder of the response.
+     * @param <T>       Type of the decoded result.
+     * @return Future of the decoded result.
+     */
+    private <T> CompletableFuture<T> listObjectChildrenAsync(String nextToken, String selector,
+                                                             AWSResponseDecoder<T> decoder) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Listing the child objects that are associated with a given object. " +
                     "ObjectReference : %s", selector));
         }
-        String canonicalURI = baseURI + AWSConstants.LIST_OBJECT_CHILDREN;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
-        awsHeaders.put(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
 
         String payload = buildPayloadToListObjectChildren(nextToken, selector).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to list the child objects of a given object : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        httpPost.setHeader(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
-
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while listing the child objects of a given object. " +
-                            "ObjectReference : %s. " + AWSConstants.RESPONSE, selector, responseObject.toJSONString(),
-                    statusCode));
-        }
-        return null;
+        return executeAsync(AWSEndpoint.LIST_OBJECT_CHILDREN, payload, String.format(
+                "Error occured while listing the child objects of a given object. ObjectReference : %s. ",
+                selector), decoder);
     }
 
     /**
@@ -295,12 +532,23 @@ public class AWSRestApiActions {
      */
     public void deleteObject(String selector) throws UserStoreException {
 
+        JSONObject responseObject = getResult(deleteObjectAsync(selector));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Successfully deleted object. Response : %s", responseObject));
+        }
+    }
+
+    /**
+     * Deletes an object and its associated attributes, without blocking the calling thread.
+     *
+     * @param selector A path selector selection of an object by the parent/child links.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> deleteObjectAsync(String selector) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Deleting an object with objectReference %s.", selector));
         }
-        String canonicalURI = baseURI + AWSConstants.DELETE_OBJECT;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
 
         HashMap<String, String> objectPath = new HashMap<>();
         JSONObject payload = new JSONObject();
@@ -310,20 +558,8 @@ public class AWSRestApiActions {
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to delete an object : %s ", payload));
         }
-
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload.toJSONString());
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Successfully deleted object. Response : %s", responseObject));
-            }
-        } else {
-            handleException(String.format("Error occured while delete an object %s. " + AWSConstants.RESPONSE, selector,
-                    responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.DELETE_OBJECT, payload.toJSONString(),
+                String.format("Error occured while delete an object %s. ", selector));
     }
 
     /**
@@ -338,30 +574,34 @@ public class AWSRestApiActions {
     public void updateObjectAttributes(String action, String facetName, String objectReference, Map<String, String> map)
             throws UserStoreException {
 
+        getResult(updateObjectAttributesAsync(action, facetName, objectReference, map));
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully updated object's attributes");
+        }
+    }
+
+    /**
+     * Updates a given object's attributes, without blocking the calling thread.
+     *
+     * @param action          The action to perform when updating the attribute.
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param map             List of properties to build the payload.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> updateObjectAttributesAsync(String action, String facetName,
+                                                                     String objectReference,
+                                                                     Map<String, String> map) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Updating a given object's attributes of object: %s.", objectReference));
         }
-        String canonicalURI = baseURI + AWSConstants.UPDATE_OBJECT;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         String payload = buildPayloadToUpdateObjectAttributes(action, facetName, objectReference, map).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to update a given object's attributes : %s ", payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug("Successfully updated object's attributes");
-            }
-        } else {
-            handleException(String.format("Error occured while update a given object's attributes. ObjectReference: %s"
-                    + AWSConstants.RESPONSE, objectReference, responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.UPDATE_OBJECT, payload, String.format(
+                "Error occured while update a given object's attributes. ObjectReference: %s", objectReference));
     }
 
     /**
@@ -373,34 +613,33 @@ public class AWSRestApiActions {
      */
     public int detachTypedLink(String payload) throws UserStoreException {
 
+        int statusCode = getResult(detachTypedLinkAsync(payload));
+        if (log.isDebugEnabled() && statusCode == HttpStatus.SC_OK) {
+            log.debug("Successfully detach a typed link from a specified source and target object");
+        }
+        return statusCode;
+    }
+
+    /**
+     * Detaches a typed link from a specified source and target object, without blocking the calling thread.
+     *
+     * @param payload Payload to detach type link.
+     * @return Future of the status code for this action.
+     */
+    public CompletableFuture<Integer> detachTypedLinkAsync(String payload) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Detaching a typed link from a specified source and target object in directory %s.",
                     directoryArn));
         }
-        String canonicalURI = baseURI + AWSConstants.DETACH_TYPEDLINK;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to detach a typed link from a specified source and target object : %s ",
                     payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        int statusCode = 0;
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build()) {
-            httpPut.setHeader(AWSConstants.HOST_HEADER, hostHeader);
-            httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-            httpPut.setEntity(new StringEntity(payload, AWSConstants.UTF_8));
-            if (log.isDebugEnabled()) {
-                log.debug("Invoking HTTP request to detach a typed link from a specified source and target object.");
-            }
-            statusCode = httpClient.execute(httpPut).getStatusLine().getStatusCode();
-            if (log.isDebugEnabled() && statusCode == HttpStatus.SC_OK) {
-                log.debug("Successfully detach a typed link from a specified source and target object");
-            }
-        } catch (IOException e) {
-            handleException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e);
-        }
-        return statusCode;
+        return sendAsync(AWSEndpoint.DETACH_TYPEDLINK, payload).thenApply(response -> {
+            response.release();
+            return response.statusCode;
+        });
     }
 
     /**
@@ -411,28 +650,28 @@ public class AWSRestApiActions {
      */
     public void batchWrite(String payload) throws UserStoreException {
 
+        getResult(batchWriteAsync(payload));
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully executed batch write operation.");
+        }
+    }
+
+    /**
+     * Performs write operations in a batch, without blocking the calling thread.
+     *
+     * @param payload Payload of the batch write operation.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> batchWriteAsync(String payload) {
+
         if (log.isDebugEnabled()) {
             log.debug("Calling batch write operation");
         }
-        String canonicalURI = baseURI + AWSConstants.BATCH_WRITE;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload for batch write operation : %s ", payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug("Successfully executed batch write operation.");
-            }
-        } else {
-            handleException(String.format("Error occurred while performing batch write operation: . "
-                    + AWSConstants.RESPONSE, responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.BATCH_WRITE, payload,
+                "Error occurred while performing batch write operation: . ");
     }
 
     /**
@@ -445,29 +684,27 @@ public class AWSRestApiActions {
      */
     public JSONObject detachObject(String linkName, String parentReference) throws UserStoreException {
 
+        return getResult(detachObjectAsync(linkName, parentReference));
+    }
+
+    /**
+     * Detaches a given object from the parent object, without blocking the calling thread.
+     *
+     * @param linkName        Name of the link.
+     * @param parentReference The parent reference to which this object will be attached.
+     * @return Future of the ObjectIdentifier that was detached from the object.
+     */
+    public CompletableFuture<JSONObject> detachObjectAsync(String linkName, String parentReference) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Detaching a given object from the parent object: %s.", parentReference));
         }
-        String canonicalURI = baseURI + AWSConstants.DETACH_OBJECT;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         String payload = buildPayloadToDetachObject(linkName, parentReference).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to detach a given object from the parent object : %s ", payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while detach a given object from the parent object : %s. "
-                    + AWSConstants.RESPONSE, parentReference, responseObject.toJSONString(), statusCode));
-        }
-        return null;
+        return executeAsync(AWSEndpoint.DETACH_OBJECT, payload, String.format(
+                "Error occured while detach a given object from the parent object : %s. ", parentReference));
     }
 
     /**
@@ -479,33 +716,67 @@ public class AWSRestApiActions {
      */
     public JSONObject getObjectInformation(String selector) throws UserStoreException {
 
+        return getResult(getObjectInformationAsync(selector));
+    }
+
+    /**
+     * Retrieves metadata about an object, without blocking the calling thread.
+     *
+     * @param selector A path selector selection of an object by the parent/child links.
+     * @return Future of the object information. Completes with null if the object does not exist.
+     */
+    public CompletableFuture<JSONObject> getObjectInformationAsync(String selector) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Retrieving meta data about an object with objectReference %s.", selector));
         }
-        String canonicalURI = baseURI + AWSConstants.GET_OBJECT_INFORMATION;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
-        awsHeaders.put(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
-
-        HashMap<String, String> objectPath = new HashMap<>();
-        JSONObject payload = new JSONObject();
-        objectPath.put(AWSConstants.SELECTOR, selector);
-        payload.put(AWSConstants.REFERENCE, objectPath);
 
+        JSONObject payload = buildPayloadToGetObjectInformation(selector);
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to Retrieve metadata about an object : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload.toJSONString());
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        httpPost.setHeader(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
+        return executeAsync(AWSEndpoint.GET_OBJECT_INFORMATION, payload.toJSONString(), null);
+    }
 
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        }
-        return null;
+    /**
+     * Check whether an object exists with a single point lookup of its metadata.
+     *
+     * @param selector A path selector selection of an object by the parent/child links.
+     * @return Whether the object exists.
+     * @throws UserStoreException If error occurred.
+     */
+    public boolean objectExists(String selector) throws UserStoreException {
+
+        return getResult(objectExistsAsync(selector));
+    }
+
+    /**
+     * Check whether an object exists with a single point lookup of its metadata, without blocking the calling
+     * thread. Unlike {@link #getObjectInformationAsync(String)}, only a not found response means that the object
+     * does not exist, and the other failures fail the future.
+     *
+     * @param selector A path selector selection of an object by the parent/child links.
+     * @return Future of whether the object exists.
+     */
+    public CompletableFuture<Boolean> objectExistsAsync(String selector) {
+
+        String payload = buildPayloadToGetObjectInformation(selector).toJSONString();
+        return sendAsync(AWSEndpoint.GET_OBJECT_INFORMATION, payload).thenCompose(response -> {
+            try {
+                if (response.statusCode == HttpStatus.SC_OK) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                if (response.statusCode == HttpStatus.SC_NOT_FOUND || (response.errorType != null &&
+                        response.errorType.startsWith(AWSConstants.RESOURCE_NOT_FOUND_EXCEPTION))) {
+                    return CompletableFuture.completedFuture(false);
+                }
+                return failedFuture(new UserStoreException(String.format("Error occurred while retrieving meta " +
+                        "data about an object with objectReference %s. " + AWSConstants.RESPONSE, selector,
+                        response.errorType, response.statusCode)));
+            } finally {
+                response.release();
+            }
+        });
     }
 
     /**
@@ -518,31 +789,145 @@ public class AWSRestApiActions {
      */
     public JSONObject listObjectAttributes(String facetName, String objectReference) throws UserStoreException {
 
+        return getResult(listObjectAttributesAsync(facetName, objectReference));
+    }
+
+    /**
+     * Lists all attributes that are associated with an object, without blocking the calling thread.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @return Future of the object attributes.
+     */
+    public CompletableFuture<JSONObject> listObjectAttributesAsync(String facetName, String objectReference) {
+
+        return listObjectAttributesAsync(facetName, objectReference, this::getParsedObjectByReader);
+    }
+
+    /**
+     * Lists the string values of the attributes that are associated with an object. Only the requested attribute
+     * names and values are picked out of the response.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributeNames  Names of the attributes to pick. All the attributes are picked if empty.
+     * @return Attribute values against the attribute names.
+     * @throws UserStoreException If error occurred.
+     */
+    public Map<String, String> listObjectAttributeValues(String facetName, String objectReference,
+                                                         String... attributeNames) throws UserStoreException {
+
+        return getResult(listObjectAttributeValuesAsync(facetName, objectReference, attributeNames));
+    }
+
+    /**
+     * Lists the string values of the attributes that are associated with an object, without blocking the calling
+     * thread.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributeNames  Names of the attributes to pick. All the attributes are picked if empty.
+     * @return Future of the attribute values against the attribute names.
+     */
+    public CompletableFuture<Map<String, String>> listObjectAttributeValuesAsync(String facetName,
+                                                                                 String objectReference,
+                                                                                 String... attributeNames) {
+
+        return listObjectAttributesAsync(facetName, objectReference,
+                AWSResponseDecoders.objectAttributes(attributeNames));
+    }
+
+    /**
+     * List the attributes of an object and decode the response with the given decoder.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param decoder         Decoder of the response.
+     * @param <T>             Type of the decoded result.
+     * @return Future of the decoded result.
+     */
+    private <T> CompletableFuture<T> listObjectAttributesAsync(String facetName, String objectReference,
+                                                               AWSResponseDecoder<T> decoder) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Listing all attributes of an object: %s.", objectReference));
         }
-        String canonicalURI = baseURI + AWSConstants.LIST_OBJECT_ATTRIBUTES;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
-        awsHeaders.put(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
         String payload = buildPayloadToListObjectAttributes(facetName, objectReference).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to list all attributes of an object : %s ", payload));
         }
-        HttpPost httpPost = preparePostHeaders(canonicalURI, awsHeaders, payload);
-        httpPost.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-        httpPost.setHeader(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
+        return executeAsync(AWSEndpoint.LIST_OBJECT_ATTRIBUTES, payload, String.format(
+                "Error occured while list all attributes of an object: %s. ", objectReference), decoder);
+    }
 
-        HTTPResponse result = getHttpPostResults(httpPost);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            return responseObject;
-        } else {
-            handleException(String.format("Error occured while list all attributes of an object: %s. " +
-                    AWSConstants.RESPONSE, objectReference, responseObject.toJSONString(), statusCode));
-        }
-        return null;
+    /**
+     * Reads the string values of the attributes of many objects, packing as many reads into a BatchRead request as
+     * Cloud Directory accepts. A read which fails does not fail the others, and is reported in its result instead.
+     *
+     * @param facetName        Name of the facet.
+     * @param objectReferences The references that identify the objects in the directory structure.
+     * @param attributeNames   Names of the attributes to read. All the attributes are read if empty.
+     * @return Attributes of the objects, in the order of the object references.
+     * @throws UserStoreException If a batch request failed as a whole.
+     */
+    public List<AWSResponseDecoders.ObjectAttributes> batchGetObjectAttributes(String facetName,
+                                                                             List<String> objectReferences,
+                                                                             String... attributeNames)
+            throws UserStoreException {
+
+        return getResult(batchGetObjectAttributesAsync(facetName, objectReferences, attributeNames));
+    }
+
+    /**
+     * Reads the string values of the attributes of many objects with BatchRead requests, without blocking the
+     * calling thread. The batch requests are sent concurrently.
+     *
+     * @param facetName        Name of the facet.
+     * @param objectReferences The references that identify the objects in the directory structure.
+     * @param attributeNames   Names of the attributes to read. All the attributes are read if empty.
+     * @return Future of the attributes of the objects, in the order of the object references.
+     */
+    public CompletableFuture<List<AWSResponseDecoders.ObjectAttributes>> batchGetObjectAttributesAsync(
+            String facetName, List<String> objectReferences, String... attributeNames) {
+
+        List<CompletableFuture<List<AWSResponseDecoders.ObjectAttributes>>> batches = new ArrayList<>();
+        for (int i = 0; i < objectReferences.size(); i += AWSConstants.MAX_BATCH_READ_OPERATIONS) {
+            List<String> batch = objectReferences.subList(i, Math.min(i + AWSConstants.MAX_BATCH_READ_OPERATIONS,
+                    objectReferences.size()));
+            JSONArray operations = new JSONArray();
+            for (String objectReference : batch) {
+                JSONObject operation = new JSONObject();
+                if (attributeNames.length == 0) {
+                    operation.put(AWSConstants.LIST_OBJECT_ATTRIBUTES_OPERATION,
+                            buildPayloadToListObjectAttributes(facetName, objectReference));
+                } else {
+                    operation.put(AWSConstants.GET_OBJECT_ATTRIBUTES,
+                            buildPayloadToGetObjectAttributes(facetName, objectReference, attributeNames));
+                }
+                operations.add(operation);
+            }
+            JSONObject payload = new JSONObject();
+            payload.put(AWSConstants.OPERATION, operations);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Payload for batch read operation : %s ", payload));
+            }
+            batches.add(executeAsync(AWSEndpoint.BATCH_READ, payload.toJSONString(), String.format(
+                    "Error occurred while reading the attributes of the objects: %s in a batch. ", batch),
+                    AWSResponseDecoders.batchObjectAttributes(attributeNames)).thenCompose(responses -> {
+                if (responses.size() != batch.size()) {
+                    return failedFuture(new UserStoreException(String.format("Batch read returned %s responses " +
+                            "for %s operations.", responses.size(), batch.size())));
+                }
+                return CompletableFuture.completedFuture(responses);
+            }));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<AWSResponseDecoders.ObjectAttributes> results = new ArrayList<>(objectReferences.size());
+            for (CompletableFuture<List<AWSResponseDecoders.ObjectAttributes>> batch : batches) {
+                results.addAll(batch.join());
+            }
+            return results;
+        });
     }
 
     /**
@@ -557,33 +942,36 @@ public class AWSRestApiActions {
     public void attachTypedLink(String sourceSelector, String targetSelector, String facetName, Map<String, String> map)
             throws UserStoreException {
 
+        JSONObject responseObject = getResult(attachTypedLinkAsync(sourceSelector, targetSelector, facetName, map));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Successfully attached a typed link. Response : %s",
+                    responseObject.toJSONString()));
+        }
+    }
+
+    /**
+     * Attaches a typed link to a specified source and target object, without blocking the calling thread.
+     *
+     * @param sourceSelector The reference that identifies the source object in the directory structure.
+     * @param targetSelector The reference that identifies the target object in the directory structure.
+     * @param facetName      Name of the facet.
+     * @param map            List of properties to build the payload.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> attachTypedLinkAsync(String sourceSelector, String targetSelector,
+                                                              String facetName, Map<String, String> map) {
+
         if (log.isDebugEnabled()) {
             log.debug("Attaching a typed link to a specified source and target object.");
         }
-        String canonicalURI = baseURI + AWSConstants.ATTACH_TYPEDLINK;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         String payload =
                 buildPayloadToGetAttachTypedLink(sourceSelector, targetSelector, facetName, map).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to attach a typed link to a specified source and target object : %s ",
                     payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
-
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Successfully attached a typed link. Response : %s",
-                        responseObject.toJSONString()));
-            }
-        } else {
-            handleException(String.format("Error occured while attach a typed link to a specified source and " +
-                    "target object." + AWSConstants.RESPONSE, responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.ATTACH_TYPEDLINK, payload,
+                "Error occured while attach a typed link to a specified source and target object.");
     }
 
     /**
@@ -595,31 +983,31 @@ public class AWSRestApiActions {
      */
     public void createTypedLinkFacet(String facetName, List attributes) throws UserStoreException {
 
+        JSONObject responseObject = getResult(createTypedLinkFacetAsync(facetName, attributes));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("TypedLinkFacet is created successfully. Response : %s ",
+                    responseObject.toJSONString()));
+        }
+    }
+
+    /**
+     * Creates a TypedLinkFacet, without blocking the calling thread.
+     *
+     * @param facetName  Name of the facet.
+     * @param attributes List of attributes to build the payload.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> createTypedLinkFacetAsync(String facetName, List attributes) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Creating a TypedLinkFacet %s in schema %s.", facetName, schemaArn));
         }
-        String canonicalURI = baseURI + AWSConstants.CREATE_TYPEDLINK;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, schemaArn);
         String payload = buildPayloadToGetTypedLinkFacet(facetName, attributes).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to create a TypedLinkFacet : %s ", payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, schemaArn);
-
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("TypedLinkFacet is created successfully. Response : %s ",
-                        responseObject.toJSONString()));
-            }
-        } else {
-            handleException(String.format("Error occured while create a TypedLinkFacet. " + AWSConstants.RESPONSE,
-                    responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.CREATE_TYPEDLINK, payload,
+                "Error occured while create a TypedLinkFacet. ");
     }
 
     /**
@@ -634,32 +1022,175 @@ public class AWSRestApiActions {
     public void createObject(String linkName, String facetName, String parentReference, Map<String, String> map)
             throws UserStoreException {
 
+        JSONObject responseObject = getResult(createObjectAsync(linkName, facetName, parentReference, map));
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Object is created successfull with ObjectIdentifier %s ",
+                    responseObject.get("ObjectIdentifier")));
+        }
+    }
+
+    /**
+     * Creates an object in a Directory, without blocking the calling thread.
+     *
+     * @param linkName        Name of the link.
+     * @param facetName       Name of the facet.
+     * @param parentReference The parent reference to which this object will be attached.
+     * @param map             List of properties to build the payload.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> createObjectAsync(String linkName, String facetName, String parentReference,
+                                                           Map<String, String> map) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Creating an object in a directory: %s with link Name %s.",
                     directoryArn, linkName));
         }
-        String canonicalURI = baseURI + AWSConstants.CREATE_OBJECT;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, directoryArn);
         String payload = buildPayloadToCreateObject(linkName, facetName, parentReference, map).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to create an object in a directory : %s ", payload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, payload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, directoryArn);
+        return executeAsync(AWSEndpoint.CREATE_OBJECT, payload,
+                String.format("Error occured while create an object in a directory %s. ", directoryArn));
+    }
 
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug(String.format("Object is created successfull with ObjectIdentifier %s ",
-                        responseObject.get("ObjectIdentifier")));
-            }
+    /**
+     * Creates an index object over the given attributes of a facet.
+     *
+     * @param linkName        Name of the link.
+     * @param parentReference The parent reference to which the index will be attached.
+     * @param facetName       Name of the facet.
+     * @param attributeNames  Names of the indexed attributes, in the order the index is sorted by.
+     * @throws UserStoreException If error occurred.
+     */
+    public void createIndex(String linkName, String parentReference, String facetName, List<String> attributeNames)
+            throws UserStoreException {
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Creating an index with link Name %s over the attributes: %s.", linkName,
+                    attributeNames));
+        }
+        HashMap<String, String> path = new HashMap<>();
+        path.put(AWSConstants.SELECTOR, parentReference);
+        JSONArray orderedIndexedAttributes = new JSONArray();
+        for (String attributeName : attributeNames) {
+            orderedIndexedAttributes.add(buildAttributeKey(facetName, attributeName));
+        }
+        JSONObject payload = new JSONObject();
+        payload.put(AWSConstants.IS_UNIQUE, false);
+        payload.put(AWSConstants.LINK_NAME, linkName);
+        payload.put(AWSConstants.ORDERED_INDEXED_ATTRIBUTE_LIST, orderedIndexedAttributes);
+        payload.put(AWSConstants.PARENT_REFERENCE, path);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Payload to create an index : %s ", payload));
+        }
+        getResult(executeAsync(AWSEndpoint.CREATE_INDEX, payload.toJSONString(),
+                String.format("Error occured while creating the index %s. ", linkName)));
+    }
+
+    /**
+     * Lists the objects attached to an index, whose first indexed attribute equals the given value, or starts with
+     * it if it is a prefix.
+     *
+     * @param nextToken      The pagination token.
+     * @param indexReference Path of the index in the directory structure.
+     * @param facetName      Name of the facet of the indexed attribute.
+     * @param attributeName  Name of the first indexed attribute.
+     * @param value          Value or prefix of the attribute.
+     * @param prefix         Whether the value is a prefix.
+     * @return Returns the index attachments along with their indexed attributes.
+     * @throws UserStoreException If error occurred.
+     */
+    public JSONObject listIndex(String nextToken, String indexReference, String facetName, String attributeName,
+                                String value, boolean prefix) throws UserStoreException {
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Listing the objects attached to the index: %s.", indexReference));
+        }
+        JSONObject range = new JSONObject();
+        range.put(AWSConstants.START_MODE, AWSConstants.INCLUSIVE);
+        range.put(AWSConstants.START_VALUE, buildStringValue(value));
+        String endValue = prefix ? getPrefixSuccessor(value) : value;
+        if (endValue == null) {
+            range.put(AWSConstants.END_MODE, AWSConstants.LAST_BEFORE_MISSING_VALUES);
         } else {
-            handleException(String.format("Error occured while create an object in a directory %s. " +
-                    AWSConstants.RESPONSE, directoryArn, responseObject.toJSONString(), statusCode));
+            range.put(AWSConstants.END_MODE, prefix ? AWSConstants.EXCLUSIVE : AWSConstants.INCLUSIVE);
+            range.put(AWSConstants.END_VALUE, buildStringValue(endValue));
         }
+        JSONObject rangeOnIndexedValue = new JSONObject();
+        rangeOnIndexedValue.put(AWSConstants.INDEXED_ATTRIBUTE_KEY, buildAttributeKey(facetName, attributeName));
+        rangeOnIndexedValue.put(AWSConstants.RANGE, range);
+        JSONArray rangesOnIndexedValues = new JSONArray();
+        rangesOnIndexedValues.add(rangeOnIndexedValue);
+
+        HashMap<String, String> path = new HashMap<>();
+        path.put(AWSConstants.SELECTOR, indexReference);
+        JSONObject payload = new JSONObject();
+        payload.put(AWSConstants.INDEX_REFERENCE, path);
+        payload.put(AWSConstants.RANGES_ON_INDEXED_VALUES, rangesOnIndexedValues);
+        if (nextToken != null) {
+            payload.put(AWSConstants.NEXT_TOKEN, nextToken);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Payload to list the objects attached to an index : %s ", payload));
+        }
+        return getResult(executeAsync(AWSEndpoint.LIST_INDEX, payload.toJSONString(),
+                String.format("Error occured while listing the objects attached to the index %s. ", indexReference)));
+    }
+
+    /**
+     * Generate the batch write operation to attach an object to an index, or detach an object from an index.
+     *
+     * @param operationName   {@link AWSConstants#ATTACH_TO_INDEX} or {@link AWSConstants#DETACH_FROM_INDEX}.
+     * @param indexReference  Path of the index in the directory structure.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @return Batch write operation.
+     */
+    public JSONObject buildIndexOperation(String operationName, String indexReference, String objectReference) {
+
+        HashMap<String, String> index = new HashMap<>();
+        HashMap<String, String> target = new HashMap<>();
+        index.put(AWSConstants.SELECTOR, indexReference);
+        target.put(AWSConstants.SELECTOR, objectReference);
+        JSONObject indexOperation = new JSONObject();
+        indexOperation.put(AWSConstants.INDEX_REFERENCE, index);
+        indexOperation.put(AWSConstants.INDEX_TARGET_REFERENCE, target);
+        JSONObject operation = new JSONObject();
+        operation.put(operationName, indexOperation);
+        return operation;
+    }
+
+    private HashMap<String, String> buildAttributeKey(String facetName, String attributeName) {
+
+        HashMap<String, String> key = new HashMap<>();
+        key.put(AWSConstants.FACET_NAME, facetName);
+        key.put(AWSConstants.NAME, attributeName);
+        key.put(AWSConstants.SCHEMA_ARN, schemaArn);
+        return key;
+    }
+
+    private static HashMap<String, String> buildStringValue(String value) {
+
+        HashMap<String, String> stringValue = new HashMap<>();
+        stringValue.put(AWSConstants.STRING_VALUE, value);
+        return stringValue;
+    }
+
+    /**
+     * Get the smallest string greater than all the strings which start with the given prefix.
+     *
+     * @param prefix Prefix.
+     * @return Successor of the prefix, or null if there is none.
+     */
+    private static String getPrefixSuccessor(String prefix) {
+
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
     }
 
     /**
@@ -671,30 +1202,30 @@ public class AWSRestApiActions {
      */
     public void createSchemaFacet(String facetName, Map<String, String> map) throws UserStoreException {
 
+        JSONObject responseObject = getResult(createSchemaFacetAsync(facetName, map));
+        if (log.isDebugEnabled()) {
+            log.debug("Schema facet is created successfully. Response Object : " + responseObject.toJSONString());
+        }
+    }
+
+    /**
+     * Creates a new Facet in a schema, without blocking the calling thread.
+     *
+     * @param facetName Name of the facet.
+     * @param map       List of properties to build the payload.
+     * @return Future of the response.
+     */
+    public CompletableFuture<JSONObject> createSchemaFacetAsync(String facetName, Map<String, String> map) {
+
         if (log.isDebugEnabled()) {
             log.debug(String.format("Creating a new Facet in a schema %s .", schemaArn));
         }
-        String canonicalURI = baseURI + AWSConstants.CREATE_FACET;
-        TreeMap<String, String> awsHeaders = new TreeMap<>();
-        awsHeaders.put(AWSConstants.PARTITION_HEADER, schemaArn);
         String facetPayload = buildPayloadToCreateSchemaFacet(facetName, map).toJSONString();
         if (log.isDebugEnabled()) {
             log.debug(String.format("Payload to create a new facet in a schema : %s ", facetPayload));
         }
-        HttpPut httpPut = preparePutHeaders(canonicalURI, awsHeaders, facetPayload);
-        httpPut.setHeader(AWSConstants.PARTITION_HEADER, schemaArn);
-
-        HTTPResponse result = getHttpPutResults(httpPut);
-        int statusCode = result.statusCode;
-        JSONObject responseObject = result.responseObject;
-        if (statusCode == HttpStatus.SC_OK) {
-            if (log.isDebugEnabled()) {
-                log.debug("Schema facet is created successfully. Response Object : " + responseObject.toJSONString());
-            }
-        } else {
-            handleException(String.format("Error occured while create a new facet in a schema %s. " +
-                    AWSConstants.RESPONSE, schemaArn, responseObject.toJSONString(), statusCode));
-        }
+        return executeAsync(AWSEndpoint.CREATE_FACET, facetPayload,
+                String.format("Error occured while create a new facet in a schema %s. ", schemaArn));
     }
 
     /**
@@ -717,6 +1248,21 @@ public class AWSRestApiActions {
         return response;
     }
 
+    /**
+     * Generate payload to retrieve metadata about an object.
+     *
+     * @param selector A path selector selection of an object by the parent/child links.
+     * @return Payload.
+     */
+    private JSONObject buildPayloadToGetObjectInformation(String selector) {
+
+        HashMap<String, String> objectPath = new HashMap<>();
+        JSONObject payload = new JSONObject();
+        objectPath.put(AWSConstants.SELECTOR, selector);
+        payload.put(AWSConstants.REFERENCE, objectPath);
+        return payload;
+    }
+
     /**
      * Generate payload to list directories .
      *
@@ -770,6 +1316,96 @@ public class AWSRestApiActions {
         return response;
     }
 
+    /**
+     * Generate the batch write operation to create an object. The operations which follow it in the same batch can
+     * refer to the object with the selector "#" followed by the batch reference name.
+     *
+     * @param linkName           Name of the link.
+     * @param facetName          Name of the facet.
+     * @param parentReference    The parent reference to which this object will be attached.
+     * @param map                List of properties to build the payload.
+     * @param batchReferenceName Name to refer to the object within the batch.
+     * @return Batch write operation.
+     */
+    public JSONObject buildCreateObjectOperation(String linkName, String facetName, String parentReference,
+                                                 Map<String, String> map, String batchReferenceName) {
+
+        JSONObject createObject = buildPayloadToCreateObject(linkName, facetName, parentReference, map);
+        createObject.put(AWSConstants.BATCH_REFERENCE_NAME, batchReferenceName);
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.CREATE_OBJECT_OPERATION, createObject);
+        return operation;
+    }
+
+    /**
+     * Generate the batch write operation to detach an object from its parent. The operations which follow it in the
+     * same batch can refer to the detached object with the selector "#" followed by the batch reference name.
+     *
+     * @param linkName           Name of the link.
+     * @param parentReference    The parent reference from which the object will be detached.
+     * @param batchReferenceName Name to refer to the detached object within the batch.
+     * @return Batch write operation.
+     */
+    public JSONObject buildDetachObjectOperation(String linkName, String parentReference,
+                                                 String batchReferenceName) {
+
+        JSONObject detachObject = buildPayloadToDetachObject(linkName, parentReference);
+        detachObject.put(AWSConstants.BATCH_REFERENCE_NAME, batchReferenceName);
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.DETACH_OBJECT_OPERATION, detachObject);
+        return operation;
+    }
+
+    /**
+     * Generate the batch write operation to delete an object and its associated attributes.
+     *
+     * @param selector A selector of the object, such as the batch reference of a detached object.
+     * @return Batch write operation.
+     */
+    public JSONObject buildDeleteObjectOperation(String selector) {
+
+        HashMap<String, String> objectPath = new HashMap<>();
+        objectPath.put(AWSConstants.SELECTOR, selector);
+        JSONObject deleteObject = new JSONObject();
+        deleteObject.put(AWSConstants.REFERENCE, objectPath);
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.DELETE_OBJECT_OPERATION, deleteObject);
+        return operation;
+    }
+
+    /**
+     * Generate the batch write operation to detach a typed link.
+     *
+     * @param typedLinkSpecifier Specifier of the typed link, as listed by Cloud Directory.
+     * @return Batch write operation.
+     */
+    public JSONObject buildDetachTypedLinkOperation(Object typedLinkSpecifier) {
+
+        JSONObject linkSpecifier = new JSONObject();
+        linkSpecifier.put(AWSConstants.TYPED_LINK_SPECIFIER, typedLinkSpecifier);
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.DETACH_TYPED_LINK, linkSpecifier);
+        return operation;
+    }
+
+    /**
+     * Generate the batch write operation to attach a typed link to a specified source and target object.
+     *
+     * @param sourceSelector The reference that identifies the source object in the directory structure.
+     * @param targetSelector The reference that identifies the target object in the directory structure.
+     * @param facetName      Name of the facet.
+     * @param map            List of properties to build the payload.
+     * @return Batch write operation.
+     */
+    public JSONObject buildAttachTypedLinkOperation(String sourceSelector, String targetSelector, String facetName,
+                                                    Map<String, String> map) {
+
+        JSONObject operation = new JSONObject();
+        operation.put(AWSConstants.ATTACH_TYPED_LINK,
+                buildPayloadToGetAttachTypedLink(sourceSelector, targetSelector, facetName, map));
+        return operation;
+    }
+
     /**
      * Generate payload to list object attributes.
      *
@@ -792,12 +1428,55 @@ public class AWSRestApiActions {
     }
 
     /**
-     * Generate payload to get typed link.
+     * Generate payload to get the given attributes of an object.
+     *
+     * @param facetName       Name of the facet.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @param attributeNames  Names of the attributes.
+     * @return Payload.
+     */
+    private JSONObject buildPayloadToGetObjectAttributes(String facetName, String objectReference,
+                                                         String... attributeNames) {
+
+        HashMap<String, String> schemaFacet = new HashMap<>();
+        HashMap<String, String> path = new HashMap<>();
+        JSONArray names = new JSONArray();
+        JSONObject response = new JSONObject();
+        schemaFacet.put(AWSConstants.FACET_NAME, facetName);
+        schemaFacet.put(AWSConstants.SCHEMA_ARN, schemaArn);
+        path.put(AWSConstants.SELECTOR, objectReference);
+        names.addAll(Arrays.asList(attributeNames));
+        response.put(AWSConstants.ATTRIBUTE_NAMES, names);
+        response.put(AWSConstants.REFERENCE, path);
+        response.put(AWSConstants.SCHEMA_FACET_SINGLE, schemaFacet);
+        return response;
+    }
+
+    /**
+     * Generate payload to get a page of typed links.
      *
+     * @param nextToken       The pagination token, or null for the first page.
      * @param typedLinkName   Name of the Typed Link.
      * @param objectReference The reference that identifies the object in the directory structure.
      * @return Payload.
      */
+    private JSONObject buildPayloadToGetTypedLink(String nextToken, String typedLinkName, String objectReference) {
+
+        JSONObject response = buildPayloadToGetTypedLink(typedLinkName, objectReference);
+        response.put(AWSConstants.MAX_RESULTS, AWSConstants.MAX_API_LIMIT);
+        if (StringUtils.isNotEmpty(nextToken)) {
+            response.put(AWSConstants.NEXT_TOKEN, nextToken);
+        }
+        return response;
+    }
+
+    /**
+     * Generate payload to get the typed links of an object, without pagination.
+     *
+     * @param typedLinkName   Name of the typed link.
+     * @param objectReference The reference that identifies the object in the directory structure.
+     * @return Payload.
+     */
     private JSONObject buildPayloadToGetTypedLink(String typedLinkName, String objectReference) {
 
         HashMap<String, String> path = new HashMap<>();
@@ -967,144 +1646,538 @@ public class AWSRestApiActions {
     }
 
     /**
-     * Get the status code and response object after executing the post request.
+     * Send the request and check the status code of the response.
      *
-     * @param httpPost HttpPost
-     * @return status code and response object
-     * @throws UserStoreException If error occurred.
+     * @param endpoint     Endpoint to send the request to.
+     * @param payload      Payload.
+     * @param errorMessage Error message to fail with if the request is not successful. If null, the future completes
+     *                     with null instead.
+     * @return Future of the response object.
      */
-    private HTTPResponse getHttpPostResults(HttpPost httpPost) throws UserStoreException {
+    private CompletableFuture<JSONObject> executeAsync(AWSEndpoint endpoint, String payload, String errorMessage) {
 
-        int statusCode = 0;
-        JSONObject responseObject = null;
+        return executeAsync(endpoint, payload, errorMessage, this::getParsedObjectByReader);
+    }
 
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build();
-             CloseableHttpResponse response = httpClient.execute(httpPost);
-             BufferedReader reader = new BufferedReader(
-                     new InputStreamReader(response.getEntity().getContent(), AWSConstants.UTF_8))
-        ) {
-            statusCode = response.getStatusLine().getStatusCode();
-            responseObject = getParsedObjectByReader(reader);
-        } catch (ParseException e) {
-            handleException(AWSConstants.ERROR_WHILE_PARSING_RESPONSE, e);
-        } catch (IOException e) {
-            handleException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e);
+    /**
+     * Send the request, check the status code of the response and decode the body of a successful response.
+     *
+     * @param endpoint     Endpoint to send the request to.
+     * @param payload      Payload.
+     * @param errorMessage Error message to fail with if the request is not successful. If null, the future completes
+     *                     with null instead.
+     * @param decoder      Decoder of the successful response body.
+     * @param <T>          Type of the decoded result.
+     * @return Future of the decoded result.
+     */
+    private <T> CompletableFuture<T> executeAsync(AWSEndpoint endpoint, String payload, String errorMessage,
+                                                  AWSResponseDecoder<T> decoder) {
+
+        return sendAsync(endpoint, payload).thenCompose(response -> {
+            try (Reader reader = new InputStreamReader(response.body.getInputStream(), StandardCharsets.UTF_8)) {
+                if (response.statusCode == HttpStatus.SC_OK) {
+                    return CompletableFuture.completedFuture(decoder.decode(reader));
+                }
+                if (errorMessage == null) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                JSONObject error = getParsedObjectByReader(reader);
+                String message = errorMessage + String.format(AWSConstants.RESPONSE, error, response.statusCode);
+                if (endpoint == AWSEndpoint.BATCH_WRITE && error != null) {
+                    // Batch write failures tell which operation failed and why.
+                    Object index = error.get(AWSConstants.INDEX);
+                    Object type = error.get(AWSConstants.TYPE);
+                    return failedFuture(new AWSBatchWriteException(message,
+                            index instanceof Number ? ((Number) index).intValue() : -1,
+                            type != null ? type.toString() : null));
+                }
+                return failedFuture(new UserStoreException(message));
+            } catch (ParseException e) {
+                return failedFuture(new UserStoreException(AWSConstants.ERROR_WHILE_PARSING_RESPONSE, e));
+            } catch (IOException e) {
+                return failedFuture(new UserStoreException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e));
+            } finally {
+                response.release();
+            }
+        });
+    }
+
+    /**
+     * Send the request through the non-blocking http client of the user store. The payload is encoded once into a
+     * pooled buffer which is both hashed for the signature and sent as the request body, and the response body is
+     * read into a pooled buffer which must be released by the caller.
+     * <p>
+     * Identical reads sent while one of them is in flight are coalesced into it, and share its response instead of
+     * sending their own requests. Hence a coalesced read is never older than the in flight request it joined.
+     * <p>
+     * Requests are paced by the rate limiter of the user store, and throttled or transiently failed requests are
+     * retried after a backoff as long as the retry policy allows.
+     *
+     * @param endpoint Endpoint to send the request to.
+     * @param payload  Payload.
+     * @return Future of the status code and response body.
+     */
+    private CompletableFuture<HTTPResponse> sendAsync(AWSEndpoint endpoint, String payload) {
+
+        if (!endpoint.isRead()) {
+            return sendUncoalesced(endpoint, payload);
         }
-        return new HTTPResponse(statusCode, responseObject);
+        RequestKey key = new RequestKey(endpoint, AWSRequestScheduler.getPriority(), payload);
+        boolean[] leader = new boolean[1];
+        InFlightRead inFlightRead = inFlightReads.compute(key, (requestKey, existing) -> {
+            if (existing == null) {
+                leader[0] = true;
+                return new InFlightRead();
+            }
+            existing.callers++;
+            return existing;
+        });
+        if (!leader[0]) {
+            coalescedRequests.incrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("Coalesced the request to %s into an identical request in flight.",
+                        endpoint));
+            }
+            return inFlightRead.future;
+        }
+        sendUncoalesced(endpoint, payload).whenComplete((response, e) -> {
+            // Removed before completing, hence no more callers can join once the response is shared.
+            inFlightReads.remove(key);
+            if (e != null) {
+                inFlightRead.future.completeExceptionally(e);
+                return;
+            }
+            response.share(inFlightRead.callers - 1);
+            inFlightRead.future.complete(response);
+        });
+        return inFlightRead.future;
     }
 
     /**
-     * Prepare the http post request.
+     * Send the request without looking for an identical request in flight. The request fails fast if the circuit of
+     * the endpoint is open, and fails once the request deadline passes, including the time spent in the queue and on
+     * the retries. A read which is still outstanding after the tracked latency percentile of its endpoint is hedged
+     * with a second request, and the first response of the two is used.
      *
-     * @param canonicalURI Canonical uri of the request.
-     * @param awsHeaders   Set of headers.
-     * @param payload      Payload.
-     * @return HttpPost request.
-     * @throws UserStoreException If error occurred.
+     * @param endpoint Endpoint to send the request to.
+     * @param payload  Payload.
+     * @return Future of the status code and response body.
      */
-    private HttpPost preparePostHeaders(String canonicalURI, TreeMap<String, String> awsHeaders, String payload)
-            throws UserStoreException {
+    private CompletableFuture<HTTPResponse> sendUncoalesced(AWSEndpoint endpoint, String payload) {
+
+        if (!circuitBreaker.allowRequest(endpoint)) {
+            return failedFuture(new UserStoreException(String.format(AWSConstants.ERROR_CIRCUIT_OPEN, endpoint)));
+        }
+        // Captured on the calling thread, since the retries and hedges are sent from the scheduler thread.
+        AWSRequestScheduler.Priority priority = AWSRequestScheduler.getPriority();
+        CompletableFuture<HTTPResponse> future = new CompletableFuture<>();
+        // Attempts which may still complete the request.
+        AtomicInteger pendingAttempts = new AtomicInteger(1);
+        send(endpoint, priority, payload, 0, future, pendingAttempts, false);
+        if (future.isDone()) {
+            return future;
+        }
+        ScheduledFuture<?> hedge = null;
+        long hedgeDelay = getHedgeDelay(endpoint);
+        if (hedgeDelay >= 0) {
+            hedge = scheduleTimer(() -> sendHedge(endpoint, priority, payload, future, pendingAttempts), hedgeDelay);
+        }
+        ScheduledFuture<?> deadline = null;
+        if (requestTimeout > 0) {
+            deadline = scheduleTimer(() -> {
+                if (future.completeExceptionally(new UserStoreException(String.format(
+                        AWSConstants.ERROR_REQUEST_TIMED_OUT, endpoint, requestTimeout)))) {
+                    timedOutRequests.incrementAndGet();
+                }
+            }, requestTimeout);
+        }
+        ScheduledFuture<?> hedgeTimer = hedge;
+        ScheduledFuture<?> deadlineTimer = deadline;
+        future.whenComplete((response, e) -> {
+            if (hedgeTimer != null) {
+                hedgeTimer.cancel(false);
+            }
+            if (deadlineTimer != null) {
+                deadlineTimer.cancel(false);
+            }
+        });
+        return future;
+    }
 
-        HttpPost httpPost = new HttpPost(AWSConstants.HTTPS + hostHeader + canonicalURI);
-        awsHeaders.put(AWSConstants.HOST_HEADER, hostHeader);
-        AWSSignatureV4Generator aWSV4Auth = new AWSSignatureV4Generator.Builder(accessKeyID, secretAccessKey)
-                .regionName(region)
-                .serviceName(AWSConstants.SERVICE)
-                .httpMethodName(AWSConstants.HTTP_POST)
-                .canonicalURI(canonicalURI)
-                .queryParametes(null)
-                .awsHeaders(awsHeaders)
-                .payload(payload)
-                .build();
+    /**
+     * Encode the payload and send an attempt chain of the request, which completes the request with its response
+     * unless another attempt chain completed it first.
+     *
+     * @param endpoint        Endpoint to send the request to.
+     * @param priority        Priority class of the request.
+     * @param payload         Payload.
+     * @param attempt         Number of retries done so far.
+     * @param future          Future of the request.
+     * @param pendingAttempts Attempt chains which may still complete the request.
+     * @param hedged          Whether the attempt chain is a hedge.
+     */
+    private void send(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority, String payload, int attempt,
+                      CompletableFuture<HTTPResponse> future, AtomicInteger pendingAttempts, boolean hedged) {
+
+        PooledByteBuffer payloadBuffer = AWSByteBufferPool.acquire();
+        try {
+            payloadBuffer.write(payload);
+        } catch (IOException e) {
+            payloadBuffer.release();
+            future.completeExceptionally(new UserStoreException(AWSConstants.ERROR_WHILE_CHARACTOR_ENCODING, e));
+            return;
+        }
+        CompletableFuture<HTTPResponse> attemptFuture = new CompletableFuture<>();
+        attemptFuture.whenComplete((response, e) -> {
+            if (e == null) {
+                if (!future.complete(response)) {
+                    response.body.release();
+                } else if (hedged) {
+                    hedgeWins.incrementAndGet();
+                }
+            } else if (pendingAttempts.decrementAndGet() == 0) {
+                future.completeExceptionally(e);
+            }
+        });
+        // Stops the attempts which are yet to be sent once the request is completed by another attempt chain or by
+        // the deadline.
+        future.whenComplete((response, e) -> attemptFuture.cancel(false));
+        sendAttempt(endpoint, priority, payloadBuffer, attempt, attemptFuture);
+    }
+
+    /**
+     * Send a hedge of a read which is still outstanding. Hedges are not sent while Cloud Directory throttles the
+     * requests, and they are not retried.
+     *
+     * @param endpoint        Endpoint to send the request to.
+     * @param priority        Priority class of the request.
+     * @param payload         Payload.
+     * @param future          Future of the request.
+     * @param pendingAttempts Attempt chains which may still complete the request.
+     */
+    private void sendHedge(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority, String payload,
+                           CompletableFuture<HTTPResponse> future, AtomicInteger pendingAttempts) {
+
+        if (future.isDone() || rateLimiter.getRate() >= 0) {
+            return;
+        }
+        if (pendingAttempts.getAndUpdate(pending -> pending == 0 ? 0 : pending + 1) == 0) {
+            return;
+        }
+        hedgedRequests.incrementAndGet();
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Hedging the request to %s, which is outstanding for more than %s ms.",
+                    endpoint, getHedgeDelay(endpoint)));
+        }
+        send(endpoint, priority, payload, retryPolicy.getMaxRetries(), future, pendingAttempts, true);
+    }
 
-        /* Get header calculated for request */
-        Map<String, String> header = aWSV4Auth.getHeaders();
-        for (Map.Entry<String, String> entrySet : header.entrySet()) {
-            httpPost.setHeader(entrySet.getKey(), entrySet.getValue());
+    /**
+     * Get the time after which an outstanding request to the endpoint is hedged.
+     *
+     * @param endpoint Endpoint of the request.
+     * @return Delay in milliseconds, or -1 if the request should not be hedged.
+     */
+    private long getHedgeDelay(AWSEndpoint endpoint) {
+
+        if (latencyTracker == null || !endpoint.isRead()) {
+            return -1;
         }
+        long percentileLatency = latencyTracker.getPercentile(endpoint);
+        if (percentileLatency < 0) {
+            return -1;
+        }
+        return Math.max(percentileLatency, AWSConstants.MIN_HEDGE_DELAY);
+    }
+
+    /**
+     * Run the task after the given delay on the shared scheduler.
+     *
+     * @param task  Task to run.
+     * @param delay Delay in milliseconds.
+     * @return Scheduled task, or null if the scheduler is no longer running.
+     */
+    private ScheduledFuture<?> scheduleTimer(Runnable task, long delay) {
+
         try {
-            httpPost.setHeader(AWSConstants.HOST_HEADER, hostHeader);
-            httpPost.setEntity(new StringEntity(payload, AWSConstants.UTF_8));
-        } catch (UnsupportedEncodingException e) {
-            handleException(AWSConstants.ERROR_WHILE_CHARACTOR_ENCODING, e);
+            return AWSHttpClientProvider.getScheduler().schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return null;
         }
-        return httpPost;
     }
 
     /**
-     * Get the status code and response object after executing the put request.
+     * Queue an attempt of the request to be sent once the request scheduler dispatches it.
      *
-     * @param httpPut HttpPut
-     * @return status code and response object
-     * @throws UserStoreException If error occurred.
+     * @param endpoint      Endpoint to send the request to.
+     * @param priority      Priority class of the request.
+     * @param payloadBuffer Encoded payload.
+     * @param attempt       Number of retries done so far.
+     * @param future        Future of the request.
      */
-    private HTTPResponse getHttpPutResults(HttpPut httpPut) throws UserStoreException {
+    private void sendAttempt(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority,
+                             PooledByteBuffer payloadBuffer, int attempt, CompletableFuture<HTTPResponse> future) {
 
-        int statusCode = 0;
-        JSONObject responseObject = null;
+        if (!requestScheduler.submit(priority, () -> executeAttempt(endpoint, priority, payloadBuffer, attempt,
+                future))) {
+            payloadBuffer.release();
+            future.completeExceptionally(new UserStoreException(String.format(AWSConstants.ERROR_REQUEST_QUEUE_FULL,
+                    priority)));
+        }
+    }
 
-        try (CloseableHttpClient httpClient = HttpClientBuilder.create().build();
-             CloseableHttpResponse response = httpClient.execute(httpPut);
-             BufferedReader reader = new BufferedReader(
-                     new InputStreamReader(response.getEntity().getContent(), AWSConstants.UTF_8))
-        ) {
-            statusCode = response.getStatusLine().getStatusCode();
-            responseObject = getParsedObjectByReader(reader);
-        } catch (ParseException e) {
-            handleException(AWSConstants.ERROR_WHILE_PARSING_RESPONSE, e);
-        } catch (IOException e) {
-            handleException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e);
+    /**
+     * Sign and send an attempt of the request, and retry it if it is throttled or transiently failed. The slot of
+     * the request scheduler is released once the attempt completes.
+     *
+     * @param endpoint      Endpoint to send the request to.
+     * @param priority      Priority class of the request.
+     * @param payloadBuffer Encoded payload.
+     * @param attempt       Number of retries done so far.
+     * @param future        Future of the request.
+     */
+    private void executeAttempt(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority,
+                                PooledByteBuffer payloadBuffer, int attempt, CompletableFuture<HTTPResponse> future) {
+
+        if (future.isDone()) {
+            requestScheduler.release();
+            payloadBuffer.release();
+            return;
         }
-        return new HTTPResponse(statusCode, responseObject);
+        HttpEntityEnclosingRequestBase request;
+        try {
+            // Signed on every attempt, since the signature is only valid for a limited time.
+            request = prepareRequest(endpoint, payloadBuffer);
+        } catch (UserStoreException e) {
+            requestScheduler.release();
+            payloadBuffer.release();
+            future.completeExceptionally(e);
+            return;
+        }
+        long startTime = System.nanoTime();
+        httpClient.execute(HttpAsyncMethods.create(request), new PooledResponseConsumer(),
+                new FutureCallback<HTTPResponse>() {
+
+                    @Override
+                    public void completed(HTTPResponse response) {
+
+                        if (latencyTracker != null) {
+                            latencyTracker.record(endpoint, TimeUnit.NANOSECONDS.toMillis(
+                                    System.nanoTime() - startTime));
+                        }
+                        circuitBreaker.record(endpoint, response.statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR);
+                        rateLimiter.update(retryPolicy.isThrottled(response.statusCode, response.errorType));
+                        requestScheduler.release();
+                        if (retryPolicy.isRetryable(endpoint, response.statusCode, response.errorType) &&
+                                retryPolicy.canRetry(attempt)) {
+                            response.body.release();
+                            retry(endpoint, priority, payloadBuffer, attempt, future, String.format(
+                                    AWSConstants.RESPONSE, response.errorType, response.statusCode));
+                            return;
+                        }
+                        payloadBuffer.release();
+                        if (!future.complete(response)) {
+                            response.body.release();
+                        }
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+
+                        circuitBreaker.record(endpoint, false);
+                        requestScheduler.release();
+                        if (retryPolicy.isRetryable(endpoint) && retryPolicy.canRetry(attempt)) {
+                            retry(endpoint, priority, payloadBuffer, attempt, future, e.getMessage());
+                            return;
+                        }
+                        payloadBuffer.release();
+                        future.completeExceptionally(new UserStoreException(
+                                AWSConstants.ERROR_WHILE_READING_RESPONSE, e));
+                    }
+
+                    @Override
+                    public void cancelled() {
+
+                        requestScheduler.release();
+                        payloadBuffer.release();
+                        future.cancel(false);
+                    }
+                });
     }
 
     /**
-     * Prepare the http put request.
+     * Send the request again after the backoff delay of the attempt.
      *
-     * @param canonicalURI Canonical uri of the request.
-     * @param awsHeaders   Set of headers.
-     * @param payload      Payload.
-     * @return HttpPut request.
+     * @param endpoint      Endpoint to send the request to.
+     * @param priority      Priority class of the request.
+     * @param payloadBuffer Encoded payload.
+     * @param attempt       Number of retries done so far.
+     * @param future        Future of the request.
+     * @param reason        Reason for the retry.
+     */
+    private void retry(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority, PooledByteBuffer payloadBuffer,
+                       int attempt, CompletableFuture<HTTPResponse> future, String reason) {
+
+        long delay = retryPolicy.getBackoffDelay(attempt);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Retrying the request to %s in %s ms. Attempt: %s, Reason: %s", endpoint, delay,
+                    attempt + 1, reason));
+        }
+        schedule(() -> sendAttempt(endpoint, priority, payloadBuffer, attempt + 1, future), delay, payloadBuffer,
+                future);
+    }
+
+    /**
+     * Run the task after the given delay, or fail the request if the scheduler is no longer running.
+     *
+     * @param task          Task to run.
+     * @param delay         Delay in milliseconds.
+     * @param payloadBuffer Encoded payload.
+     * @param future        Future of the request.
+     */
+    private void schedule(Runnable task, long delay, PooledByteBuffer payloadBuffer,
+                          CompletableFuture<HTTPResponse> future) {
+
+        try {
+            AWSHttpClientProvider.getScheduler().schedule(task, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            payloadBuffer.release();
+            future.completeExceptionally(new UserStoreException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e));
+        }
+    }
+
+    /**
+     * Prepare the signed http request.
+     *
+     * @param endpoint      Endpoint to send the request to.
+     * @param payloadBuffer Encoded payload.
+     * @return Http request.
      * @throws UserStoreException If error occurred.
      */
-    private HttpPut preparePutHeaders(String canonicalURI, TreeMap<String, String> awsHeaders, String payload)
+    private HttpEntityEnclosingRequestBase prepareRequest(AWSEndpoint endpoint, PooledByteBuffer payloadBuffer)
             throws UserStoreException {
 
-        HttpPut httpPut = new HttpPut(AWSConstants.HTTPS + hostHeader + canonicalURI);
-        awsHeaders.put(AWSConstants.HOST_HEADER, hostHeader);
-        AWSSignatureV4Generator aWSV4Auth = new AWSSignatureV4Generator.Builder(accessKeyID, secretAccessKey)
-                .regionName(region)
-                .serviceName(AWSConstants.SERVICE)
-                .httpMethodName(AWSConstants.HTTP_PUT)
-                .canonicalURI(canonicalURI)
-                .queryParametes(null)
-                .awsHeaders(awsHeaders)
-                .payload(payload)
-                .build();
-
-        /* Get header calculated for request */
-        Map<String, String> header = aWSV4Auth.getHeaders();
-        for (Map.Entry<String, String> entrySet : header.entrySet()) {
-            httpPut.setHeader(entrySet.getKey(), entrySet.getValue());
+        String uri = AWSConstants.HTTPS + hostHeader + signatureGenerator.getCanonicalURI(endpoint);
+        HttpEntityEnclosingRequestBase request;
+        if (AWSConstants.HTTP_PUT.equals(endpoint.getHttpMethod())) {
+            request = new HttpPut(uri);
+        } else {
+            request = new HttpPost(uri);
         }
+        signatureGenerator.sign(endpoint, request, payloadBuffer.getBuffer(), payloadBuffer.size());
+        request.setEntity(new NByteArrayEntity(payloadBuffer.getBuffer(), 0, payloadBuffer.size(), CONTENT_TYPE));
+        return request;
+    }
+
+    /**
+     * Get the request scheduler of this user store, which keeps the queue depth and wait time of each priority class.
+     *
+     * @return Request scheduler.
+     */
+    public AWSRequestScheduler getRequestScheduler() {
+
+        return requestScheduler;
+    }
+
+    /**
+     * Get the number of reads which shared the response of an identical request in flight instead of being sent.
+     *
+     * @return Number of coalesced reads.
+     */
+    public long getCoalescedRequestCount() {
+
+        return coalescedRequests.get();
+    }
+
+    /**
+     * Get the circuit breaker of this user store, which keeps the state of the circuit of each endpoint.
+     *
+     * @return Circuit breaker.
+     */
+    public AWSCircuitBreaker getCircuitBreaker() {
+
+        return circuitBreaker;
+    }
+
+    /**
+     * Get the number of requests failed since they did not complete within the request deadline.
+     *
+     * @return Number of timed out requests.
+     */
+    public long getTimedOutRequestCount() {
+
+        return timedOutRequests.get();
+    }
+
+    /**
+     * Get the number of hedges sent for slow reads.
+     *
+     * @return Number of hedged requests.
+     */
+    public long getHedgedRequestCount() {
+
+        return hedgedRequests.get();
+    }
+
+    /**
+     * Get the number of hedges which responded before the request they hedged.
+     *
+     * @return Number of hedges which won.
+     */
+    public long getHedgeWinCount() {
+
+        return hedgeWins.get();
+    }
+
+    /**
+     * Wait for the result of an asynchronous action.
+     *
+     * @param future Future of the action.
+     * @param <T>    Type of the result.
+     * @return Result of the action.
+     * @throws UserStoreException If the action failed.
+     */
+    public <T> T getResult(CompletableFuture<T> future) throws UserStoreException {
+
         try {
-            httpPut.setHeader(AWSConstants.HOST_HEADER, hostHeader);
-            httpPut.setEntity(new StringEntity(payload, AWSConstants.UTF_8));
-        } catch (UnsupportedEncodingException e) {
-            handleException(AWSConstants.ERROR_WHILE_CHARACTOR_ENCODING, e);
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleException(AWSConstants.ERROR_WHILE_WAITING_FOR_RESPONSE, e);
+        } catch (CancellationException e) {
+            handleException(AWSConstants.ERROR_WHILE_WAITING_FOR_RESPONSE, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UserStoreException) {
+                throw (UserStoreException) e.getCause();
+            }
+            throw new UserStoreException(AWSConstants.ERROR_WHILE_READING_RESPONSE, e.getCause());
         }
-        return httpPut;
+        return null;
+    }
+
+    /**
+     * Create a future that is already completed with the given exception.
+     *
+     * @param e   Exception.
+     * @param <T> Type of the result.
+     * @return Failed future.
+     */
+    private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
     }
 
     /**
-     * Can be used to parse {@code BufferedReader} object that are taken from response stream, to a {@code JSONObject}.
+     * Can be used to parse {@code Reader} object that are taken from response stream, to a {@code JSONObject}.
      *
-     * @param reader {@code BufferedReader} object from response.
+     * @param reader {@code Reader} object from response.
      * @return JSON payload as a name value map.
      * @throws ParseException Error while parsing response json.
      * @throws IOException    Error while reading response body
      */
-    private JSONObject getParsedObjectByReader(BufferedReader reader) throws ParseException, IOException {
+    private JSONObject getParsedObjectByReader(Reader reader) throws ParseException, IOException {
 
         JSONObject parsedObject = null;
         JSONParser parser = new JSONParser();
@@ -1127,34 +2200,150 @@ public class AWSRestApiActions {
     }
 
     /**
-     * Common method to throw exceptions. This will only expect one parameter.
-     *
-     * @param msg error message as a string.
-     * @throws UserStoreException If error occurred.
+     * Identifies identical requests by the endpoint and payload. The payloads are built by the same builders, hence
+     * identical requests have identical payloads. The priority class is part of the key, so that an interactive read
+     * never waits behind a queued bulk read.
+     */
+    private static final class RequestKey {
+
+        private final AWSEndpoint endpoint;
+        private final AWSRequestScheduler.Priority priority;
+        private final String payload;
+        private final int hash;
+
+        RequestKey(AWSEndpoint endpoint, AWSRequestScheduler.Priority priority, String payload) {
+
+            this.endpoint = endpoint;
+            this.priority = priority;
+            this.payload = payload;
+            this.hash = 31 * (31 * endpoint.hashCode() + priority.hashCode()) + payload.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) o;
+            return endpoint == other.endpoint && priority == other.priority && payload.equals(other.payload);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+
+    /**
+     * Read in flight along with the number of callers waiting for its response.
      */
-    private void handleException(String msg) throws UserStoreException {
+    private static class InFlightRead {
 
-        throw new UserStoreException(msg);
+        private final CompletableFuture<HTTPResponse> future = new CompletableFuture<>();
+        // Guarded by the lock of the map entry.
+        private int callers = 1;
     }
 
     /**
-     * This class provide the facility to get the HTTP response details such as statuscode and response object as Json.
+     * This class provide the facility to get the HTTP response details such as statuscode and the response body.
      */
-    public static class HTTPResponse {
+    private static class HTTPResponse {
 
         int statusCode;
-        JSONObject responseObject;
+        // Error type of an unsuccessful response.
+        String errorType;
+        PooledByteBuffer body;
+        // Callers sharing the response which are yet to release it.
+        private final AtomicInteger references = new AtomicInteger(1);
 
         /**
          * It will return HTTPResponse Object.
          *
-         * @param statusCode     Status code of the http response.
-         * @param responseObject Response object as Json
+         * @param statusCode Status code of the http response.
+         * @param errorType  Error type of the http response, if any.
+         * @param body       Pooled buffer holding the response body.
          */
-        HTTPResponse(int statusCode, JSONObject responseObject) {
+        HTTPResponse(int statusCode, String errorType, PooledByteBuffer body) {
 
             this.statusCode = statusCode;
-            this.responseObject = responseObject;
+            this.errorType = errorType;
+            this.body = body;
+        }
+
+        /**
+         * Share the response with more callers. Each of them must release the response once.
+         *
+         * @param callers Number of callers added.
+         */
+        void share(int callers) {
+
+            references.addAndGet(callers);
+        }
+
+        /**
+         * Release the response, and return the body to the pool once all the callers released it.
+         */
+        void release() {
+
+            if (references.decrementAndGet() == 0) {
+                body.release();
+            }
+        }
+    }
+
+    /**
+     * Reads the response body into a pooled buffer instead of allocating a new buffer for every response.
+     */
+    private static class PooledResponseConsumer extends AbstractAsyncResponseConsumer<HTTPResponse> {
+
+        private HttpResponse response;
+        private PooledByteBuffer body;
+
+        @Override
+        protected void onResponseReceived(HttpResponse response) {
+
+            this.response = response;
+        }
+
+        @Override
+        protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+
+            body = AWSByteBufferPool.acquire();
+        }
+
+        @Override
+        protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+
+            body.readFrom(decoder);
+        }
+
+        @Override
+        protected HTTPResponse buildResult(HttpContext context) {
+
+            if (body == null) {
+                body = AWSByteBufferPool.acquire();
+            }
+            Header errorType = response.getFirstHeader(AWSConstants.ERROR_TYPE_HEADER);
+            HTTPResponse result = new HTTPResponse(response.getStatusLine().getStatusCode(),
+                    errorType != null ? errorType.getValue() : null, body);
+            // The caller owns the body from here on.
+            body = null;
+            return result;
+        }
+
+        @Override
+        protected void releaseResources() {
+
+            if (body != null) {
+                body.release();
+                body = null;
+            }
+            response = null;
         }
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.http.HttpStatus;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.api.RealmConfiguration;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which Cloud Directory responses are worth retrying and how long to wait before each retry. Retries are
+ * delayed with capped exponential backoff and full jitter, so that clients throttled together do not retry together.
+ */
+public class AWSRetryPolicy {
+
+    // Attempts after which the backoff is always capped, which also keeps the shift below from overflowing.
+    private static final int MAX_BACKOFF_EXPONENT = 20;
+    private final int maxRetries;
+    private final long baseDelay;
+    private final long maxDelay;
+
+    public AWSRetryPolicy(RealmConfiguration realmConfig) {
+
+        maxRetries = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.MAX_RETRIES,
+                AWSConstants.DEFAULT_MAX_RETRIES);
+        baseDelay = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.RETRY_BASE_DELAY,
+                AWSConstants.DEFAULT_RETRY_BASE_DELAY);
+        maxDelay = AWSHttpClientProvider.getIntProperty(realmConfig, AWSConstants.RETRY_MAX_DELAY,
+                AWSConstants.DEFAULT_RETRY_MAX_DELAY);
+    }
+
+    /**
+     * Check whether the response tells that the request was throttled.
+     *
+     * @param statusCode Status code of the response.
+     * @param errorType  Value of the error type header of the response, if any.
+     * @return Whether the request was throttled.
+     */
+    public boolean isThrottled(int statusCode, String errorType) {
+
+        return statusCode == AWSConstants.SC_TOO_MANY_REQUESTS ||
+                (errorType != null && errorType.startsWith(AWSConstants.LIMIT_EXCEEDED_EXCEPTION));
+    }
+
+    /**
+     * Check whether the request may succeed if it is sent again. Throttled requests and retryable conflicts are
+     * rejected before they take effect, hence they are retryable for all the endpoints. Internal failures might be
+     * reported after the request took effect, hence only the reads are retried on them.
+     *
+     * @param endpoint   Endpoint of the request.
+     * @param statusCode Status code of the response.
+     * @param errorType  Value of the error type header of the response, if any.
+     * @return Whether the request is retryable.
+     */
+    public boolean isRetryable(AWSEndpoint endpoint, int statusCode, String errorType) {
+
+        if (isThrottled(statusCode, errorType)) {
+            return true;
+        }
+        if (errorType != null && errorType.startsWith(AWSConstants.RETRYABLE_CONFLICT_EXCEPTION)) {
+            return true;
+        }
+        if (!endpoint.isRead()) {
+            return false;
+        }
+        if (errorType != null && errorType.startsWith(AWSConstants.INTERNAL_SERVICE_EXCEPTION)) {
+            return true;
+        }
+        return statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR || statusCode == HttpStatus.SC_BAD_GATEWAY ||
+                statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Check whether the request is retryable after it failed without a response. The request might have taken
+     * effect already, hence only the reads are retried.
+     *
+     * @param endpoint Endpoint of the request.
+     * @return Whether the request is retryable.
+     */
+    public boolean isRetryable(AWSEndpoint endpoint) {
+
+        return endpoint.isRead();
+    }
+
+    /**
+     * Check whether another attempt is allowed.
+     *
+     * @param attempt Number of retries done so far.
+     * @return Whether the request can be retried.
+     */
+    public boolean canRetry(int attempt) {
+
+        return attempt < maxRetries;
+    }
+
+    /**
+     * Get the maximum number of retries of a request.
+     *
+     * @return Maximum number of retries.
+     */
+    public int getMaxRetries() {
+
+        return maxRetries;
+    }
+
+    /**
+     * Get a random delay between zero and the exponential backoff of the given attempt.
+     *
+     * @param attempt Number of retries done so far.
+     * @return Delay in milliseconds.
+     */
+    public long getBackoffDelay(int attempt) {
+
+        long backoff = Math.min(maxDelay, baseDelay << Math.min(attempt, MAX_BACKOFF_EXPONENT));
+        return ThreadLocalRandom.current().nextLong(backoff + 1);
+    }
+}
@@ -18,45 +18,51 @@
 
 package org.wso2.carbon.aws.user.store.mgt.util;
 
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpRequest;
 import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
 import org.wso2.carbon.user.core.UserStoreException;
 
 import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.HashMap;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
 /**
  * Sign AWS Requests with Signature Version 4 Signing Process.
+ * <p>
+ * A single generator is kept per user store and shared by all the requests. The parts of the canonical request that
+ * only depend on the endpoint are prepared once per {@link AWSEndpoint}, hence only the timestamp, the payload hash
+ * and the signature are computed per request.
  */
 public class AWSSignatureV4Generator {
 
     private static final Log log = LogFactory.getLog(AWSSignatureV4Generator.class);
-    private String accessKeyID;
-    private String secretAccessKey;
-    private String regionName;
-    private String serviceName;
-    private String httpMethodName;
-    private String canonicalURI;
-    private Map<String, String> queryParametes;
-    private Map<String, String> awsHeaders;
-    private String payload;
-    // Other variables
-    private String signedHeaderString;
-    private String xAmzDate;
-    private String currentDate;
+    private static final char[] HEX_ARRAY = AWSConstants.HEX_ARRAY_STRING.toCharArray();
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter
+            .ofPattern(AWSConstants.DATE_TIME_FORMAT).withZone(ZoneOffset.UTC);
+    // Timestamp of the current second, shared by all the requests signed within that second.
+    private static final AtomicReference<Timestamp> timestamp = new AtomicReference<>(new Timestamp(0));
+    // Mac and MessageDigest instances are not thread safe, hence one instance is kept per thread.
+    private static final ThreadLocal<Mac> macs = new ThreadLocal<>();
+    private static final ThreadLocal<MessageDigest> messageDigests = new ThreadLocal<>();
+    private final String accessKeyID;
+    private final String secretAccessKey;
+    private final String regionName;
+    private final String serviceName;
+    // Signing key of the current date.
+    private final AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+    private final Map<AWSEndpoint, RequestTemplate> requestTemplates = new EnumMap<>(AWSEndpoint.class);
 
     private AWSSignatureV4Generator(Builder builder) {
 
@@ -64,130 +70,100 @@ public class AWSSignatureV4Generator {
         secretAccessKey = builder.secretAccessKey;
         regionName = builder.regionName;
         serviceName = builder.serviceName;
-        httpMethodName = builder.httpMethodName;
-        canonicalURI = builder.canonicalURI;
-        queryParametes = builder.queryParametes;
-        awsHeaders = builder.awsHeaders;
-        payload = builder.payload;
-
-        // Get current timestamp value.(UTC)
-        xAmzDate = getTimeStamp();
-        currentDate = getDate();
+        for (AWSEndpoint endpoint : AWSEndpoint.values()) {
+            requestTemplates.put(endpoint, new RequestTemplate(endpoint, builder));
+        }
     }
 
     /**
-     * Task 1: Create a Canonical Request for Signature Version 4.
+     * Get the canonical uri of the given endpoint.
      *
-     * @return Canonical Request.
+     * @param endpoint Endpoint.
+     * @return Canonical uri.
      */
-    private String prepareCanonicalRequest() throws UserStoreException {
-
-        StringBuilder canonicalURL = new StringBuilder("");
-
-        // Step 1.1 Start with the HTTP request method (GET, PUT, POST, etc.), followed by a newline character.
-        canonicalURL.append(httpMethodName).append("\n");
-
-        // Step 1.2 Add the canonical URI parameter, followed by a newline character.
-        canonicalURI = canonicalURI == null || canonicalURI.trim().isEmpty() ? "/" : canonicalURI;
-        canonicalURL.append(canonicalURI).append("\n");
-
-        // Step 1.3 Add the canonical query string, followed by a newline character.
-        canonicalURL = addCanonicalQueryString(canonicalURL);
-
-        // Step 1.4 Add the canonical headers, followed by a newline character.
-        StringBuilder signedHeaders = new StringBuilder("");
-        if (awsHeaders != null && !awsHeaders.isEmpty()) {
-            for (Map.Entry<String, String> entrySet : awsHeaders.entrySet()) {
-                String key = entrySet.getKey();
-                signedHeaders.append(key).append(";");
-                canonicalURL.append(key).append(":").append(entrySet.getValue()).append("\n");
-            }
-            /* Note: Each individual header is followed by a newline character, meaning the complete list ends with
-             a newline character. */
-            canonicalURL.append("\n");
-        } else {
-            canonicalURL.append("\n");
-        }
-
-        // Step 1.5 Add the signed headers, followed by a newline character.
-        signedHeaderString = signedHeaders.substring(0, signedHeaders.length() - 1); // Remove last ";"
-        canonicalURL.append(signedHeaderString).append("\n");
-
-        /* Step 1.6 Use a hash (digest) function like SHA256 to create a hashed value from the payload in the body of
-        the HTTP or HTTPS. */
-        if (payload == null) {
-            payload = "";
-        }
-        canonicalURL.append(hash(payload));
-        if (log.isDebugEnabled()) {
-            log.debug("Canonical Request: " + canonicalURL.toString());
-        }
+    public String getCanonicalURI(AWSEndpoint endpoint) {
 
-        return canonicalURL.toString();
+        return requestTemplates.get(endpoint).canonicalURI;
     }
 
     /**
-     * Add the canonical query string, followed by a newline character.
+     * Sign the request and add the signed headers, the date and the authorization header to it.
      *
-     * @param canonicalURL Canonical URL
-     * @return Updated canonicalURL
+     * @param endpoint Endpoint the request is sent to.
+     * @param request  Http request.
+     * @param payload  UTF-8 encoded payload.
+     * @param length   Number of valid bytes from the start of the payload array.
+     * @throws UserStoreException If the request could not be signed.
      */
-    private StringBuilder addCanonicalQueryString(StringBuilder canonicalURL) throws UserStoreException {
-
-        StringBuilder queryString = new StringBuilder("");
-        if (queryParametes != null && MapUtils.isNotEmpty(queryParametes)) {
-            for (Map.Entry<String, String> entrySet : queryParametes.entrySet()) {
-                String key = entrySet.getKey();
-                String value = entrySet.getValue();
-                queryString.append(key).append("=").append(encodeParameter(value)).append("&");
-            }
-            queryString.deleteCharAt(queryString.lastIndexOf("&"));
-            queryString.append("\n");
-        } else {
-            queryString.append("\n");
+    public void sign(AWSEndpoint endpoint, HttpRequest request, byte[] payload, int length)
+            throws UserStoreException {
+
+        String signature = sign(requestTemplates.get(endpoint), request, payload, length, getTimestamp());
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Signature: %s. Endpoint: %s", signature, endpoint));
         }
-        canonicalURL.append(queryString);
-        return canonicalURL;
     }
 
     /**
-     * Task 2: Create a String to Sign for Signature Version 4.
+     * Sign the request made from the given template at the given time, and add the signed headers, the date and the
+     * authorization header to it.
+     *
+     * @param template Template of the request.
+     * @param request  Http request.
+     * @param payload  UTF-8 encoded payload.
+     * @param length   Number of valid bytes from the start of the payload array.
+     * @param now      Time of the request.
+     * @return Hex encoded signature.
+     * @throws UserStoreException If the request could not be signed.
      */
-    private String prepareStringToSign(String canonicalURL) throws UserStoreException {
-
-        String stringToSign;
-
-        // Step 2.1 Start with the algorithm designation, followed by a newline character.
-        stringToSign = AWSConstants.HMAC_ALGORITHM + "\n";
+    String sign(RequestTemplate template, HttpRequest request, byte[] payload, int length, Timestamp now)
+            throws UserStoreException {
 
-        // Step 2.2 Append the request date value, followed by a newline character.
-        stringToSign += xAmzDate + "\n";
-
-        // Step 2.3 Append the credential scope value, followed by a newline character.
-        stringToSign += currentDate + "/" + regionName + "/" + serviceName + "/" + AWSConstants.AWS4_REQUEST + "\n";
-
-        /* Step 2.4 Append the hash of the canonical request that you created in Task 1: Create a Canonical Request
-        for Signature Version 4. */
-        stringToSign += hash(canonicalURL);
+        // Execute Task 1: Create a Canonical Request for Signature Version 4.
+        String canonicalRequest = template.canonicalRequestPrefix + now.xAmzDate + template.canonicalRequestSuffix +
+                hash(payload, length);
+        if (log.isDebugEnabled()) {
+            log.debug("Canonical Request: " + canonicalRequest);
+        }
 
+        // Execute Task 2: Create a String to Sign for Signature Version 4.
+        String stringToSign = AWSConstants.HMAC_ALGORITHM + "\n" + now.xAmzDate + "\n" + now.date + "/" + regionName +
+                "/" + serviceName + "/" + AWSConstants.AWS4_REQUEST + "\n" + hash(canonicalRequest);
         if (log.isDebugEnabled()) {
             log.debug("String to sign: " + stringToSign);
         }
 
-        return stringToSign;
+        // Execute Task 3: Calculate the AWS Signature Version 4.
+        String signature = calculateSignature(now.date, stringToSign);
+
+        // Execute Task 4: Add the Signing Information to the Request.
+        for (String[] header : template.headers) {
+            request.setHeader(header[0], header[1]);
+        }
+        request.setHeader(AWSConstants.DATE_HEADER, now.xAmzDate);
+        request.setHeader(AWSConstants.AUTHORIZATION_HEADER, AWSConstants.HMAC_ALGORITHM + " Credential=" +
+                accessKeyID + "/" + now.date + template.authorizationSuffix + signature);
+        return signature;
     }
 
     /**
-     * Task 3: Calculate the AWS Signature Version 4.
+     * Calculate the AWS Signature Version 4.
+     *
+     * @param date         Date of the request.
+     * @param stringToSign String to sign.
+     * @return Hex encoded signature.
+     * @throws UserStoreException If the signature could not be calculated.
      */
-    private String calculateSignature(String stringToSign) throws UserStoreException {
+    private String calculateSignature(String date, String stringToSign) throws UserStoreException {
 
         try {
-            // Step 3.1 Derive your signing key.
-            byte[] signatureKey = getSignatureKey(secretAccessKey, currentDate, regionName, serviceName);
+            // Step 3.1 Derive your signing key. The key only changes with the date, hence it is derived once a day.
+            SecretKeySpec signatureKey = getSigningKey(date);
 
             // Step 3.2 Calculate the signature.
-            byte[] signature = hmacSHA256(signatureKey, stringToSign);
+            Mac mac = getMac();
+            mac.init(signatureKey);
+            byte[] signature = mac.doFinal(stringToSign.getBytes(AWSConstants.UTF_8));
 
             // Step 3.2.1 Encode signature (byte[]) to Hex.
             return bytesToHex(signature);
@@ -197,68 +173,36 @@ public class AWSSignatureV4Generator {
     }
 
     /**
-     * Task 4: Add the Signing Information to the Request. We'll return Map of
-     * all headers put this headers in your request.
+     * Hashes the string contents (assumed to be UTF-8) using the SHA-256 algorithm.
      *
-     * @return Headers.
+     * @param data text to be hashed
+     * @return SHA-256 hashed text
      */
-    public Map<String, String> getHeaders() throws UserStoreException {
-
-        awsHeaders.put(AWSConstants.DATE_HEADER, xAmzDate);
-
-        // Execute Task 1: Create a Canonical Request for Signature Version 4.
-        String canonicalURL = prepareCanonicalRequest();
-
-        // Execute Task 2: Create a String to Sign for Signature Version 4.
-        String stringToSign = prepareStringToSign(canonicalURL);
-
-        // Execute Task 3: Calculate the AWS Signature Version 4.
-        String signature = calculateSignature(stringToSign);
-
-        Map<String, String> header = new HashMap<>(0);
-        header.put(AWSConstants.DATE_HEADER, xAmzDate);
-        header.put(AWSConstants.AUTHORIZATION_HEADER, buildAuthorizationString(signature));
+    private String hash(String data) throws UserStoreException {
 
-        if (log.isDebugEnabled()) {
-            log.debug(String.format("Signature: %s. Headers: ", signature));
-            for (Map.Entry<String, String> entrySet : header.entrySet()) {
-                log.debug(entrySet.getKey() + " = " + entrySet.getValue());
-            }
+        try {
+            MessageDigest messageDigest = getMessageDigest();
+            return bytesToHex(messageDigest.digest(data.getBytes(AWSConstants.UTF_8)));
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            throw new UserStoreException("Error while hashing the string contents." + e);
         }
-        return header;
-    }
-
-    /**
-     * Build string for Authorization header.
-     *
-     * @param strSignature Signature value.
-     * @return Authorization String.
-     */
-    private String buildAuthorizationString(String strSignature) {
-
-        return AWSConstants.HMAC_ALGORITHM + " "
-                + "Credential=" + accessKeyID + "/" + getDate() + "/" + regionName + "/" + serviceName + "/"
-                + AWSConstants.AWS4_REQUEST + ","
-                + "SignedHeaders=" + signedHeaderString + ","
-                + "Signature=" + strSignature;
     }
 
     /**
-     * Hashes the string contents (assumed to be UTF-8) using the SHA-256 algorithm.
+     * Hashes the given bytes using the SHA-256 algorithm.
      *
-     * @param data text to be hashed
+     * @param data   bytes to be hashed.
+     * @param length number of bytes to hash from the start of the array.
      * @return SHA-256 hashed text
      */
-    private String hash(String data) throws UserStoreException {
+    private String hash(byte[] data, int length) throws UserStoreException {
 
-        MessageDigest messageDigest;
         try {
-            messageDigest = MessageDigest.getInstance(AWSConstants.SHA_ALGORITHM);
-            messageDigest.update(data.getBytes(AWSConstants.UTF_8));
-            byte[] digest = messageDigest.digest();
-            return String.format("%064x", new java.math.BigInteger(1, digest));
-        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
-            throw new UserStoreException("Error while hashing the string contents." + e);
+            MessageDigest messageDigest = getMessageDigest();
+            messageDigest.update(data, 0, length);
+            return bytesToHex(messageDigest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new UserStoreException("Error while hashing the payload." + e);
         }
     }
 
@@ -276,12 +220,72 @@ public class AWSSignatureV4Generator {
     private byte[] hmacSHA256(byte[] key, String data) throws UnsupportedEncodingException, InvalidKeyException,
             NoSuchAlgorithmException {
 
-        String algorithm = AWSConstants.HMAC_SHA;
-        Mac mac = Mac.getInstance(algorithm);
-        mac.init(new SecretKeySpec(key, algorithm));
+        Mac mac = getMac();
+        mac.init(new SecretKeySpec(key, AWSConstants.HMAC_SHA));
         return mac.doFinal(data.getBytes(AWSConstants.UTF_8));
     }
 
+    /**
+     * Get the signing key of the given date. The cached key is replaced with a newly derived one once the date
+     * rolls over at UTC midnight.
+     *
+     * @param date Date of the request.
+     * @return Signing key.
+     * @throws UnsupportedEncodingException The Character Encoding is not supported.
+     * @throws InvalidKeyException          This is the exception for invalid Keys (invalid encoding, wrong length,
+     *                                      uninitialized, etc).
+     * @throws NoSuchAlgorithmException     When a particular cryptographic algorithm that is requested is not available.
+     */
+    private SecretKeySpec getSigningKey(String date) throws UnsupportedEncodingException, InvalidKeyException,
+            NoSuchAlgorithmException {
+
+        SigningKey currentKey = signingKey.get();
+        if (currentKey != null && currentKey.date.equals(date)) {
+            return currentKey.key;
+        }
+        SigningKey newKey = new SigningKey(date, new SecretKeySpec(getSignatureKey(secretAccessKey, date, regionName,
+                serviceName), AWSConstants.HMAC_SHA));
+        // Another thread may have derived the same key meanwhile, which is harmless.
+        signingKey.compareAndSet(currentKey, newKey);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Derived the signing key of date: %s, region: %s and service: %s.", date,
+                    regionName, serviceName));
+        }
+        return newKey.key;
+    }
+
+    /**
+     * Get the HMAC SHA 256 instance of the current thread.
+     *
+     * @return Mac instance.
+     * @throws NoSuchAlgorithmException When a particular cryptographic algorithm that is requested is not available.
+     */
+    private static Mac getMac() throws NoSuchAlgorithmException {
+
+        Mac mac = macs.get();
+        if (mac == null) {
+            mac = Mac.getInstance(AWSConstants.HMAC_SHA);
+            macs.set(mac);
+        }
+        return mac;
+    }
+
+    /**
+     * Get the SHA-256 message digest of the current thread.
+     *
+     * @return Message digest.
+     * @throws NoSuchAlgorithmException When a particular cryptographic algorithm that is requested is not available.
+     */
+    private static MessageDigest getMessageDigest() throws NoSuchAlgorithmException {
+
+        MessageDigest messageDigest = messageDigests.get();
+        if (messageDigest == null) {
+            messageDigest = MessageDigest.getInstance(AWSConstants.SHA_ALGORITHM);
+            messageDigests.set(messageDigest);
+        }
+        return messageDigest;
+    }
+
     /**
      * Generate AWS signature key.
      *
@@ -311,54 +315,136 @@ public class AWSSignatureV4Generator {
      * @param bytes bytes to be hex encoded.
      * @return hex encoded String of the given byte array.
      */
-    private String bytesToHex(byte[] bytes) {
+    private static String bytesToHex(byte[] bytes) {
 
-        final char[] hexArray = AWSConstants.HEX_ARRAY_STRING.toCharArray();
         char[] hexChars = new char[bytes.length * 2];
         for (int j = 0; j < bytes.length; j++) {
             int v = bytes[j] & 0xFF;
-            hexChars[j * 2] = hexArray[v >>> 4];
-            hexChars[j * 2 + 1] = hexArray[v & 0x0F];
+            hexChars[j * 2] = HEX_ARRAY[v >>> 4];
+            hexChars[j * 2 + 1] = HEX_ARRAY[v & 0x0F];
         }
-        return new String(hexChars).toLowerCase();
+        return new String(hexChars);
     }
 
     /**
-     * Get timestamp with yyyyMMdd'T'HHmmss'Z' format.
+     * Get the timestamp of the current second. The timestamp is formatted only once per second.
      *
-     * @return Time stamp value.
+     * @return Timestamp.
      */
-    private String getTimeStamp() {
+    private static Timestamp getTimestamp() {
 
-        DateFormat dateFormat = new SimpleDateFormat(AWSConstants.DATE_TIME_FORMAT);
-        dateFormat.setTimeZone(TimeZone.getTimeZone(AWSConstants.UTC));// Set the server time as UTC
-        return dateFormat.format(new Date());
+        long epochSecond = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp.get();
+        if (current.epochSecond == epochSecond) {
+            return current;
+        }
+        Timestamp next = new Timestamp(epochSecond);
+        timestamp.compareAndSet(current, next);
+        return next;
     }
 
     /**
-     * Get date with yyyyMMdd format.
-     *
-     * @return Date.
+     * Timestamp of a single second, in both the yyyyMMdd'T'HHmmss'Z' and yyyyMMdd formats (UTC).
+     */
+    static class Timestamp {
+
+        private final long epochSecond;
+        private final String xAmzDate;
+        private final String date;
+
+        Timestamp(long epochSecond) {
+
+            this.epochSecond = epochSecond;
+            this.xAmzDate = TIMESTAMP_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+            this.date = xAmzDate.substring(0, AWSConstants.DATE_FORMAT.length());
+        }
+    }
+
+    /**
+     * Signing key derived for a single date.
      */
-    private String getDate() {
+    private static class SigningKey {
+
+        private final String date;
+        private final SecretKeySpec key;
 
-        DateFormat dateFormat = new SimpleDateFormat(AWSConstants.DATE_FORMAT);
-        dateFormat.setTimeZone(TimeZone.getTimeZone(AWSConstants.UTC));// Set the server time as UTC
-        return dateFormat.format(new Date());
+        SigningKey(String date, SecretKeySpec key) {
+
+            this.date = date;
+            this.key = key;
+        }
     }
 
     /**
-     * Encode string value.
-     *
-     * @param param String value that need to be encode.
-     * @return encoded string.
+     * Parts of the canonical request and the authorization header which only depend on the endpoint.
      */
-    private String encodeParameter(String param) throws UserStoreException {
+    static class RequestTemplate {
+
+        private final String canonicalURI;
+        // Headers to be signed, other than the date.
+        private final String[][] headers;
+        // Canonical request up to the value of the date header.
+        private final String canonicalRequestPrefix;
+        // Canonical request from the value of the date header up to the payload hash.
+        private final String canonicalRequestSuffix;
+        // Authorization header from the credential date up to the signature.
+        private final String authorizationSuffix;
+
+        RequestTemplate(AWSEndpoint endpoint, Builder builder) {
+
+            this(endpoint.getHttpMethod(), builder.baseURI + endpoint.getPath(), getHeaders(endpoint, builder),
+                    builder.regionName, builder.serviceName);
+        }
 
-        try {
-            return URLEncoder.encode(param, AWSConstants.UTF_8);
-        } catch (UnsupportedEncodingException e) {
-            throw new UserStoreException(AWSConstants.ERROR_WHILE_CHARACTOR_ENCODING + e);
+        /**
+         * @param httpMethod   Http method.
+         * @param canonicalURI Canonical uri.
+         * @param awsHeaders   Headers to be signed other than the date, sorted by their lower case names.
+         * @param regionName   Region name.
+         * @param serviceName  Service name.
+         */
+        RequestTemplate(String httpMethod, String canonicalURI, TreeMap<String, String> awsHeaders,
+                        String regionName, String serviceName) {
+
+            this.canonicalURI = canonicalURI;
+            headers = new String[awsHeaders.size()][];
+
+            // Step 1.1 Start with the HTTP request method (GET, PUT, POST, etc.), followed by a newline character.
+            // Step 1.2 Add the canonical URI parameter, followed by a newline character.
+            // Step 1.3 Add the canonical query string (always empty), followed by a newline character.
+            StringBuilder canonicalRequest = new StringBuilder(httpMethod).append("\n")
+                    .append(canonicalURI).append("\n").append("\n");
+
+            // Step 1.4 Add the canonical headers. The date header sorts after all the other headers.
+            StringBuilder signedHeaders = new StringBuilder();
+            int index = 0;
+            for (Map.Entry<String, String> entrySet : awsHeaders.entrySet()) {
+                headers[index++] = new String[]{entrySet.getKey(), entrySet.getValue()};
+                signedHeaders.append(entrySet.getKey()).append(";");
+                canonicalRequest.append(entrySet.getKey()).append(":").append(entrySet.getValue()).append("\n");
+            }
+            signedHeaders.append(AWSConstants.DATE_HEADER);
+            canonicalRequestPrefix = canonicalRequest.append(AWSConstants.DATE_HEADER).append(":").toString();
+
+            // Step 1.5 Add the signed headers, followed by a newline character. Step 1.6 appends the payload hash.
+            canonicalRequestSuffix = "\n\n" + signedHeaders + "\n";
+            authorizationSuffix = "/" + regionName + "/" + serviceName + "/" +
+                    AWSConstants.AWS4_REQUEST + "," + "SignedHeaders=" + signedHeaders + "," + "Signature=";
+        }
+
+        private static TreeMap<String, String> getHeaders(AWSEndpoint endpoint, Builder builder) {
+
+            TreeMap<String, String> awsHeaders = new TreeMap<>();
+            awsHeaders.put(AWSConstants.HOST_HEADER, builder.hostHeader);
+            if (endpoint.getPartition() == AWSEndpoint.Partition.DIRECTORY) {
+                awsHeaders.put(AWSConstants.PARTITION_HEADER, builder.directoryArn);
+            } else if (endpoint.getPartition() == AWSEndpoint.Partition.SCHEMA) {
+                awsHeaders.put(AWSConstants.PARTITION_HEADER, builder.schemaArn);
+            }
+            if (endpoint.isSerializable()) {
+                awsHeaders.put(AWSConstants.CONSISTENCY_LEVEL_HEADER, AWSConstants.SERIALIZABLE);
+            }
+            return awsHeaders;
         }
     }
 
@@ -368,11 +454,10 @@ public class AWSSignatureV4Generator {
         private String secretAccessKey;
         private String regionName;
         private String serviceName;
-        private String httpMethodName;
-        private String canonicalURI;
-        private Map<String, String> queryParametes;
-        private Map<String, String> awsHeaders;
-        private String payload;
+        private String hostHeader;
+        private String baseURI;
+        private String directoryArn;
+        private String schemaArn;
 
         public Builder(String accessKeyID, String secretAccessKey) {
 
@@ -392,33 +477,27 @@ public class AWSSignatureV4Generator {
             return this;
         }
 
-        public Builder httpMethodName(String httpMethodName) {
+        public Builder hostHeader(String hostHeader) {
 
-            this.httpMethodName = httpMethodName;
-            return this;
-        }
-
-        public Builder canonicalURI(String canonicalURI) {
-
-            this.canonicalURI = canonicalURI;
+            this.hostHeader = hostHeader;
             return this;
         }
 
-        public Builder queryParametes(Map<String, String> queryParametes) {
+        public Builder baseURI(String baseURI) {
 
-            this.queryParametes = queryParametes;
+            this.baseURI = baseURI;
             return this;
         }
 
-        public Builder awsHeaders(Map<String, String> awsHeaders) {
+        public Builder directoryArn(String directoryArn) {
 
-            this.awsHeaders = awsHeaders;
+            this.directoryArn = directoryArn;
             return this;
         }
 
-        public Builder payload(String payload) {
+        public Builder schemaArn(String schemaArn) {
 
-            this.payload = payload;
+            this.schemaArn = schemaArn;
             return this;
         }
 
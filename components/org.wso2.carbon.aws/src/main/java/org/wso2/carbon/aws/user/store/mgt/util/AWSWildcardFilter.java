@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled form of a user store filter, in which "*" matches any sequence of characters. An anchored filter matches
+ * whole names as in the other user stores, hence "ab*" matches the names which start with "ab", "*ab" the names which
+ * end with "ab", "*ab*" the names which contain "ab" and "ab" the name "ab" only. A filter which is not anchored
+ * matches the names in which its literal parts occur in order, hence "ab*" and "ab" both match the names which
+ * contain "ab". An empty filter matches every name. The literal parts are looked up with plain string searches
+ * rather than with a regular expression.
+ */
+public class AWSWildcardFilter {
+
+    private static final AWSWildcardFilter ANY = new AWSWildcardFilter("", "", new String[0], false);
+
+    private final String prefix;
+    private final String suffix;
+    private final String[] parts;
+    private final boolean exact;
+
+    private AWSWildcardFilter(String prefix, String suffix, String[] parts, boolean exact) {
+
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.parts = parts;
+        this.exact = exact;
+    }
+
+    /**
+     * Compile a filter.
+     *
+     * @param filter   Filter.
+     * @param anchored Whether the filter has to match whole names.
+     * @return Compiled filter.
+     */
+    public static AWSWildcardFilter compile(String filter, boolean anchored) {
+
+        if (!anchored) {
+            // Matching anywhere in the name is the same as matching the whole name between two wildcards.
+            filter = "*" + filter + "*";
+        }
+        if (filter.isEmpty()) {
+            return ANY;
+        }
+        int first = filter.indexOf('*');
+        if (first < 0) {
+            return new AWSWildcardFilter(filter, "", new String[0], true);
+        }
+        int last = filter.lastIndexOf('*');
+        List<String> parts = new ArrayList<>();
+        for (String part : filter.substring(first + 1, last + 1).split("\\*")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return new AWSWildcardFilter(filter.substring(0, first), filter.substring(last + 1),
+                parts.toArray(new String[0]), false);
+    }
+
+    /**
+     * Get the literal prefix every matching name starts with.
+     *
+     * @return Prefix, which is empty if the filter starts with "*" or is not anchored.
+     */
+    public String getPrefix() {
+
+        return prefix;
+    }
+
+    /**
+     * Check whether a name matches the filter.
+     *
+     * @param text Name.
+     * @return Whether the name matches.
+     */
+    public boolean matches(String text) {
+
+        if (exact) {
+            return text.equals(prefix);
+        }
+        int end = text.length() - suffix.length();
+        if (end < prefix.length() || !text.startsWith(prefix) || !text.endsWith(suffix)) {
+            return false;
+        }
+        // The earliest occurrence of each part leaves the most room for the parts after it.
+        int from = prefix.length();
+        for (String part : parts) {
+            int index = text.indexOf(part, from);
+            if (index < 0 || index + part.length() > end) {
+                return false;
+            }
+            from = index + part.length();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that {@link AWSHttpClientProvider} keeps a pooled client open while any of its owners uses it.
+ */
+public class AWSHttpClientProviderTest {
+
+    private static final int TENANT_ID = -1234;
+
+    @AfterMethod
+    public void tearDown() {
+
+        AWSHttpClientProvider.shutdown();
+    }
+
+    @Test
+    public void testOwnersShareClient() throws UserStoreException {
+
+        Object firstOwner = new Object();
+        Object secondOwner = new Object();
+        CloseableHttpAsyncClient httpClient = AWSHttpClientProvider.getHttpClient(firstOwner, TENANT_ID,
+                getRealmConfig("10"));
+        assertSame(AWSHttpClientProvider.getHttpClient(secondOwner, TENANT_ID, getRealmConfig("10")), httpClient);
+        AWSHttpClientProvider.releaseHttpClient(firstOwner);
+        assertTrue(httpClient.isRunning());
+        AWSHttpClientProvider.releaseHttpClient(secondOwner);
+        assertFalse(httpClient.isRunning());
+    }
+
+    @Test
+    public void testReplacedClientStaysOpenForItsOwner() throws UserStoreException {
+
+        Object liveOwner = new Object();
+        Object testOwner = new Object();
+        CloseableHttpAsyncClient liveClient = AWSHttpClientProvider.getHttpClient(liveOwner, TENANT_ID,
+                getRealmConfig("10"));
+        // Another manager of the same user store with different connection settings, such as a connection test.
+        CloseableHttpAsyncClient testClient = AWSHttpClientProvider.getHttpClient(testOwner, TENANT_ID,
+                getRealmConfig("20"));
+        assertNotSame(testClient, liveClient);
+        AWSHttpClientProvider.releaseHttpClient(testOwner);
+        assertFalse(testClient.isRunning());
+        assertTrue(liveClient.isRunning());
+        AWSHttpClientProvider.releaseHttpClient(liveOwner);
+        assertFalse(liveClient.isRunning());
+    }
+
+    @Test
+    public void testReleasedClientIsNotReused() throws UserStoreException {
+
+        Object firstOwner = new Object();
+        CloseableHttpAsyncClient httpClient = AWSHttpClientProvider.getHttpClient(firstOwner, TENANT_ID,
+                getRealmConfig("10"));
+        AWSHttpClientProvider.releaseHttpClient(firstOwner);
+        CloseableHttpAsyncClient newClient = AWSHttpClientProvider.getHttpClient(new Object(), TENANT_ID,
+                getRealmConfig("10"));
+        assertNotSame(newClient, httpClient);
+        assertTrue(newClient.isRunning());
+    }
+
+    private static RealmConfiguration getRealmConfig(String maxTotalConnections) {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME, "AWS-HTTP-CLIENT-PROVIDER-TEST");
+        properties.put(AWSConstants.IO_THREAD_COUNT, "1");
+        properties.put(AWSConstants.MAX_TOTAL_CONNECTIONS, maxTotalConnections);
+        RealmConfiguration realmConfig = new RealmConfiguration();
+        realmConfig.setUserStoreProperties(properties);
+        return realmConfig;
+    }
+}
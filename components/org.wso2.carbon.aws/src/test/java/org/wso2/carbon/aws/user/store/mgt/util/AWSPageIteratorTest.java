@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the order of the pages and the hand-off of the pagination tokens of {@link AWSPageIterator}.
+ */
+public class AWSPageIteratorTest {
+
+    private static final int PAGE_COUNT = 10;
+    private AWSRestApiActions awsActions;
+
+    @BeforeClass
+    public void setUp() throws UserStoreException {
+
+        Map<String, String> properties = new HashMap<>();
+        properties.put(UserCoreConstants.RealmConfig.PROPERTY_DOMAIN_NAME, "AWS-PAGE-ITERATOR-TEST");
+        properties.put(AWSConstants.ACCESS_KEY_ID, "accessKeyId");
+        properties.put(AWSConstants.SECRET_ACCESS_KEY, "secretAccessKey");
+        properties.put(AWSConstants.REGION, "us-west-2");
+        properties.put(AWSConstants.API_VERSION, "2017-01-11");
+        RealmConfiguration realmConfig = new RealmConfiguration();
+        realmConfig.setUserStoreProperties(properties);
+        awsActions = new AWSRestApiActions(realmConfig, -1234);
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        AWSHttpClientProvider.shutdown();
+    }
+
+    @DataProvider(name = "prefetchDepths")
+    public Object[][] prefetchDepths() {
+
+        return new Object[][]{{0}, {1}, {3}};
+    }
+
+    @Test(dataProvider = "prefetchDepths")
+    public void testPagesAreReturnedInOrder(int prefetchDepth) throws UserStoreException {
+
+        Pages pages = new Pages(true);
+        List<String> results = new ArrayList<>();
+        try (AWSPageIterator<String> iterator = pages.iterate(prefetchDepth)) {
+            while (iterator.hasNext()) {
+                results.add(iterator.next());
+            }
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < PAGE_COUNT; i++) {
+            expected.add(getPage(i));
+        }
+        assertEquals(results, expected);
+        expected.set(0, null);
+        for (int i = 1; i < PAGE_COUNT; i++) {
+            expected.set(i, getToken(i));
+        }
+        assertEquals(pages.requestedTokens, expected);
+    }
+
+    @Test(dataProvider = "prefetchDepths")
+    public void testPagesAreRequestedUpToPrefetchDepth(int prefetchDepth) throws UserStoreException {
+
+        Pages pages = new Pages(false);
+        try (AWSPageIterator<String> iterator = pages.iterate(prefetchDepth)) {
+            pages.completeAll();
+            // The page the caller takes next, along with the pages requested ahead of it.
+            assertEquals(pages.requestedTokens.size(), prefetchDepth + 1);
+            for (int i = 0; i < PAGE_COUNT; i++) {
+                assertTrue(iterator.hasNext());
+                assertEquals(iterator.next(), getPage(i));
+                pages.completeAll();
+                assertEquals(pages.requestedTokens.size(), Math.min(PAGE_COUNT, prefetchDepth + i + 2));
+            }
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    public void testTokenIsHeldBackWithoutPrefetch() throws UserStoreException {
+
+        Pages pages = new Pages(false);
+        try (AWSPageIterator<String> iterator = pages.iterate(0)) {
+            assertEquals(pages.requestedTokens, Arrays.asList((String) null));
+            pages.futures.get(0).complete(getPage(0));
+            // The token of the first page is only followed once the caller takes the first page.
+            assertEquals(pages.requestedTokens.size(), 1);
+            assertTrue(iterator.hasNext());
+            assertEquals(iterator.next(), getPage(0));
+            assertEquals(pages.requestedTokens, Arrays.asList(null, getToken(1)));
+        }
+    }
+
+    @Test
+    public void testTokenIsFollowedAsSoonAsPageArrives() throws UserStoreException {
+
+        Pages pages = new Pages(false);
+        try (AWSPageIterator<String> iterator = pages.iterate(1)) {
+            pages.futures.get(0).complete(getPage(0));
+            assertEquals(pages.requestedTokens, Arrays.asList(null, getToken(1)));
+            pages.futures.get(1).complete(getPage(1));
+            // Two pages are waiting for the caller, hence the token of the second page is held back.
+            assertEquals(pages.requestedTokens.size(), 2);
+            assertEquals(iterator.next(), getPage(0));
+            assertEquals(pages.requestedTokens, Arrays.asList(null, getToken(1), getToken(2)));
+        }
+    }
+
+    @Test
+    public void testCloseCancelsOutstandingPages() throws UserStoreException {
+
+        Pages pages = new Pages(false);
+        AWSPageIterator<String> iterator = pages.iterate(2);
+        pages.futures.get(0).complete(getPage(0));
+        pages.futures.get(1).complete(getPage(1));
+        assertEquals(pages.requestedTokens.size(), 3);
+        assertEquals(iterator.next(), getPage(0));
+        iterator.close();
+        assertTrue(pages.futures.get(2).isCancelled());
+        assertFalse(iterator.hasNext());
+        assertEquals(pages.requestedTokens.size(), 3);
+    }
+
+    @Test(expectedExceptions = UserStoreException.class)
+    public void testFailedPageIsReported() throws UserStoreException {
+
+        Pages pages = new Pages(false);
+        try (AWSPageIterator<String> iterator = pages.iterate(1)) {
+            pages.futures.get(0).completeExceptionally(new UserStoreException("Failed to list the page."));
+            iterator.next();
+        }
+    }
+
+    private static String getPage(int index) {
+
+        return "page" + index;
+    }
+
+    private static String getToken(int index) {
+
+        return "token" + index;
+    }
+
+    /**
+     * Serves the pages of a listing, recording the pagination tokens they are requested with.
+     */
+    private class Pages {
+
+        private final boolean completeImmediately;
+        private final List<String> requestedTokens = new ArrayList<>();
+        private final List<CompletableFuture<String>> futures = new ArrayList<>();
+
+        Pages(boolean completeImmediately) {
+
+            this.completeImmediately = completeImmediately;
+        }
+
+        AWSPageIterator<String> iterate(int prefetchDepth) {
+
+            return new AWSPageIterator<>(awsActions, this::fetch, this::getNextToken, prefetchDepth, null);
+        }
+
+        /**
+         * Complete the pages requested so far, in order, along with the pages they lead to.
+         */
+        void completeAll() {
+
+            for (int i = 0; i < futures.size(); i++) {
+                futures.get(i).complete(getPage(i));
+            }
+        }
+
+        private CompletableFuture<String> fetch(String token) {
+
+            requestedTokens.add(token);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            futures.add(future);
+            if (completeImmediately) {
+                future.complete(getPage(futures.size() - 1));
+            }
+            return future;
+        }
+
+        private String getNextToken(String page) {
+
+            int index = Integer.parseInt(page.substring("page".length())) + 1;
+            return index < PAGE_COUNT ? getToken(index) : null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the dispatch order of {@link AWSRequestScheduler}, and that requests completing inline do not nest the
+ * dispatch of the queued requests.
+ */
+public class AWSRequestSchedulerTest {
+
+    @Test
+    public void testHighestPriorityIsDispatchedFirst() {
+
+        AWSRequestScheduler scheduler = new AWSRequestScheduler(new AWSRateLimiter(), 1);
+        List<String> dispatched = new ArrayList<>();
+        // Holds the only slot until released.
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.DEFAULT, () -> dispatched.add("first")));
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.BULK, () -> dispatched.add("bulk")));
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.DEFAULT, () -> dispatched.add("default")));
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.INTERACTIVE, () -> dispatched.add("interactive")));
+        for (int i = 0; i < 3; i++) {
+            scheduler.release();
+        }
+        assertEquals(dispatched, Arrays.asList("first", "interactive", "default", "bulk"));
+    }
+
+    @Test
+    public void testFullQueueIsShed() {
+
+        AWSRequestScheduler scheduler = new AWSRequestScheduler(new AWSRateLimiter(), 1);
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.BULK, () -> { }));
+        for (int i = 0; i < AWSConstants.BULK_REQUEST_QUEUE_SIZE; i++) {
+            assertTrue(scheduler.submit(AWSRequestScheduler.Priority.BULK, () -> { }));
+        }
+        assertFalse(scheduler.submit(AWSRequestScheduler.Priority.BULK, () -> { }));
+        assertEquals(scheduler.getRejectedCount(AWSRequestScheduler.Priority.BULK), 1);
+        // Other priority classes are still accepted.
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.INTERACTIVE, () -> { }));
+    }
+
+    @Test
+    public void testInlineReleaseDoesNotNest() {
+
+        AWSRequestScheduler scheduler = new AWSRequestScheduler(new AWSRateLimiter(), 1);
+        int[] dispatched = new int[1];
+        int[] maxStackDepth = new int[1];
+        assertTrue(scheduler.submit(AWSRequestScheduler.Priority.DEFAULT, () -> { }));
+        // Requests whose futures are already done release their slot from within the task.
+        for (int i = 0; i < AWSConstants.INTERACTIVE_REQUEST_QUEUE_SIZE; i++) {
+            assertTrue(scheduler.submit(AWSRequestScheduler.Priority.INTERACTIVE, () -> {
+                dispatched[0]++;
+                maxStackDepth[0] = Math.max(maxStackDepth[0], Thread.currentThread().getStackTrace().length);
+                scheduler.release();
+            }));
+        }
+        int stackDepth = Thread.currentThread().getStackTrace().length;
+        scheduler.release();
+        assertEquals(dispatched[0], AWSConstants.INTERACTIVE_REQUEST_QUEUE_SIZE);
+        assertEquals(scheduler.getQueueDepth(AWSRequestScheduler.Priority.INTERACTIVE), 0);
+        assertTrue(maxStackDepth[0] - stackDepth < 10, "Dispatch nested " + (maxStackDepth[0] - stackDepth) +
+                " frames deep.");
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.apache.http.client.methods.HttpPost;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.aws.user.store.mgt.AWSConstants;
+import org.wso2.carbon.user.core.UserStoreException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.TreeMap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+/**
+ * Tests {@link AWSSignatureV4Generator} against the post-vanilla and post-x-www-form-urlencoded requests of the AWS
+ * Signature Version 4 test suite.
+ */
+public class AWSSignatureV4GeneratorTest {
+
+    private static final String ACCESS_KEY_ID = "AKIDEXAMPLE";
+    private static final String SECRET_ACCESS_KEY = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+    private static final String REGION = "us-east-1";
+    private static final String SERVICE = "service";
+    private static final String HOST = "example.amazonaws.com";
+    // 20150830T123600Z, the time of the requests of the test suite.
+    private static final long REQUEST_TIME = 1440938160L;
+    private static final String POST_VANILLA_SIGNATURE =
+            "5da7c1a2acd57cee7505fc6676e4e544621c30862966e37dddb68e92efbe5d6b";
+    private AWSSignatureV4Generator signatureGenerator;
+
+    @BeforeMethod
+    public void setUp() {
+
+        signatureGenerator = new AWSSignatureV4Generator.Builder(ACCESS_KEY_ID, SECRET_ACCESS_KEY)
+                .regionName(REGION)
+                .serviceName(SERVICE)
+                .build();
+    }
+
+    @Test
+    public void testPostVanilla() throws UserStoreException {
+
+        HttpPost request = new HttpPost("https://" + HOST + "/");
+        String signature = sign(getHeaders(), request, "", REQUEST_TIME);
+        assertEquals(signature, POST_VANILLA_SIGNATURE);
+        assertEquals(request.getFirstHeader(AWSConstants.DATE_HEADER).getValue(), "20150830T123600Z");
+        assertEquals(request.getFirstHeader(AWSConstants.HOST_HEADER).getValue(), HOST);
+        assertEquals(request.getFirstHeader(AWSConstants.AUTHORIZATION_HEADER).getValue(),
+                "AWS4-HMAC-SHA256 Credential=AKIDEXAMPLE/20150830/us-east-1/service/aws4_request," +
+                        "SignedHeaders=host;x-amz-date,Signature=" + POST_VANILLA_SIGNATURE);
+    }
+
+    @Test
+    public void testPostFormUrlEncoded() throws UserStoreException {
+
+        TreeMap<String, String> headers = getHeaders();
+        headers.put("content-type", "application/x-www-form-urlencoded");
+        HttpPost request = new HttpPost("https://" + HOST + "/");
+        String signature = sign(headers, request, "Param1=value1", REQUEST_TIME);
+        assertEquals(signature, "ff11897932ad3f4e8b18135d722051e5ac45fc38421b1da7b9d196a0fe09473a");
+        assertEquals(request.getFirstHeader(AWSConstants.AUTHORIZATION_HEADER).getValue(),
+                "AWS4-HMAC-SHA256 Credential=AKIDEXAMPLE/20150830/us-east-1/service/aws4_request," +
+                        "SignedHeaders=content-type;host;x-amz-date,Signature=" + signature);
+    }
+
+    @Test
+    public void testSigningKeyFollowsDate() throws UserStoreException {
+
+        // The cached signing key is replaced once the date changes, and derived again when it changes back.
+        String nextDay = sign(getHeaders(), new HttpPost("https://" + HOST + "/"), "", REQUEST_TIME + 86400);
+        assertNotEquals(nextDay, POST_VANILLA_SIGNATURE);
+        assertEquals(sign(getHeaders(), new HttpPost("https://" + HOST + "/"), "", REQUEST_TIME),
+                POST_VANILLA_SIGNATURE);
+    }
+
+    @Test
+    public void testPayloadLength() throws UserStoreException {
+
+        // Only the valid bytes of a pooled payload buffer are hashed.
+        byte[] buffer = "Param1=value1 and the rest of the buffer".getBytes(StandardCharsets.UTF_8);
+        TreeMap<String, String> headers = getHeaders();
+        headers.put("content-type", "application/x-www-form-urlencoded");
+        AWSSignatureV4Generator.RequestTemplate template = new AWSSignatureV4Generator.RequestTemplate(
+                AWSConstants.HTTP_POST, "/", headers, REGION, SERVICE);
+        String signature = signatureGenerator.sign(template, new HttpPost("https://" + HOST + "/"), buffer,
+                "Param1=value1".length(), new AWSSignatureV4Generator.Timestamp(REQUEST_TIME));
+        assertEquals(signature, "ff11897932ad3f4e8b18135d722051e5ac45fc38421b1da7b9d196a0fe09473a");
+    }
+
+    private String sign(TreeMap<String, String> headers, HttpPost request, String payload, long epochSecond)
+            throws UserStoreException {
+
+        AWSSignatureV4Generator.RequestTemplate template = new AWSSignatureV4Generator.RequestTemplate(
+                AWSConstants.HTTP_POST, "/", headers, REGION, SERVICE);
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return signatureGenerator.sign(template, request, bytes, bytes.length,
+                new AWSSignatureV4Generator.Timestamp(epochSecond));
+    }
+
+    private static TreeMap<String, String> getHeaders() {
+
+        TreeMap<String, String> headers = new TreeMap<>();
+        headers.put(AWSConstants.HOST_HEADER, HOST);
+        return headers;
+    }
+}
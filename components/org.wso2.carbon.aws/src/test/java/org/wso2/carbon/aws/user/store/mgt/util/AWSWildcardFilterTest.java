@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.aws.user.store.mgt.util;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.StringTokenizer;
+import java.util.regex.Pattern;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that {@link AWSWildcardFilter} matches the same names as regular expressions in which "*" stands for any
+ * sequence of characters, anchored at both ends if the filter is anchored and open at both ends otherwise.
+ */
+public class AWSWildcardFilterTest {
+
+    // Includes the characters which are special to regular expressions or to the former tokenizer.
+    private static final String ALPHABET = "ab*%.()[]\\$^+?";
+
+    @DataProvider(name = "filters")
+    public Object[][] filters() {
+
+        return new Object[][]{
+                {"*", "admin"},
+                {"", "admin"},
+                {"*", ""},
+                {"adm*", "admin"},
+                {"adm*", "sysadmin"},
+                {"*min", "administrator"},
+                {"a*n", "admin"},
+                {"a*n", "nada"},
+                {"ab*ab", "ab"},
+                {"ab*ab", "abab"},
+                {"a**b", "ab"},
+                {"*a*b*", "ba"},
+                {"user.name", "userXname"},
+                {"user.name", "user.name"},
+                {"50%", "50%off"},
+                {"(admin)", "(admin)"},
+                {"\\Q*\\E", "\\Qx\\E"},
+                {"$role^", "a$role^b"},
+        };
+    }
+
+    @DataProvider(name = "anchoredFilters")
+    public Object[][] anchoredFilters() {
+
+        return new Object[][]{
+                {"ab*", "abc", true},
+                {"ab*", "xabc", false},
+                {"*ab", "xab", true},
+                {"*ab", "abx", false},
+                {"*ab*", "xabx", true},
+                {"ab", "ab", true},
+                {"ab", "abc", false},
+                {"a*a", "a", false},
+                {"a*a", "aa", true},
+                {"", "admin", true},
+        };
+    }
+
+    @DataProvider(name = "unanchoredFilters")
+    public Object[][] unanchoredFilters() {
+
+        return new Object[][]{
+                {"ab*", "xabc", true},
+                {"*ab", "abx", true},
+                {"ab", "xabx", true},
+                {"a*b", "xaxbx", true},
+                {"a*b", "ba", false},
+                {"", "admin", true},
+        };
+    }
+
+    @Test(dataProvider = "anchoredFilters")
+    public void testFiltersAreAnchored(String filter, String text, boolean matches) {
+
+        assertEquals(AWSWildcardFilter.compile(filter, true).matches(text), matches,
+                String.format("Filter: %s, text: %s", filter, text));
+    }
+
+    @Test(dataProvider = "unanchoredFilters")
+    public void testFiltersAreNotAnchored(String filter, String text, boolean matches) {
+
+        assertEquals(AWSWildcardFilter.compile(filter, false).matches(text), matches,
+                String.format("Filter: %s, text: %s", filter, text));
+    }
+
+    @Test
+    public void testPrefix() {
+
+        assertEquals(AWSWildcardFilter.compile("ab*c*", true).getPrefix(), "ab");
+        assertEquals(AWSWildcardFilter.compile("abc", true).getPrefix(), "abc");
+        assertEquals(AWSWildcardFilter.compile("*ab", true).getPrefix(), "");
+        assertEquals(AWSWildcardFilter.compile("", true).getPrefix(), "");
+        // Filters which are not anchored cannot be looked up by prefix.
+        assertEquals(AWSWildcardFilter.compile("abc", false).getPrefix(), "");
+    }
+
+    @Test(dataProvider = "filters")
+    public void testMatchesLikeRegex(String filter, String text) {
+
+        assertEquals(AWSWildcardFilter.compile(filter, true).matches(text), matchesRegex(filter, text, true),
+                String.format("Filter: %s, text: %s", filter, text));
+        assertEquals(AWSWildcardFilter.compile(filter, false).matches(text), matchesRegex(filter, text, false),
+                String.format("Filter: %s, text: %s", filter, text));
+    }
+
+    @Test
+    public void testMatchesLikeRegexForRandomFilters() {
+
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String filter = randomString(random, 6);
+            String text = randomString(random, 10);
+            assertEquals(AWSWildcardFilter.compile(filter, true).matches(text), matchesRegex(filter, text, true),
+                    String.format("Filter: %s, text: %s", filter, text));
+            assertEquals(AWSWildcardFilter.compile(filter, false).matches(text), matchesRegex(filter, text, false),
+                    String.format("Filter: %s, text: %s", filter, text));
+        }
+    }
+
+    private static String randomString(Random random, int maxLength) {
+
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Match a filter by translating it into a regular expression, as the filters were matched before they were
+     * compiled, optionally anchored at both ends.
+     */
+    private static boolean matchesRegex(String filter, String text, boolean anchored) {
+
+        if (filter.isEmpty()) {
+            return true;
+        }
+        StringBuilder regex = new StringBuilder(anchored ? "" : ".*");
+        StringTokenizer tokenizer = new StringTokenizer(filter, "%*", true);
+        while (tokenizer.hasMoreTokens()) {
+            String token = tokenizer.nextToken();
+            if ("*".equals(token)) {
+                regex.append(".*");
+            } else {
+                regex.append(Pattern.quote(token));
+            }
+        }
+        if (!anchored) {
+            regex.append(".*");
+        }
+        return text.matches(regex.toString());
+    }
+}